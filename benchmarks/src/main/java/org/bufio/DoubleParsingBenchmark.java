@@ -0,0 +1,65 @@
+package org.bufio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+public class DoubleParsingBenchmark {
+	private String[] values;
+	private String csv;
+
+	@Setup
+	public void setup() {
+		final Random rnd = new Random(42);
+		values = new String[100_000];
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Double.toString(rnd.nextDouble() * 1000);
+			sb.append(values[i]).append(i % 10 == 9 ? '\n' : ',');
+		}
+		csv = sb.toString();
+	}
+
+	@Benchmark
+	public void testParseDouble(Blackhole blackhole) {
+		for (String value : values) {
+			blackhole.consume(Double.parseDouble(value));
+		}
+	}
+
+	@Benchmark
+	public void testCsvScannerValueParseDouble(Blackhole blackhole) throws IOException {
+		CsvScanner s = new CsvScanner(new StringReader(csv));
+		while (s.scan()) {
+			blackhole.consume(Double.parseDouble(s.value()));
+		}
+	}
+
+	@Benchmark
+	public void testCsvScannerScanDouble(Blackhole blackhole) throws IOException {
+		CsvScanner s = new CsvScanner(new StringReader(csv));
+		s.setViewOnly(true);
+		for (int i = 0; i < values.length; i++) {
+			blackhole.consume(s.scanDouble());
+		}
+	}
+}
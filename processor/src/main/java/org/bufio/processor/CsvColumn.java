@@ -0,0 +1,19 @@
+package org.bufio.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Customizes a column of a {@link CsvRecord}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+public @interface CsvColumn {
+	/** Header label (the default is the field name). */
+	String value() default "";
+
+	/** Text of a true boolean value (other values are false). */
+	String trueValue() default "true";
+}
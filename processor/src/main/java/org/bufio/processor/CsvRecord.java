@@ -0,0 +1,30 @@
+package org.bufio.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates, at compile time, a reader ({@code <Name>CsvReader}) and a writer ({@code <Name>CsvWriter})
+ * for the annotated class or record (see {@link CsvRecordProcessor}).
+ * Columns are the non-static, non-transient fields in declaration order (or the record components).
+ * <pre>{@code
+ * @CsvRecord
+ * public class Trade {
+ *   String symbol;
+ *   int quantity;
+ *   @CsvColumn("px") double price;
+ * }
+ * TradeCsvReader r = new TradeCsvReader(new CsvScanner(reader));
+ * r.skipHeaders();
+ * Trade trade;
+ * while ((trade = r.read()) != null) {
+ *   // ...
+ * }
+ * }</pre>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface CsvRecord {
+}
@@ -0,0 +1,390 @@
+package org.bufio.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a reader and a writer for each {@link CsvRecord} class:
+ * <ul>
+ * <li>{@code <Name>CsvReader} calls the typed scan methods of {@code CsvScanner} ({@code scanInt}, {@code scanDouble}, ...)
+ * in column order,</li>
+ * <li>{@code <Name>CsvWriter} calls the typed setters of {@code CsvColWriter} ({@code setInt}, {@code setDouble}, ...).</li>
+ * </ul>
+ * The generated code is plain Java: no reflection, no method handles and no lambdas (monomorphic call sites).
+ * Supported column types are {@code String}, {@code int}, {@code long}, {@code float}, {@code double}, {@code boolean},
+ * {@code char} and their wrappers (an empty value is `null` for a wrapper when {@code CsvScanner#setEmptyIsNull} is set).
+ * Fields must be accessible from the package or through setters/getters (JavaBeans) and records are created
+ * with their canonical constructor.
+ */
+@SupportedAnnotationTypes("org.bufio.processor.CsvRecord")
+public class CsvRecordProcessor extends AbstractProcessor {
+	private static final class Column {
+		private final String name;
+		private final String label;
+		private final String type;
+		private final String trueValue;
+		// statement assigning the local variable to the object (null for a record)
+		private String setter;
+		// expression reading the value from the object
+		private String getter;
+
+		private Column(String name, String label, String type, String trueValue) {
+			this.name = name;
+			this.label = label;
+			this.type = type;
+			this.trueValue = trueValue;
+		}
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getElementsAnnotatedWith(CsvRecord.class)) {
+			final TypeElement type = (TypeElement) element;
+			try {
+				final List<Column> columns = columns(type);
+				if (columns != null) {
+					generate(type, columns);
+				}
+			} catch (IOException e) {
+				error(type, "cannot generate reader/writer: " + e);
+			}
+		}
+		return true;
+	}
+
+	private List<Column> columns(TypeElement type) {
+		if (type.getModifiers().contains(Modifier.PRIVATE) || type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)
+				&& !isRecord(type)) {
+			error(type, "@CsvRecord class must be top-level or static");
+			return null;
+		}
+		final List<Column> columns = new ArrayList<>();
+		final List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements());
+		final List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+		if (isRecord(type)) {
+			for (Element component : type.getEnclosedElements()) {
+				if (!component.getKind().name().equals("RECORD_COMPONENT")) {
+					continue;
+				}
+				final String name = component.getSimpleName().toString();
+				CsvColumn annotation = component.getAnnotation(CsvColumn.class);
+				for (VariableElement field : fields) {
+					if (annotation == null && field.getSimpleName().contentEquals(name)) {
+						annotation = field.getAnnotation(CsvColumn.class);
+					}
+				}
+				final Column column = column(component, name, component.asType(), annotation);
+				if (column == null) {
+					return null;
+				}
+				column.getter = "t." + name + "()";
+				columns.add(column);
+			}
+			return columns;
+		}
+		if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+			error(type, "@CsvRecord class must not be abstract");
+			return null;
+		}
+		boolean constructor = false;
+		for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			constructor |= c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE);
+		}
+		if (!constructor) {
+			error(type, "@CsvRecord class must have a no-arg constructor");
+			return null;
+		}
+		for (VariableElement field : fields) {
+			final Set<Modifier> modifiers = field.getModifiers();
+			if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+				continue;
+			}
+			final String name = field.getSimpleName().toString();
+			final Column column = column(field, name, field.asType(), field.getAnnotation(CsvColumn.class));
+			if (column == null) {
+				return null;
+			}
+			final String property = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.FINAL)) {
+				column.setter = "t." + name + " = " + name + ';';
+				column.getter = "t." + name;
+			} else {
+				column.setter = accessor(methods, "set" + property, 1) ? "t.set" + property + '(' + name + ");" : null;
+				column.getter = accessor(methods, "get" + property, 0) ? "get" + property + "()"
+						: accessor(methods, "is" + property, 0) ? "is" + property + "()" : null;
+				if (column.setter == null || column.getter == null) {
+					error(field, "field must be accessible from its package or through a setter and a getter");
+					return null;
+				}
+				column.getter = "t." + column.getter;
+			}
+			columns.add(column);
+		}
+		return columns;
+	}
+
+	private Column column(Element element, String name, TypeMirror type, CsvColumn annotation) {
+		final String typeName;
+		switch (type.toString()) {
+			case "java.lang.String":
+				typeName = "String";
+				break;
+			case "int":
+			case "long":
+			case "float":
+			case "double":
+			case "boolean":
+			case "char":
+				typeName = type.toString();
+				break;
+			case "java.lang.Integer":
+			case "java.lang.Long":
+			case "java.lang.Float":
+			case "java.lang.Double":
+			case "java.lang.Boolean":
+			case "java.lang.Character":
+				typeName = type.toString().substring("java.lang.".length());
+				break;
+			default:
+				error(element, "unsupported column type: " + type);
+				return null;
+		}
+		final String label = annotation == null || annotation.value().isEmpty() ? name : annotation.value();
+		return new Column(name, label, typeName, annotation == null ? "true" : annotation.trueValue());
+	}
+
+	private static boolean accessor(List<ExecutableElement> methods, String name, int arity) {
+		for (ExecutableElement method : methods) {
+			if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == arity
+					&& !method.getModifiers().contains(Modifier.PRIVATE) && !method.getModifiers().contains(Modifier.STATIC)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void generate(TypeElement type, List<Column> columns) throws IOException {
+		final PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = pkg.isUnnamed() ? null : pkg.getQualifiedName().toString();
+		final String typeName = type.getQualifiedName().toString();
+		final String simpleName = binaryName(type).substring(packageName == null ? 0 : packageName.length() + 1).replace('$', '_');
+		final boolean record = isRecord(type);
+
+		try (PrintWriter w = new PrintWriter(processingEnv.getFiler().createSourceFile(qualified(packageName, simpleName + "CsvReader"), type).openWriter())) {
+			header(w, packageName);
+			w.println("import org.bufio.CsvScanner;");
+			w.println();
+			w.println("import java.io.IOException;");
+			w.println();
+			w.printf("/** Reads {@link %s} rows from a {@link CsvScanner} (generated by %s). */%n", typeName, getClass().getName());
+			w.printf("public final class %sCsvReader {%n", simpleName);
+			headers(w, columns);
+			w.println("\tprivate final CsvScanner s;");
+			w.println();
+			w.printf("\tpublic %sCsvReader(CsvScanner s) {%n", simpleName);
+			w.println("\t\tthis.s = s;");
+			w.println("\t}");
+			w.println();
+			w.println("\t/** Skips the header row. */");
+			w.println("\tpublic void skipHeaders() throws IOException {");
+			w.println("\t\ts.skipRows(1);");
+			w.println("\t}");
+			w.println();
+			w.println("\t/**");
+			w.println("\t * Reads the next row or returns `null` at EOF.");
+			w.println("\t * Missing fields are `null` (0 or false) and extra fields are skipped.");
+			w.println("\t * @throws NumberFormatException with the line and column of the field.");
+			w.println("\t */");
+			w.printf("\tpublic %s read() throws IOException {%n", typeName);
+			w.println("\t\tif (s.peek() == 0 && s.atEndOfFile()) {");
+			w.println("\t\t\treturn null;");
+			w.println("\t\t}");
+			for (Column column : columns) {
+				w.printf("\t\t%s %s = %s;%n", column.type, column.name, zero(column.type));
+			}
+			w.println("\t\tboolean eor = false;");
+			for (int i = 0; i < columns.size(); i++) {
+				final Column column = columns.get(i);
+				final String indent = i == 0 ? "\t\t" : "\t\t\t";
+				if (i > 0) {
+					w.println("\t\tif (!eor) {");
+				}
+				w.printf("%s%s%n", indent, scan(column));
+				w.printf("%seor = s.atEndOfRow();%n", indent);
+				if (i > 0) {
+					w.println("\t\t}");
+				}
+			}
+			w.println("\t\twhile (!eor && s.scan()) { // extra fields");
+			w.println("\t\t\teor = s.atEndOfRow();");
+			w.println("\t\t}");
+			if (record) {
+				final StringBuilder args = new StringBuilder();
+				for (Column column : columns) {
+					args.append(args.length() == 0 ? "" : ", ").append(column.name);
+				}
+				w.printf("\t\treturn new %s(%s);%n", typeName, args);
+			} else {
+				w.printf("\t\tfinal %s t = new %s();%n", typeName, typeName);
+				for (Column column : columns) {
+					w.printf("\t\t%s%n", column.setter);
+				}
+				w.println("\t\treturn t;");
+			}
+			w.println("\t}");
+			w.println("}");
+		}
+
+		try (PrintWriter w = new PrintWriter(processingEnv.getFiler().createSourceFile(qualified(packageName, simpleName + "CsvWriter"), type).openWriter())) {
+			header(w, packageName);
+			w.println("import org.bufio.CsvColWriter;");
+			w.println();
+			w.println("import java.io.IOException;");
+			w.println("import java.util.Arrays;");
+			w.println();
+			w.printf("/** Writes {@link %s} rows to a {@link CsvColWriter} (generated by %s). */%n", typeName, getClass().getName());
+			w.printf("public final class %sCsvWriter {%n", simpleName);
+			headers(w, columns);
+			w.println("\tprivate final CsvColWriter w;");
+			w.println();
+			w.printf("\tpublic %sCsvWriter(CsvColWriter w) {%n", simpleName);
+			w.println("\t\tthis.w = w;");
+			w.println("\t}");
+			w.println();
+			w.println("\t/** Writes the header row. */");
+			w.println("\tpublic void writeHeaders() throws IOException {");
+			w.println("\t\tw.withHeaders(Arrays.asList(HEADERS));");
+			w.println("\t\tw.writerHeaders(false);");
+			w.println("\t}");
+			w.println();
+			w.println("\t/** Writes `t` as one row. */");
+			w.printf("\tpublic void write(%s t) throws IOException {%n", typeName);
+			for (int i = 0; i < columns.size(); i++) {
+				final Column column = columns.get(i);
+				w.printf("\t\tw.%s(%d, %s);%n", setter(column.type), i + 1, column.getter);
+			}
+			w.println("\t\tw.endOfRow();");
+			w.println("\t}");
+			w.println("}");
+		}
+	}
+
+	private static void header(PrintWriter w, String packageName) {
+		if (packageName != null) {
+			w.printf("package %s;%n", packageName);
+			w.println();
+		}
+	}
+
+	private static void headers(PrintWriter w, List<Column> columns) {
+		final StringBuilder labels = new StringBuilder();
+		for (Column column : columns) {
+			labels.append(labels.length() == 0 ? "" : ", ").append('"').append(escape(column.label)).append('"');
+		}
+		w.println("\t/** Column labels. */");
+		w.printf("\tpublic static final String[] HEADERS = {%s};%n", labels);
+		w.println();
+	}
+
+	private static String scan(Column column) {
+		final String name = column.name;
+		switch (column.type) {
+			case "String":
+				return name + " = s.scanText();";
+			case "int":
+			case "long":
+			case "float":
+			case "double":
+				return name + " = s.scan" + Character.toUpperCase(column.type.charAt(0)) + column.type.substring(1) + "();";
+			case "boolean":
+				return name + " = s.scanBool(\"" + escape(column.trueValue) + "\");";
+			case "char":
+				return name + " = s.scanChar();";
+			case "Integer":
+				return "{ final int v = s.scanInt(); " + name + " = s.wasNull() ? null : Integer.valueOf(v); }";
+			case "Long":
+			case "Float":
+			case "Double":
+				final String primitive = column.type.toLowerCase();
+				return "{ final " + primitive + " v = s.scan" + column.type + "(); " + name + " = s.wasNull() ? null : " + column.type + ".valueOf(v); }";
+			case "Boolean":
+				return "{ final String v = s.scanText(); " + name + " = v == null || v.isEmpty() ? null : Boolean.valueOf(\"" + escape(column.trueValue) + "\".equals(v)); }";
+			default: // Character
+				return "{ final String v = s.scanText(); " + name + " = v == null || v.isEmpty() ? null : Character.valueOf(v.charAt(0)); }";
+		}
+	}
+
+	private static String setter(String type) {
+		switch (type) {
+			case "String":
+				return "setString";
+			case "int":
+				return "setInt";
+			case "long":
+				return "setLong";
+			case "float":
+				return "setFloat";
+			case "double":
+				return "setDouble";
+			default:
+				return "setObject";
+		}
+	}
+
+	private static String zero(String type) {
+		switch (type) {
+			case "int":
+			case "long":
+			case "float":
+			case "double":
+				return "0";
+			case "boolean":
+				return "false";
+			case "char":
+				return "'\\0'";
+			default:
+				return "null";
+		}
+	}
+
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private static String qualified(String packageName, String simpleName) {
+		return packageName == null ? simpleName : packageName + '.' + simpleName;
+	}
+
+	private String binaryName(TypeElement type) {
+		return processingEnv.getElementUtils().getBinaryName(type).toString();
+	}
+
+	private static boolean isRecord(TypeElement type) {
+		return type.getKind().name().equals("RECORD"); // JDK 16+
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
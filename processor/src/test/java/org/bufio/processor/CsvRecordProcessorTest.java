@@ -0,0 +1,144 @@
+package org.bufio.processor;
+
+import org.bufio.CsvColWriter;
+import org.bufio.CsvScanner;
+import org.junit.Test;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+import static org.junit.Assume.assumeTrue;
+
+public class CsvRecordProcessorTest {
+	private static final String TRADE = "package p;\n" +
+			"import org.bufio.processor.*;\n" +
+			"@CsvRecord\n" +
+			"public class Trade {\n" +
+			"  public String symbol;\n" +
+			"  Integer quantity;\n" +
+			"  @CsvColumn(\"px\") private double price;\n" +
+			"  @CsvColumn(trueValue = \"Y\") boolean settled;\n" +
+			"  static int ignored;\n" +
+			"  public double getPrice() { return price; }\n" +
+			"  public void setPrice(double price) { this.price = price; }\n" +
+			"  public String toString() { return symbol + ',' + quantity + ',' + price + ',' + settled; }\n" +
+			"}\n";
+
+	@Test
+	public void testClass() throws Exception {
+		final Path dir = compile("Trade", TRADE);
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+			final Class<?> readerClass = loader.loadClass("p.TradeCsvReader");
+			assertArrayEquals(new String[]{"symbol", "quantity", "px", "settled"}, (String[]) readerClass.getField("HEADERS").get(null));
+			final CsvScanner s = new CsvScanner(new StringReader("symbol,quantity,px,settled\nABC,10,1.5,Y\nDEF,,2\nGHI,1,3,N,extra\n"));
+			s.setEmptyIsNull(true);
+			final Object reader = readerClass.getConstructor(CsvScanner.class).newInstance(s);
+			readerClass.getMethod("skipHeaders").invoke(reader);
+			final Method read = readerClass.getMethod("read");
+			assertEquals("ABC,10,1.5,true", String.valueOf(read.invoke(reader)));
+			final Object def = read.invoke(reader);
+			assertEquals("DEF,null,2.0,false", String.valueOf(def));
+			assertEquals("GHI,1,3.0,false", String.valueOf(read.invoke(reader)));
+			assertNull(read.invoke(reader));
+
+			final Class<?> writerClass = loader.loadClass("p.TradeCsvWriter");
+			final StringWriter sw = new StringWriter();
+			final CsvColWriter w = new CsvColWriter(sw);
+			final Object writer = writerClass.getConstructor(CsvColWriter.class).newInstance(w);
+			writerClass.getMethod("writeHeaders").invoke(writer);
+			writerClass.getMethod("write", loader.loadClass("p.Trade")).invoke(writer, def);
+			w.flush();
+			assertEquals("symbol,quantity,px,settled\nDEF,,2.0,false\n", sw.toString());
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void testRecord() throws Exception {
+		assumeTrue(Stream.of(Class.class.getMethods()).anyMatch(m -> m.getName().equals("isRecord")));
+		final Path dir = compile("Point", "package p; @org.bufio.processor.CsvRecord " +
+				"public record Point(String name, @org.bufio.processor.CsvColumn(\"X\") int x, Long y) {}");
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+			final Class<?> readerClass = loader.loadClass("p.PointCsvReader");
+			assertArrayEquals(new String[]{"name", "X", "y"}, (String[]) readerClass.getField("HEADERS").get(null));
+			final CsvScanner s = new CsvScanner(new StringReader("a,1,2\nb,3\n"));
+			final Object reader = readerClass.getConstructor(CsvScanner.class).newInstance(s);
+			final Method read = readerClass.getMethod("read");
+			final Object a = read.invoke(reader);
+			assertEquals("Point[name=a, x=1, y=2]", String.valueOf(a));
+			assertEquals("Point[name=b, x=3, y=null]", String.valueOf(read.invoke(reader)));
+			assertNull(read.invoke(reader));
+
+			final Class<?> writerClass = loader.loadClass("p.PointCsvWriter");
+			final StringWriter sw = new StringWriter();
+			final CsvColWriter w = new CsvColWriter(sw);
+			writerClass.getMethod("write", loader.loadClass("p.Point")).invoke(writerClass.getConstructor(CsvColWriter.class).newInstance(w), a);
+			w.flush();
+			assertEquals("a,1,2\n", sw.toString());
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	public void testUnsupportedType() throws Exception {
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		final Path dir = Files.createTempDirectory("processor");
+		try {
+			assertFalse(compile(dir, "Bad", "@org.bufio.processor.CsvRecord public class Bad { java.util.Date date; }", diagnostics));
+			final String messages = diagnostics.getDiagnostics().toString();
+			assertTrue(messages, messages.contains("unsupported column type: java.util.Date"));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	private static Path compile(String name, String source) throws Exception {
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		final Path dir = Files.createTempDirectory("processor");
+		if (!compile(dir, name, source, diagnostics)) {
+			delete(dir);
+			fail(diagnostics.getDiagnostics().toString());
+		}
+		return dir;
+	}
+
+	private static boolean compile(Path dir, String name, String source, DiagnosticCollector<JavaFileObject> diagnostics) throws Exception {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+		final Path file = dir.resolve(name + ".java");
+		Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+		try (StandardJavaFileManager fm = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+			final JavaCompiler.CompilationTask task = compiler.getTask(null, fm, diagnostics,
+					Arrays.asList("-d", dir.toString(), "-classpath", System.getProperty("java.class.path")),
+					null, fm.getJavaFileObjects(file.toFile()));
+			task.setProcessors(Collections.singletonList(new CsvRecordProcessor()));
+			return task.call();
+		}
+	}
+
+	private static void delete(Path dir) throws Exception {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+}
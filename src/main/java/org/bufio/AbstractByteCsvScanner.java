@@ -0,0 +1,418 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Same state machine as {@link AbstractCsvScanner} but running directly on (UTF-8 or ASCII compatible) bytes.
+ * Separator and comment marker must be ASCII characters.
+ */
+public abstract class AbstractByteCsvScanner<T> extends ByteScanner<T> {
+	// values separator
+	private final byte sep;
+	// specify if values may be quoted (when they contain separator or newline)
+	private final boolean quoted;
+	// trim (ASCII) spaces (only on not-quoted values). Break rfc4180 rule: "Spaces are considered part of a field and should not be ignored."
+	private boolean trim;
+	// character marking the start of a line comment. When specified (not 0), line comments are ignored/skipped.
+	private byte comment;
+	// ignore empty lines
+	private boolean skipEmptyLines;
+
+	// used to unescape quoted values when the input buffer is read-only (memory-mapped)
+	private ByteBuffer unescaped;
+
+	private int lineno;
+	// line number where the most recent field starts
+	private int fieldLineno;
+	// true when the most recent field has been terminated by a newline (not a separator).
+	private boolean eor;
+	// current column (first column is 1)
+	private int column;
+
+	// projected columns (by column - 1) or null for all columns
+	private boolean[] projection;
+	// true while the current field is not projected (neither unescaped, trimmed nor copied)
+	private boolean skipping;
+	// true when the fields after the last projected column of the current row must be skipped
+	private boolean skipRest;
+
+	/**
+	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
+	 */
+	protected AbstractByteCsvScanner(@WillCloseWhenClosed @Nonnull InputStream in) {
+		this(in, ',', true);
+	}
+
+	protected AbstractByteCsvScanner(@WillCloseWhenClosed @Nonnull InputStream in, char sep, boolean quoted) {
+		super(in);
+		this.sep = ascii(sep, "separator");
+		this.quoted = quoted;
+		init();
+	}
+
+	protected AbstractByteCsvScanner(@WillCloseWhenClosed @Nonnull ReadableByteChannel ch, char sep, boolean quoted) {
+		super(ch);
+		this.sep = ascii(sep, "separator");
+		this.quoted = quoted;
+		init();
+	}
+
+	/**
+	 * The file is read through sliding memory-mapped windows (see {@link ByteScanner#ByteScanner(FileChannel, int)}).
+	 */
+	protected AbstractByteCsvScanner(@WillCloseWhenClosed @Nonnull FileChannel fc, @Nonnegative int windowSize, char sep, boolean quoted) {
+		super(fc, windowSize);
+		this.sep = ascii(sep, "separator");
+		this.quoted = quoted;
+		init();
+	}
+
+	private void init() {
+		setSplitFunc((data, start, end, atEOF) -> {
+			if (skipRest) {
+				skipRest(data, end, atEOF);
+				return null;
+			}
+			if (eor) {
+				column = 1;
+			} else {
+				column++;
+			}
+			skipping = projection != null && (column > projection.length || !projection[column - 1]);
+			final int line = lineno;
+			final T token1 = _split(data, start, end, atEOF);
+			skipping = false;
+			if (token1 == null) {
+				if (column > 1) {
+					column--;
+				}
+			} else {
+				fieldLineno = line;
+				if (projection != null && !eor && column == projection.length) {
+					skipRest = true;
+				}
+			}
+			return token1;
+		});
+		skipEmptyLines = true;
+		lineno = 1;
+		eor = true;
+	}
+
+	private static byte ascii(char c, String name) {
+		if (c > 0x7F) {
+			throw new IllegalArgumentException(String.format("%s must be an ASCII character: '%c'", name, c));
+		}
+		return (byte) c;
+	}
+
+	protected abstract T newToken(@Nonnull ByteBuffer data, @Nonnegative int start, @Nonnegative int end) throws ScanException;
+
+	/**
+	 * Returns current line number
+	 */
+	@Nonnegative
+	public int lineno() {
+		return lineno;
+	}
+
+	/**
+	 * Returns the line number where the most recent field starts
+	 * (the line of its row: {@link #lineno} is past the newline at the end of a row).
+	 */
+	@Nonnegative
+	public int fieldLineno() {
+		return fieldLineno;
+	}
+
+	// Sets the line number of the current position (when reading starts in the middle of a file, see RowIndex).
+	void setLineno(@Nonnegative int lineno) {
+		this.lineno = lineno;
+	}
+
+	/**
+	 * Returns current column (first column is 1).
+	 */
+	@Nonnegative
+	public int column() {
+		return column;
+	}
+
+	/**
+	 * Returns `true` when the most recent field has been terminated by a newline (not a separator).
+	 */
+	public boolean atEndOfRow() {
+		return eor || skipRest;
+	}
+
+	/** See {@link AbstractCsvScanner#setProjection}. */
+	public void setProjection(@Nullable int... columns) {
+		projection = AbstractCsvScanner.toProjection(columns);
+	}
+
+	// Skips the fields after the last projected column (as much as available)
+	private void skipRest(ByteBuffer data, int end, boolean atEOF) throws ScanException {
+		skipping = true;
+		try {
+			while (true) {
+				final int start = position();
+				_split(data, start, end, atEOF);
+				if (eor) {
+					skipRest = false;
+					return;
+				}
+				if (position() == start) {
+					return; // Request more data.
+				}
+			}
+		} finally {
+			skipping = false;
+		}
+	}
+
+	private T _split(ByteBuffer data, int start, int end, boolean atEOF) throws ScanException {
+		if (atEOF && end == start) {
+			if (eor) {
+				return null;
+			}
+			eor = true;
+			return newToken(data, start, end, false);
+		}
+		if (quoted && start < end && data.get(start) == '"') { // quoted field (may contain separator, newline and escaped quote)
+			final int startLineno = lineno;
+			int escapedQuotes = 0;
+			byte c = 0, pc = 0, ppc = 0;
+			// Scan until the separator or newline following the closing quote (and ignore escaped quote)
+			for (int i = start + 1; i < end; i++) {
+				if (pc != '"') { // skip to the next quote or newline (word at a time)
+					final int j = Swar.indexOf(data, i, end, (byte) '"', (byte) '\n');
+					if (j > i) {
+						ppc = j - i > 1 ? data.get(j - 2) : pc;
+						pc = data.get(j - 1);
+						c = pc;
+						if ((i = j) == end) {
+							break;
+						}
+					}
+				}
+				c = data.get(i);
+				if (c == '\n') {
+					lineno++;
+				} else if (c == '"') {
+					if (pc == c) { // escaped quote
+						pc = 0;
+						escapedQuotes++;
+						continue;
+					}
+				}
+				if (pc == '"' && c == sep) {
+					eor = false;
+					advance(i + 1);
+					return unescapeQuotes(data, start + 1, i - 1, escapedQuotes);
+				} else if (pc == '"' && c == '\n') {
+					eor = true;
+					advance(i + 1);
+					return unescapeQuotes(data, start + 1, i - 1, escapedQuotes);
+				} else if (ppc == '"' && pc == '\r' && c == '\n') {
+					eor = true;
+					advance(i + 1);
+					return unescapeQuotes(data, start + 1, i - 2, escapedQuotes);
+				}
+				if (pc == '"' && c != '\r') {
+					throw new ScanException(String.format("unescaped %c character between lines %d and %d", (char) pc, startLineno, lineno));
+				}
+				ppc = pc;
+				pc = c;
+			}
+			if (atEOF) {
+				if (c == '"') {
+					eor = true;
+					advance(end);
+					return unescapeQuotes(data, start + 1, end - 1, escapedQuotes);
+				}
+				// If we're at EOF, we have a non-terminated field.
+				throw new ScanException(String.format("non-terminated quoted field at line %d", startLineno));
+			}
+			lineno = startLineno; // newlines are counted again when more data is available
+		} else if (eor && comment != 0 && start < end && data.get(start) == comment) { // line comment
+			final int i = Swar.indexOf(data, start, end, (byte) '\n', (byte) '\n');
+			if (i < end) {
+				lineno++;
+				advance(i + 1);
+				return null;
+			}
+			if (atEOF) {
+				advance(end);
+				return null;
+			}
+		} else { // unquoted field
+			// Scan until separator or newline, marking end of field.
+			final int i = Swar.indexOf(data, start, end, sep, (byte) '\n');
+			if (i < end) {
+				if (data.get(i) == sep) {
+					eor = false;
+					advance(i + 1);
+					return newToken(data, start, i, false);
+				}
+				eor = true;
+				lineno++;
+				advance(i + 1);
+				return newToken(data, start, i > start && data.get(i - 1) == '\r' ? i - 1 : i, false);
+			}
+			// If we're at EOF, we have a final, non-terminated line. Return it.
+			if (atEOF) {
+				eor = true;
+				advance(end);
+				return newToken(data, start, end > start && data.get(end - 1) == '\r' ? end - 1 : end, false);
+			}
+		}
+		// Request more data.
+		return null;
+	}
+
+	/**
+	 * Skips `n` rows (the rest of the current row counts as one), without creating any token.
+	 * Skipped fields are not validated (only non-terminated quoted fields are reported).
+	 */
+	public void skipRows(@Nonnegative int n) throws IOException {
+		if (n > 0) {
+			skipRecords(n);
+		}
+	}
+
+	/**
+	 * Counts the remaining rows (the rest of the current row counts as one) by skipping them, without creating any token.
+	 * Empty lines (unless kept) and comments are not counted.
+	 */
+	@Nonnegative
+	public long countRows() throws IOException {
+		return skipRecords(Long.MAX_VALUE);
+	}
+
+	// Skips `n` rows (or up to EOF) and returns the number of skipped rows (see RecordSkipper and RowIndex).
+	long skipRecords(long n) throws IOException {
+		final RecordSkipper skipper = new RecordSkipper(sep, quoted, comment, trim, skipEmptyLines, lineno) {
+			@Override
+			int position() {
+				return AbstractByteCsvScanner.this.position();
+			}
+
+			@Override
+			int limit() {
+				return AbstractByteCsvScanner.this.limit();
+			}
+
+			@Override
+			int at(int i) {
+				return buffer().get(i);
+			}
+
+			@Override
+			int indexOf(int from, int to, int a, int b) {
+				return Swar.indexOf(buffer(), from, to, (byte) a, (byte) b);
+			}
+
+			@Override
+			boolean isWhitespace(int c) {
+				return AbstractByteCsvScanner.isWhitespace((byte) c);
+			}
+
+			@Override
+			void advance(int n) throws ScanException {
+				AbstractByteCsvScanner.this.advance(n);
+			}
+
+			@Override
+			boolean fill() throws IOException {
+				return AbstractByteCsvScanner.this.fill();
+			}
+		};
+		final long count;
+		try {
+			count = skipper.skip(n, eor && !skipRest, skipRest);
+		} finally {
+			lineno = skipper.lineno;
+		}
+		eor = true;
+		skipRest = false;
+		return count;
+	}
+
+	/**
+	 * Sets the (ASCII) character marking the start of a line comment. When specified (not 0), line comment appears as empty line.
+	 * The default is 0, which means no rows are treated as comments.
+	 */
+	public char setCommentMarker(char comment) {
+		final char pcm = (char) this.comment;
+		this.comment = ascii(comment, "comment marker");
+		return pcm;
+	}
+
+	/**
+	 * Trims (ASCII) spaces (only on not-quoted fields). Break rfc4180 rule: "Spaces are considered part of a field and should not be ignored."
+	 */
+	public void setTrim(boolean trim) {
+		this.trim = trim;
+	}
+
+	public void setSkipEmptyLines(boolean skipEmptyLines) {
+		this.skipEmptyLines = skipEmptyLines;
+	}
+
+	private T unescapeQuotes(ByteBuffer data, int start, int end, int count) throws ScanException {
+		if (count == 0 || skipping) {
+			return newToken(data, start, end, true);
+		}
+		if (data.isReadOnly()) {
+			if (unescaped == null || unescaped.capacity() < end - start) {
+				unescaped = ByteBuffer.allocate(Math.max(end - start, 64));
+			}
+			for (int i = start, j = 0; i < end; i++, j++) {
+				final byte b = data.get(i);
+				unescaped.put(j, b);
+				if (b == '"') {
+					i++;
+				}
+			}
+			return newToken(unescaped, 0, end - start - count, true);
+		}
+		for (int i = start, j = start; i < end; i++, j++) {
+			final byte b = data.get(i);
+			data.put(j, b);
+			if (b == '"') {
+				i++;
+			}
+		}
+		return newToken(data, start, end - count, true);
+	}
+
+	private T newToken(ByteBuffer data, int start, int end, boolean quoted) throws ScanException {
+		if (skipping && !(column == 1 && eor)) { // an empty line is still skipped
+			return newToken(data, start, start);
+		}
+		if (trim && !quoted) {
+			while (end > start && isWhitespace(data.get(end - 1))) {
+				end--;
+			}
+			while (start < end && isWhitespace(data.get(start))) {
+				start++;
+			}
+		}
+		if (start == end && !quoted && column == 1 && eor && skipEmptyLines) {
+			return null;
+		}
+		return newToken(data, start, skipping ? start : end);
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b >= 0 && Character.isWhitespace(b);
+	}
+}
@@ -2,9 +2,11 @@ package org.bufio;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.WillCloseWhenClosed;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.function.Predicate;
 
 // TODO lazy/strict
 
@@ -21,11 +23,35 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 	private boolean skipEmptyLines; // withIgnoreEmptyLines
 
 	private int lineno;
+	// line number where the most recent field starts
+	private int fieldLineno;
 	// true when the most recent field has been terminated by a newline (not a separator).
 	private boolean eor;
 	// current column (first column is 1)
 	private int column;
 
+	// structural index (null with the SCALAR engine)
+	private final StructuralIndex index;
+	// buffer generation of the index (see Scanner#fills), the index is rebuilt when it differs
+	private int indexFills;
+
+	// projected columns (by column - 1) or null for all columns
+	private boolean[] projection;
+	// true while the current field is not projected (neither unescaped, trimmed nor copied)
+	private boolean skipping;
+	// true when the fields after the last projected column of the current row must be skipped
+	private boolean skipRest;
+
+	// rows are only tokenized when accepted by this filter (see setRowFilter)
+	private Predicate<CharSlice> rowFilter;
+	// column tested by rowFilter (first column is 1) or 0 for the raw record
+	private int filterColumn;
+	// true when the current row has been accepted by rowFilter
+	private boolean accepted;
+	private CharSlice filtered;
+	// unescaped field tested by rowFilter
+	private char[] unescapedField;
+
 	/**
 	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
 	 */
@@ -34,18 +60,61 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 	}
 
 	protected AbstractCsvScanner(@WillCloseWhenClosed @Nonnull Reader r, char sep, boolean quoted) {
+		this(r, sep, quoted, CsvEngine.SCALAR);
+	}
+
+	protected AbstractCsvScanner(@WillCloseWhenClosed @Nonnull Reader r, char sep, boolean quoted, @Nonnull CsvEngine engine) {
 		super(r);
+		index = engine == CsvEngine.INDEXED ? new StructuralIndex(sep, quoted) : null;
 		setSplitFunc((data, start, end, atEOF) -> {
+			if (skipRest) {
+				skipRest(data, end, atEOF);
+				return null;
+			}
+			if (eor && marked() >= 0) { // nothing of the next row is kept yet (rejected rows, comments and empty lines are released)
+				mark();
+			}
+			if (rowFilter != null && eor && !accepted && start < end && !(comment != 0 && data[start] == comment)) {
+				if (data[start] == '\r' && start + 1 == end && !atEOF) {
+					return null; // Request more data (empty line with CRLF?).
+				}
+				if (!emptyLine(data, start, end)) {
+					final int i = recordEnd(data, start, end, atEOF);
+					if (i < 0) {
+						return null; // Request more data.
+					}
+					if (!rowFilter.test(filtered)) { // rejected row is skipped
+						final int next = i < end ? i + 1 : end;
+						for (int j = Swar.indexOf(data, start, next, '\n', '\n'); j < next; j = Swar.indexOf(data, j + 1, next, '\n', '\n')) {
+							lineno++;
+						}
+						advance(next);
+						return null;
+					}
+					accepted = true;
+				}
+			}
 			if (eor) {
 				column = 1;
 			} else {
 				column++;
 			}
-			final T token1 = _split(data, start, end, atEOF);
+			skipping = projection != null && (column > projection.length || !projection[column - 1]);
+			final int line = lineno;
+			final T token1 = split(data, start, end, atEOF);
+			skipping = false;
+			if (eor) {
+				accepted = false;
+			}
 			if (token1 == null) {
 				if (column > 1) {
 					column--;
 				}
+			} else {
+				fieldLineno = line;
+				if (projection != null && !eor && column == projection.length) {
+					skipRest = true;
+				}
 			}
 			return token1;
 		});
@@ -66,10 +135,17 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 		lineno = 1;
 		eor = true;
 		column = 0;
+		skipRest = false;
+		accepted = false;
 	}
 
 	protected abstract T newToken(@Nonnull char[] data, @Nonnegative int start, @Nonnegative int end);
 
+	// Empty lines ("\n", "\r\n" or a trailing "\r") are not filtered (same as the empty tokens of _split).
+	private static boolean emptyLine(char[] data, int start, int end) {
+		return data[start] == '\n' || data[start] == '\r' && (start + 1 == end || data[start + 1] == '\n');
+	}
+
 	/**
 	 * Returns current line number
 	 */
@@ -78,6 +154,20 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 		return lineno;
 	}
 
+	/**
+	 * Returns the line number where the most recent field starts
+	 * (the line of its row: {@link #lineno} is past the newline at the end of a row).
+	 */
+	@Nonnegative
+	public int fieldLineno() {
+		return fieldLineno;
+	}
+
+	// Sets the line number of the current position (when reading starts in the middle of a file, see RowIndex).
+	void setLineno(@Nonnegative int lineno) {
+		this.lineno = lineno;
+	}
+
 	/**
 	 * Returns current column (first column is 1).
 	 */
@@ -90,7 +180,171 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 	 * Returns `true` when the most recent field has been terminated by a newline (not a separator).
 	 */
 	public boolean atEndOfRow() {
-		return eor;
+		return eor || skipRest;
+	}
+
+	/**
+	 * Only the specified `columns` (first column is 1) are tokenized: other fields are only scanned past
+	 * (their value is empty: they are neither unescaped, trimmed nor copied)
+	 * and a row ends at its last projected column (see {@link #atEndOfRow}).
+	 * Fields of skipped columns are not validated.
+	 * Without column, all columns are tokenized (the default).
+	 */
+	public void setProjection(@Nullable int... columns) {
+		projection = toProjection(columns);
+	}
+
+	static boolean[] toProjection(int[] columns) {
+		if (columns == null || columns.length == 0) {
+			return null;
+		}
+		int max = 0;
+		for (int column : columns) {
+			if (column < 1) {
+				throw new IllegalArgumentException(String.format("invalid column: %d", column));
+			}
+			max = Math.max(max, column);
+		}
+		final boolean[] projection = new boolean[max];
+		for (int column : columns) {
+			projection[column - 1] = true;
+		}
+		return projection;
+	}
+
+	/**
+	 * Only rows accepted by `filter` are tokenized: it is evaluated on the raw record
+	 * (without the line break but with quotes, escaped quotes and separators)
+	 * before any token is created, so it may accept more rows than needed (like a `contains` test)
+	 * but it must accept all the wanted rows.
+	 * Rejected rows are skipped (without validation), empty lines and comments are not filtered.
+	 * A record must fit in the scanner buffer (64K chars) to be filtered ("token too long" otherwise).
+	 * A `null` filter accepts all rows (the default).
+	 */
+	public void setRowFilter(@Nullable Predicate<CharSlice> filter) {
+		setRowFilter(0, filter);
+	}
+
+	/**
+	 * Only rows whose field at `column` (first column is 1) is accepted by `filter` are tokenized:
+	 * the field is located and unescaped (and trimmed if needed) before any token is created (an absent field is empty).
+	 * Rejected rows are skipped (without validation), empty lines and comments are not filtered.
+	 * A record must fit in the scanner buffer (64K chars) to be filtered ("token too long" otherwise).
+	 * <pre>{@code
+	 * s.setRowFilter(5, level -> level.contentEquals("ERROR"));
+	 * }</pre>
+	 */
+	public void setRowFilter(@Nonnegative int column, @Nullable Predicate<CharSlice> filter) {
+		if (column < 0) {
+			throw new IllegalArgumentException(String.format("invalid column: %d", column));
+		}
+		if (filtered == null) {
+			filtered = new CharSlice();
+		}
+		rowFilter = filter;
+		filterColumn = column;
+		accepted = false;
+	}
+
+	// Finds the newline ending the record starting at `start` (outside quotes) without tokenizing it
+	// and sets the raw record or field tested by the row filter.
+	// Returns -1 when more data is needed, `end` when the record is terminated by EOF.
+	private int recordEnd(char[] data, int start, int end, boolean atEOF) {
+		filtered.set(data, start, 0); // absent field
+		for (int i = start, c = 1; ; c++) {
+			int from = i, to = -1, escapedQuotes = 0;
+			if (quoted && i < end && data[i] == '"') {
+				from = ++i;
+				while (true) {
+					final int q = Swar.indexOf(data, i, end, '"', '"');
+					if (q + 1 < end && data[q + 1] == '"') {
+						escapedQuotes++;
+						i = q + 2;
+						continue;
+					}
+					if (q + 1 >= end && !atEOF) {
+						return -1;
+					}
+					to = Math.min(q, end);
+					i = Math.min(q + 1, end);
+					break;
+				}
+			}
+			final int j = Swar.indexOf(data, i, end, sep, '\n');
+			if (j == end && !atEOF) {
+				return -1;
+			}
+			final boolean eol = j == end || data[j] == '\n';
+			if (c == filterColumn) {
+				if (to < 0) {
+					filterField(data, from, eol && j > from && data[j - 1] == '\r' ? j - 1 : j);
+				} else {
+					filterField(data, from, to, escapedQuotes);
+				}
+			}
+			if (eol) {
+				if (filterColumn == 0) {
+					filtered.set(data, start, (j > start && data[j - 1] == '\r' ? j - 1 : j) - start);
+				}
+				return j;
+			}
+			i = j + 1;
+		}
+	}
+
+	private void filterField(char[] data, int start, int end) {
+		if (trim) {
+			while (end > start && Character.isWhitespace(data[end - 1])) {
+				end--;
+			}
+			while (start < end && Character.isWhitespace(data[start])) {
+				start++;
+			}
+		}
+		filtered.set(data, start, end - start);
+	}
+
+	private void filterField(char[] data, int start, int end, int escapedQuotes) {
+		if (escapedQuotes == 0) {
+			filtered.set(data, start, end - start);
+			return;
+		}
+		if (unescapedField == null || unescapedField.length < end - start) {
+			unescapedField = new char[Math.max(end - start, 64)];
+		}
+		int j = 0;
+		for (int i = start; i < end; i++, j++) {
+			unescapedField[j] = data[i];
+			if (data[i] == '"') {
+				i++;
+			}
+		}
+		filtered.set(unescapedField, 0, j);
+	}
+
+	private T split(char[] data, int start, int end, boolean atEOF) throws ScanException {
+		return index == null ? _split(data, start, end, atEOF) : indexedSplit(data, start, end, atEOF);
+	}
+
+	// Skips the fields after the last projected column (as much as available)
+	private void skipRest(char[] data, int end, boolean atEOF) throws ScanException {
+		skipping = true;
+		try {
+			while (true) {
+				final int start = position();
+				split(data, start, end, atEOF);
+				if (eor) {
+					skipRest = false;
+					accepted = false;
+					return;
+				}
+				if (position() == start) {
+					return; // Request more data.
+				}
+			}
+		} finally {
+			skipping = false;
+		}
 	}
 
 	private T _split(char[] data, int start, int end, boolean atEOF) throws ScanException {
@@ -107,6 +361,17 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 			char c = 0, pc = 0, ppc = 0;
 			// Scan until the separator or newline following the closing quote (and ignore escaped quote)
 			for (int i = start + 1; i < end; i++) {
+				if (pc != '"') { // skip to the next quote or newline (word at a time)
+					final int j = Swar.indexOf(data, i, end, '"', '\n');
+					if (j > i) {
+						ppc = j - i > 1 ? data[j - 2] : pc;
+						pc = data[j - 1];
+						c = pc;
+						if ((i = j) == end) {
+							break;
+						}
+					}
+				}
 				c = data[i];
 				if (c == '\n') {
 					lineno++;
@@ -145,13 +410,13 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 				// If we're at EOF, we have a non-terminated field.
 				throw new ScanException(String.format("non-terminated quoted field at line %d", startLineno));
 			}
+			lineno = startLineno; // newlines are counted again when more data is available
 		} else if (eor && comment != 0 && start < end && data[start] == comment) { // line comment
-			for (int i = start; i < end; i++) {
-				if (data[i] == '\n') {
-					lineno++;
-					advance(i + 1);
-					return null;
-				}
+			final int i = Swar.indexOf(data, start, end, '\n', '\n');
+			if (i < end) {
+				lineno++;
+				advance(i + 1);
+				return null;
 			}
 			if (atEOF) {
 				advance(end);
@@ -159,43 +424,192 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 			}
 		} else { // unquoted field
 			// Scan until separator or newline, marking end of field.
-			char c, pc = 0;
-			for (int i = start; i < end; i++) {
-				c = data[i];
-				if (c == sep) {
+			final int i = Swar.indexOf(data, start, end, sep, '\n');
+			if (i < end) {
+				if (data[i] == sep) {
 					eor = false;
 					advance(i + 1);
 					return newToken(data, start, i, false);
 				}
-				if (c == '\n') {
-					eor = true;
-					lineno++;
-					advance(i + 1);
-					return newToken(data, start, pc == '\r' ? i - 1 : i, false);
-				}
-				pc = c;
+				eor = true;
+				lineno++;
+				advance(i + 1);
+				return newToken(data, start, i > start && data[i - 1] == '\r' ? i - 1 : i, false);
 			}
 			// If we're at EOF, we have a final, non-terminated line. Return it.
 			if (atEOF) {
 				eor = true;
 				advance(end);
-				return newToken(data, start, pc == '\r' ? end - 1 : end, false);
+				return newToken(data, start, end > start && data[end - 1] == '\r' ? end - 1 : end, false);
+			}
+		}
+		// Request more data.
+		return null;
+	}
+
+	// Same result as _split but using the structural index (falling back to _split when a field is not well-formed).
+	private T indexedSplit(char[] data, int start, int end, boolean atEOF) throws ScanException {
+		if (start == end || eor && comment != 0 && data[start] == comment) {
+			return fallback(data, start, end, atEOF); // comment may contain quotes
+		}
+		if (indexFills != fills()) {
+			index.reset(data, start, end);
+			indexFills = fills();
+		}
+		final int i = index.next(start); // first separator or newline outside quotes
+		if (quoted && data[start] == '"') { // quoted field
+			if (i < 0) { // no closing quote or a malformed field (reported by _split)
+				return fallback(data, start, end, atEOF);
+			}
+			// closing quote must be just before the separator/newline
+			final int close;
+			if (data[i - 1] == '"' && i - 1 > start) {
+				close = i - 1;
+			} else if (data[i] == '\n' && data[i - 1] == '\r' && i - 2 > start && data[i - 2] == '"') {
+				close = i - 2;
+			} else {
+				return fallback(data, start, end, atEOF);
+			}
+			// and other quotes must be escaped
+			int escapedQuotes = 0;
+			for (int q = index.nextQuote(start + 1, close); q >= 0; q = index.nextQuote(q + 2, close)) {
+				if (q + 1 == close || data[q + 1] != '"') {
+					return fallback(data, start, end, atEOF);
+				}
+				escapedQuotes++;
+			}
+			lineno += index.countNewlines(start + 1, close);
+			if (data[i] == sep) {
+				eor = false;
+			} else {
+				eor = true;
+				lineno++;
+			}
+			advance(i + 1);
+			return unescapeQuotes(data, start + 1, close, escapedQuotes);
+		}
+		// unquoted field: a quote in the field invalidates the index
+		if (quoted && index.nextQuote(start, i < 0 ? end : i) >= 0) {
+			return fallback(data, start, end, atEOF);
+		}
+		if (i >= 0) {
+			if (data[i] == sep) {
+				eor = false;
+				advance(i + 1);
+				return newToken(data, start, i, false);
 			}
+			eor = true;
+			lineno++;
+			advance(i + 1);
+			return newToken(data, start, i > start && data[i - 1] == '\r' ? i - 1 : i, false);
+		}
+		if (atEOF) {
+			eor = true;
+			advance(end);
+			return newToken(data, start, data[end - 1] == '\r' ? end - 1 : end, false);
 		}
 		// Request more data.
 		return null;
 	}
 
+	// Index and scalar state machine may disagree after the current field.
+	private T fallback(char[] data, int start, int end, boolean atEOF) throws ScanException {
+		indexFills = fills() - 1;
+		return _split(data, start, end, atEOF);
+	}
+
 	/**
-	 * Skips `n` rows
+	 * Skips `n` rows (the rest of the current row counts as one), without creating any token.
+	 * Skipped fields are not validated (only non-terminated quoted fields are reported).
 	 */
 	public void skipRows(@Nonnegative int n) throws IOException {
-		int i = 0;
-		while (i < n && scan()) {
-			if (eor) {
-				i++;
+		if (n <= 0) {
+			return;
+		}
+		if (rowFilter != null) { // only accepted rows are counted
+			int i = 0;
+			while (i < n && scan()) {
+				if (atEndOfRow()) {
+					i++;
+				}
 			}
+			return;
 		}
+		skipRecords(n);
+	}
+
+	/**
+	 * Counts the remaining rows (the rest of the current row counts as one) by skipping them, without creating any token.
+	 * Empty lines (unless kept) and comments are not counted.
+	 */
+	@Nonnegative
+	public long countRows() throws IOException {
+		if (rowFilter != null) { // only accepted rows are counted
+			long count = 0;
+			while (scan()) {
+				if (atEndOfRow()) {
+					count++;
+				}
+			}
+			return count;
+		}
+		return skipRecords(Long.MAX_VALUE);
+	}
+
+	// Skips `n` rows (or up to EOF) and returns the number of skipped rows (see RecordSkipper).
+	private long skipRecords(long n) throws IOException {
+		unmark(); // skipped rows are not kept (see CsvReader#setLazy)
+		final RecordSkipper skipper = new RecordSkipper(sep, quoted, comment, trim, skipEmptyLines, lineno) {
+			@Override
+			int position() {
+				return AbstractCsvScanner.this.position();
+			}
+
+			@Override
+			int limit() {
+				return AbstractCsvScanner.this.position() + length();
+			}
+
+			@Override
+			int at(int i) {
+				return buffer()[i];
+			}
+
+			@Override
+			int indexOf(int from, int to, int a, int b) {
+				return Swar.indexOf(buffer(), from, to, (char) a, (char) b);
+			}
+
+			@Override
+			boolean isWhitespace(int c) {
+				return Character.isWhitespace(c);
+			}
+
+			@Override
+			void advance(int n) throws ScanException {
+				AbstractCsvScanner.this.advance(n);
+			}
+
+			@Override
+			boolean fill() throws IOException {
+				return AbstractCsvScanner.this.fill();
+			}
+		};
+		final long count;
+		try {
+			count = skipper.skip(n, eor && !skipRest, skipRest);
+		} finally {
+			lineno = skipper.lineno;
+		}
+		endOfSkip();
+		return count;
+	}
+
+	private void endOfSkip() {
+		eor = true;
+		skipRest = false;
+		accepted = false;
+		indexFills = fills() - 1; // positions are no longer field starts known by the index
 	}
 
 	/**
@@ -220,7 +634,7 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 	}
 
 	private T unescapeQuotes(char[] data, int start, int end, int count) {
-		if (count == 0) {
+		if (count == 0 || skipping) {
 			return newToken(data, start, end, true);
 		}
 		for (int i = start, j = start; i < end; i++, j++) {
@@ -233,6 +647,9 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 	}
 
 	private T newToken(char[] data, int start, int end, boolean quoted) {
+		if (skipping && !(column == 1 && eor)) { // an empty line is still skipped
+			return newToken(data, start, start);
+		}
 		if (trim && !quoted) {
 			while (end > start && Character.isWhitespace(data[end - 1])) {
 				end--;
@@ -244,6 +661,6 @@ public abstract class AbstractCsvScanner<T> extends Scanner<T> {
 		if (start == end && !quoted && column == 1 && eor && skipEmptyLines) {
 			return null;
 		}
-		return newToken(data, start, end);
+		return newToken(data, start, skipping ? start : end);
 	}
 }
@@ -0,0 +1,17 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * First stage of the {@link StructuralIndex}: classifies characters by blocks of 64.
+ */
+interface BlockClassifier {
+	/**
+	 * Sets bit `i % 64` of `quotes[off + i / 64]` (resp. `seps`, `lfs`) when `data[from + i]` is a quote
+	 * (resp. `sep`, a newline) for each `i` in `[0, to - from)`.
+	 * Quotes are ignored when `quoted` is false.
+	 */
+	void classify(@Nonnull char[] data, @Nonnegative int from, @Nonnegative int to, char sep, boolean quoted,
+			@Nonnull long[] quotes, @Nonnull long[] seps, @Nonnull long[] lfs, @Nonnegative int off);
+}
@@ -0,0 +1,295 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * CsvWriter producing a multi-member gzip file (readable by gunzip or {@link java.util.zip.GZIPInputStream})
+ * where each member (block) contains complete rows and is compressed in parallel.
+ * Each block header has an extra field (like BGZF) with the block size and its number of rows,
+ * so that blocks can be located without decompressing them (see {@link BlockGzipIndex#scan}).
+ * The file ends with an empty block.
+ * <pre>{@code
+ * BlockGzipCsvWriter w = new BlockGzipCsvWriter(Files.newOutputStream(path));
+ * CsvReader r;
+ * while (r.next()) {
+ *   w.writeRow(r.values());
+ * }
+ * w.close();
+ * w.getIndex().write(indexOutputStream);
+ * }</pre>
+ * And to read it back in parallel, see {@link ParallelCsvReader#setBlockGzipIndex}.
+ */
+public class BlockGzipCsvWriter extends ByteCsvWriter {
+	private final Blocks blocks;
+
+	/** Creates a "standard" CSV writer (separator is comma and quoted mode active) */
+	public BlockGzipCsvWriter(@WillCloseWhenClosed @Nonnull OutputStream out) {
+		this(out, ',', true);
+	}
+
+	/** Returns a new CSV writer to `out` */
+	public BlockGzipCsvWriter(@WillCloseWhenClosed @Nonnull OutputStream out, char sep, boolean quoted) {
+		this(new Blocks(out), sep, quoted);
+	}
+
+	private BlockGzipCsvWriter(Blocks blocks, char sep, boolean quoted) {
+		super(blocks, sep, quoted);
+		this.blocks = blocks;
+	}
+
+	/** Sets the (approximate) size of the uncompressed blocks (in bytes). The default is 256KB. */
+	public void setBlockSize(@Nonnegative int blockSize) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid block size: %d", blockSize));
+		}
+		blocks.blockSize = blockSize;
+	}
+
+	/** Sets the compression level (see {@link Deflater#setLevel}). */
+	public void setLevel(int level) {
+		if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException(String.format("invalid compression level: %d", level));
+		}
+		blocks.level = level;
+	}
+
+	/** Sets the pool used to compress the blocks. The default is the common pool. */
+	public void setPool(@Nonnull ForkJoinPool pool) {
+		blocks.pool = pool;
+		blocks.maxInFlight = 2 * pool.getParallelism();
+	}
+
+	/** @return the index of the blocks written so far (all of them once this writer is closed). */
+	@Nonnull
+	public BlockGzipIndex getIndex() {
+		return blocks.index();
+	}
+
+	@Override
+	void rowEnded() throws IOException {
+		blocks.rows++;
+		if (blocks.count + buffered() >= blocks.blockSize) {
+			flushBuffer();
+			blocks.endBlock();
+		}
+	}
+
+	// Blocks are only cut on row boundaries: a partial row is kept in the current block.
+	@Override
+	void flushOut() throws IOException {
+		if (atStartOfRow()) {
+			blocks.endBlock();
+		}
+		super.flushOut();
+	}
+
+	@Override
+	void closeOut() throws IOException {
+		if (!atStartOfRow()) {
+			blocks.rows++; // last row without terminator
+		}
+		super.closeOut();
+	}
+
+	// Cuts the uncompressed stream into blocks and writes them compressed in order.
+	private static class Blocks extends OutputStream {
+		private final OutputStream out;
+		private int blockSize = 256 * 1024;
+		private int level = Deflater.DEFAULT_COMPRESSION;
+		private Executor pool = ForkJoinPool.commonPool();
+		private int maxInFlight = 2 * ForkJoinPool.commonPool().getParallelism();
+
+		// current block and its number of rows
+		private byte[] buf = new byte[16 * 1024];
+		private int count;
+		private int rows;
+		// compressed blocks not yet written
+		private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+		// index: offset and first row of each written block
+		private long[] offsets = new long[16];
+		private long[] firstRows = new long[16];
+		private int n;
+		private long written;
+		private long rowsWritten;
+		private boolean closed;
+
+		private Blocks(OutputStream out) {
+			if (out == null) {
+				throw new IllegalArgumentException("null output stream");
+			}
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) {
+			if (count + len > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + len));
+			}
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+		}
+
+		// Submits the current block for compression.
+		private void endBlock() throws IOException {
+			if (count == 0) {
+				return;
+			}
+			final byte[] data = buf;
+			final int len = count;
+			final int nRows = rows;
+			while (inFlight.size() >= maxInFlight) {
+				writeBlock(inFlight.removeFirst());
+			}
+			final FutureTask<byte[]> task = new FutureTask<>(() -> compress(data, len, nRows, level));
+			pool.execute(task);
+			inFlight.addLast(task);
+			buf = new byte[Math.max(16 * 1024, Math.min(len, blockSize + blockSize / 4))];
+			count = 0;
+			rows = 0;
+		}
+
+		private void writeBlock(Future<byte[]> f) throws IOException {
+			final byte[] block;
+			try {
+				block = f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				} else if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new IOException(e.getCause());
+			}
+			if (n == offsets.length) {
+				offsets = Arrays.copyOf(offsets, n * 2);
+				firstRows = Arrays.copyOf(firstRows, n * 2);
+			}
+			offsets[n] = written;
+			firstRows[n++] = rowsWritten;
+			rowsWritten += getInt(block, 20);
+			out.write(block);
+			written += block.length;
+		}
+
+		private void writeAll() throws IOException {
+			while (!inFlight.isEmpty()) {
+				writeBlock(inFlight.removeFirst());
+			}
+		}
+
+		// Written blocks (followed by the end of the last one).
+		private BlockGzipIndex index() {
+			if (closed) {
+				return new BlockGzipIndex(Arrays.copyOf(offsets, n), Arrays.copyOf(firstRows, n));
+			}
+			final long[] o = Arrays.copyOf(offsets, n + 1);
+			final long[] r = Arrays.copyOf(firstRows, n + 1);
+			o[n] = written;
+			r[n] = rowsWritten;
+			return new BlockGzipIndex(o, r);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			writeAll();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				endBlock();
+				writeAll();
+				// empty last block (marks the end of the blocks)
+				final byte[] eof = compress(buf, 0, 0, level);
+				offsets = Arrays.copyOf(offsets, n + 1);
+				firstRows = Arrays.copyOf(firstRows, n + 1);
+				offsets[n] = written;
+				firstRows[n++] = rowsWritten;
+				out.write(eof);
+				written += eof.length;
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	// Returns a gzip member containing data[0, len).
+	static byte[] compress(byte[] data, int len, int rows, int level) {
+		final Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data, 0, len);
+			deflater.finish();
+			// deflate bound (zlib)
+			byte[] block = new byte[BlockGzipIndex.HEADER_SIZE + len + (len >> 12) + (len >> 14) + 13 + BlockGzipIndex.TRAILER_SIZE];
+			int pos = BlockGzipIndex.HEADER_SIZE;
+			while (!deflater.finished()) {
+				if (pos == block.length - BlockGzipIndex.TRAILER_SIZE) {
+					block = Arrays.copyOf(block, block.length * 2);
+				}
+				pos += deflater.deflate(block, pos, block.length - BlockGzipIndex.TRAILER_SIZE - pos);
+			}
+			final int size = pos + BlockGzipIndex.TRAILER_SIZE;
+			block[0] = 0x1f;
+			block[1] = (byte) 0x8b;
+			block[2] = Deflater.DEFLATED;
+			block[3] = 4; // FEXTRA
+			// MTIME = 0, XFL = 0
+			block[9] = (byte) 0xff; // OS unknown
+			putShort(block, 10, 12); // XLEN
+			block[12] = BlockGzipIndex.SI1;
+			block[13] = BlockGzipIndex.SI2;
+			putShort(block, 14, 8); // SLEN
+			putInt(block, 16, size);
+			putInt(block, 20, rows);
+			final CRC32 crc = new CRC32();
+			crc.update(data, 0, len);
+			putInt(block, pos, (int) crc.getValue());
+			putInt(block, pos + 4, len);
+			return size == block.length ? block : Arrays.copyOf(block, size);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void putShort(byte[] b, int off, int v) {
+		b[off] = (byte) v;
+		b[off + 1] = (byte) (v >>> 8);
+	}
+
+	private static void putInt(byte[] b, int off, int v) {
+		putShort(b, off, v);
+		putShort(b, off + 2, v >>> 16);
+	}
+
+	private static int getInt(byte[] b, int off) {
+		return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | (b[off + 3] & 0xff) << 24;
+	}
+}
@@ -0,0 +1,159 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillNotClose;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Offsets and row counts of the blocks of a file written by {@link BlockGzipCsvWriter}.
+ * Block i starts at {@link #blockOffset}(i) and contains the rows [{@link #firstRow}(i), {@link #firstRow}(i + 1)).
+ * The index can be saved next to the file ({@link #write}) or rebuilt from the blocks headers ({@link #scan}).
+ */
+public final class BlockGzipIndex {
+	private static final int MAGIC = 0x43534249; // "CSBI"
+
+	// gzip header: ID1 ID2 CM FLG MTIME(4) XFL OS XLEN(2) SI1 SI2 SLEN(2) member size(4) rows(4)
+	static final int HEADER_SIZE = 24;
+	static final int TRAILER_SIZE = 8;
+	static final byte SI1 = 'C', SI2 = 'S';
+
+	// block i is [offsets[i], offsets[i + 1])
+	private final long[] offsets;
+	// first row of each block (rows[blockCount] is the total number of rows)
+	private final long[] rows;
+
+	BlockGzipIndex(@Nonnull long[] offsets, @Nonnull long[] rows) {
+		this.offsets = offsets;
+		this.rows = rows;
+	}
+
+	/** @return the number of blocks (excluding the empty last one). */
+	@Nonnegative
+	public int blockCount() {
+		return offsets.length - 1;
+	}
+
+	/** @return the position of block `block` (or the end of the blocks when `block` is {@link #blockCount}). */
+	@Nonnegative
+	public long blockOffset(@Nonnegative int block) {
+		return offsets[block];
+	}
+
+	/** @return the index (starting at 0) of the first row of block `block` (or {@link #rowCount} when `block` is {@link #blockCount}). */
+	@Nonnegative
+	public long firstRow(@Nonnegative int block) {
+		return rows[block];
+	}
+
+	/** @return the number of rows. */
+	@Nonnegative
+	public long rowCount() {
+		return rows[rows.length - 1];
+	}
+
+	/** @return the block containing row `row` (starting at 0). */
+	@Nonnegative
+	public int findBlock(@Nonnegative long row) {
+		if (row < 0 || row >= rowCount()) {
+			throw new IndexOutOfBoundsException(String.format("invalid row: %d", row));
+		}
+		int i = Arrays.binarySearch(rows, row);
+		if (i < 0) {
+			return -i - 2;
+		}
+		while (rows[i + 1] == row) { // skip empty blocks
+			i++;
+		}
+		return i;
+	}
+
+	/** Saves this index to `out`. */
+	public void write(@WillNotClose @Nonnull OutputStream out) throws IOException {
+		final DataOutputStream dos = new DataOutputStream(out);
+		dos.writeInt(MAGIC);
+		dos.writeInt(offsets.length);
+		for (int i = 0; i < offsets.length; i++) {
+			dos.writeLong(offsets[i]);
+			dos.writeLong(rows[i]);
+		}
+		dos.flush();
+	}
+
+	/** Loads an index saved by {@link #write}. */
+	@Nonnull
+	public static BlockGzipIndex read(@WillNotClose @Nonnull InputStream in) throws IOException {
+		final DataInputStream dis = new DataInputStream(in);
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("not a block gzip index");
+		}
+		final int n = dis.readInt();
+		if (n <= 0) {
+			throw new IOException(String.format("invalid block count: %d", n));
+		}
+		final long[] offsets = new long[n];
+		final long[] rows = new long[n];
+		for (int i = 0; i < n; i++) {
+			offsets[i] = dis.readLong();
+			rows[i] = dis.readLong();
+		}
+		return new BlockGzipIndex(offsets, rows);
+	}
+
+	/** Rebuilds the index by reading the blocks headers (the compressed data is skipped). */
+	@Nonnull
+	public static BlockGzipIndex scan(@WillNotClose @Nonnull FileChannel ch) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		final long size = ch.size();
+		long[] offsets = new long[16];
+		long[] rows = new long[16];
+		int n = 0;
+		long pos = 0;
+		long row = 0;
+		while (pos < size) {
+			((Buffer) header).clear();
+			while (header.hasRemaining()) {
+				if (ch.read(header, pos + header.position()) < 0) {
+					throw new EOFException(String.format("truncated block header at %d", pos));
+				}
+			}
+			final int blockSize = header.getInt(16);
+			if ((header.get(0) & 0xff) != 0x1f || (header.get(1) & 0xff) != 0x8b || (header.get(3) & 4) == 0 ||
+					header.get(12) != SI1 || header.get(13) != SI2 || blockSize < HEADER_SIZE + TRAILER_SIZE) {
+				throw new IOException(String.format("not a block gzip header at %d", pos));
+			}
+			if (n == offsets.length) {
+				offsets = Arrays.copyOf(offsets, n * 2);
+				rows = Arrays.copyOf(rows, n * 2);
+			}
+			offsets[n] = pos;
+			rows[n++] = row;
+			row += header.getInt(20) & 0xffffffffL;
+			pos += blockSize;
+		}
+		if (n == 0 || rows[n - 1] != row) { // no empty last block
+			if (n == offsets.length) {
+				offsets = Arrays.copyOf(offsets, n + 1);
+				rows = Arrays.copyOf(rows, n + 1);
+			}
+			offsets[n] = pos;
+			rows[n++] = row;
+		}
+		return new BlockGzipIndex(Arrays.copyOf(offsets, n), Arrays.copyOf(rows, n));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BlockGzipIndex{blocks=%d, rows=%d}", blockCount(), rowCount());
+	}
+}
@@ -0,0 +1,211 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Provides an interface for reading UTF-8 CSV data by field without decoding the whole input
+ * (compatible with rfc4180 and extended with the option of having a separator other than ",").
+ * Fields are decoded only when {@link #value} is called:
+ * pure ASCII fields are copied as is and multi-byte UTF-8 sequences are validated only inside the requested fields.
+ * <pre>{@code
+ * ByteCsvScanner s;
+ * while (s.scan())) {
+ *   String value = s.value();
+ *   // ...
+ *   if (s.atEndOfRow()) {
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ * A local file can be memory-mapped (see {@link #ByteCsvScanner(FileChannel, int, char, boolean)})
+ * and wrapped by a {@link CsvReader} (see {@link CsvReader#CsvReader(ByteCsvScanner)}).
+ */
+public class ByteCsvScanner extends AbstractByteCsvScanner<ByteBuffer> implements FieldScanner {
+	// bounds of the most recent value in the token buffer
+	private int valueStart;
+	private int valueEnd;
+	// reusable view on the token buffer (see viewOf)
+	private ByteBuffer view;
+	private ByteBuffer viewOf;
+	private byte[] bytes;
+	private CharsetDecoder decoder;
+	private char[] chars;
+	// canonical strings by column (see intern)
+	private StringTable[] interned;
+	private CharSlice decoded;
+
+	/**
+	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
+	 */
+	public ByteCsvScanner(@WillCloseWhenClosed @Nonnull InputStream in) {
+		super(in);
+	}
+
+	/**
+	 * Returns a new CSV scanner to read from `in`.
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public ByteCsvScanner(@WillCloseWhenClosed @Nonnull InputStream in, char sep, boolean quoted) {
+		super(in, sep, quoted);
+	}
+
+	/**
+	 * Returns a new CSV scanner to read from `ch`.
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public ByteCsvScanner(@WillCloseWhenClosed @Nonnull ReadableByteChannel ch, char sep, boolean quoted) {
+		super(ch, sep, quoted);
+	}
+
+	/**
+	 * Returns a new CSV scanner to read from `fc` through sliding memory-mapped windows of `windowSize` bytes
+	 * (the file size is not limited to 2GB and values are read in place).
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public ByteCsvScanner(@WillCloseWhenClosed @Nonnull FileChannel fc, @Nonnegative int windowSize, char sep, boolean quoted) {
+		super(fc, windowSize, sep, quoted);
+	}
+
+	@Override
+	protected ByteBuffer newToken(@Nonnull ByteBuffer data, @Nonnegative int start, @Nonnegative int end) {
+		valueStart = start;
+		valueEnd = end;
+		return data;
+	}
+
+	/**
+	 * Extra fields are skipped (when the number of fields is greater than `values` size).
+	 * Returns the number of values read (see {@link #column}).
+	 * At EOF, returns 0.
+	 */
+	@Nonnegative
+	public int scanRow(@Nonnull String[] values) throws IOException {
+		int i;
+		for (i = 0; i < values.length && scan(); i++) {
+			values[i] = value();
+			if (atEndOfRow()) {
+				return i + 1;
+			}
+		}
+		// Extra values are skipped.
+		//noinspection StatementWithEmptyBody
+		while (!atEndOfRow() && scan()) {
+		}
+		return i;
+	}
+
+	/** Returns the length (in bytes) of the most recent value generated by a call to scan. */
+	@Nonnegative
+	public int valueLength() {
+		return valueEnd - valueStart;
+	}
+
+	/**
+	 * Copies the (undecoded) bytes of the most recent value generated by a call to scan.
+	 * @return the number of bytes copied (see {@link #valueLength}).
+	 */
+	@Nonnegative
+	public int copyTo(@Nonnull byte[] dst, @Nonnegative int off) {
+		final int len = valueLength();
+		view().get(dst, off, len);
+		return len;
+	}
+
+	/**
+	 * Decodes the most recent value generated by a call to scan.
+	 * @throws ScanException if the value is not valid UTF-8.
+	 */
+	@Override
+	@Nonnull
+	public String value() throws ScanException {
+		final int len = valueLength();
+		if (len == 0) {
+			return "";
+		}
+		final ByteBuffer data = token();
+		final byte[] b;
+		final int off;
+		if (data.hasArray()) {
+			b = data.array();
+			off = data.arrayOffset() + valueStart;
+		} else {
+			if (bytes == null || bytes.length < len) {
+				bytes = new byte[Math.max(len, 64)];
+			}
+			view().get(bytes, 0, len);
+			b = bytes;
+			off = 0;
+		}
+		for (int i = off; i < off + len; i++) {
+			if (b[i] < 0) {
+				return decode(b, off, len);
+			}
+		}
+		// Pure ASCII: compact string fast path
+		final StringTable table = StringTable.get(interned, column());
+		if (table != null) {
+			return table.intern(b, off, len);
+		}
+		return new String(b, off, len, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Values of `column` (first column is 1) are deduplicated through a table of at most `capacity` canonical strings
+	 * (looked up on the undecoded bytes of ASCII values).
+	 * When the column turns out to have many more distinct values, the table is evicted and finally disabled.
+	 * A `capacity` of 0 disables interning for this column.
+	 */
+	@Override
+	public void intern(@Nonnegative int column, @Nonnegative int capacity) {
+		interned = StringTable.set(interned, column, capacity);
+	}
+
+	private ByteBuffer view() {
+		final ByteBuffer data = token();
+		if (viewOf != data) {
+			view = data.duplicate();
+			viewOf = data;
+		}
+		((Buffer) view).limit(valueEnd).position(valueStart);
+		return view;
+	}
+
+	private String decode(byte[] b, int off, int len) throws ScanException {
+		if (decoder == null) {
+			decoder = StandardCharsets.UTF_8.newDecoder();
+		}
+		if (chars == null || chars.length < len) {
+			chars = new char[Math.max(len, 64)];
+		}
+		final CharBuffer out = CharBuffer.wrap(chars);
+		decoder.reset();
+		CoderResult cr = decoder.decode(ByteBuffer.wrap(b, off, len), out, true);
+		if (!cr.isError()) {
+			cr = decoder.flush(out);
+		}
+		if (cr.isError()) {
+			throw new ScanException(String.format("invalid UTF-8 sequence at line %d, column %d", lineno(), column()));
+		}
+		final StringTable table = StringTable.get(interned, column());
+		if (table != null) {
+			if (decoded == null) {
+				decoded = new CharSlice();
+			}
+			decoded.set(chars, 0, out.position());
+			return table.intern(decoded);
+		}
+		return new String(chars, 0, out.position());
+	}
+}
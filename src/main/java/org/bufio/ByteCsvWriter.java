@@ -0,0 +1,247 @@
+package org.bufio;
+
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.WillNotClose;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * CsvWriter which encodes its output in UTF-8 without a {@link java.nio.charset.CharsetEncoder}
+ * (ASCII chars are copied as is).
+ * Quoting, line terminator, comment marker and marshaler are handled like {@link CsvWriter}.
+ * Unpaired surrogates are replaced by '?' (like {@link java.io.OutputStreamWriter}).
+ * <pre>{@code
+ * ByteCsvWriter w = new ByteCsvWriter(outputStream);
+ * CsvReader r;
+ * while (r.next()) {
+ *   w.writeRow(r.values());
+ * }
+ * w.flush();
+ * }</pre>
+ */
+public class ByteCsvWriter extends CsvWriter {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int BUFFER_COUNT = 4;
+
+	private OutputStream os;
+	private WritableByteChannel ch;
+	private ByteBuffer dst;
+	// direct buffers filled in sequence and written with one gathering write (channel only)
+	private ByteBuffer[] buffers;
+	private int current;
+
+	// encoded bytes (drained at the end of each writeOut)
+	private final byte[] bytes = new byte[16 * 1024];
+	// pending high surrogate (when a pair is split between two writeOut)
+	private char high;
+
+	/** Creates a "standard" CSV writer (separator is comma and quoted mode active) */
+	public ByteCsvWriter(@WillCloseWhenClosed @Nonnull OutputStream os) {
+		this(os, ',', true);
+	}
+
+	/** Returns a new CSV writer to `os` */
+	public ByteCsvWriter(@WillCloseWhenClosed @Nonnull OutputStream os, char sep, boolean quoted) {
+		super(sep, quoted);
+		if (os == null) {
+			throw new IllegalArgumentException("null output stream");
+		}
+		this.os = os;
+	}
+
+	/**
+	 * Returns a new CSV writer to `ch`.
+	 * Bytes are accumulated in direct buffers which are written together
+	 * (with a gathering write when `ch` is a {@link GatheringByteChannel}).
+	 */
+	public ByteCsvWriter(@WillCloseWhenClosed @Nonnull WritableByteChannel ch, char sep, boolean quoted) {
+		super(sep, quoted);
+		if (ch == null) {
+			throw new IllegalArgumentException("null channel");
+		}
+		this.ch = ch;
+		buffers = new ByteBuffer[BUFFER_COUNT];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		}
+	}
+
+	/**
+	 * Returns a new CSV writer into `dst`: bytes are put at its position each time the internal char buffer is full
+	 * and on {@link #flush} (so `dst` may end with a partial row until then).
+	 * A {@link java.nio.BufferOverflowException} is thrown when `dst` is full.
+	 */
+	public ByteCsvWriter(@WillNotClose @Nonnull ByteBuffer dst, char sep, boolean quoted) {
+		super(sep, quoted);
+		if (dst == null) {
+			throw new IllegalArgumentException("null buffer");
+		}
+		this.dst = dst;
+	}
+
+	@Override
+	void writeOut(char[] data, int off, int len) throws IOException {
+		final byte[] bytes = this.bytes;
+		final int end = off + len;
+		int n = 0;
+		int i = off;
+		if (high != 0 && i < end) {
+			n = encodeSurrogate(high, data[i], n);
+			if (Character.isLowSurrogate(data[i])) {
+				i++;
+			}
+			high = 0;
+		}
+		while (i < end) {
+			// ASCII fast path
+			final int limit = Math.min(end, i + bytes.length - n);
+			char c;
+			while (i < limit && (c = data[i]) < 0x80) {
+				bytes[n++] = (byte) c;
+				i++;
+			}
+			if (i == end) {
+				break;
+			}
+			if (bytes.length - n < 4) {
+				drain(bytes, n);
+				n = 0;
+				continue;
+			}
+			c = data[i++];
+			if (c < 0x800) {
+				bytes[n++] = (byte) (0xc0 | c >> 6);
+				bytes[n++] = (byte) (0x80 | c & 0x3f);
+			} else if (!Character.isSurrogate(c)) {
+				bytes[n++] = (byte) (0xe0 | c >> 12);
+				bytes[n++] = (byte) (0x80 | c >> 6 & 0x3f);
+				bytes[n++] = (byte) (0x80 | c & 0x3f);
+			} else if (i == end && Character.isHighSurrogate(c)) {
+				high = c;
+			} else {
+				n = encodeSurrogate(c, i < end ? data[i] : 0, n);
+				if (Character.isHighSurrogate(c) && Character.isLowSurrogate(data[i])) {
+					i++;
+				}
+			}
+		}
+		drain(bytes, n);
+	}
+
+	@Override
+	void writeOut(String s, int off, int len) throws IOException {
+		final char[] chars = new char[Math.min(len, 8192)];
+		for (int i = off, end = off + len; i < end; i += chars.length) {
+			final int n = Math.min(chars.length, end - i);
+			s.getChars(i, i + n, chars, 0);
+			writeOut(chars, 0, n);
+		}
+	}
+
+	// Encodes the surrogate `c` followed by `next` (or '?' when they are not a pair).
+	private int encodeSurrogate(char c, char next, int n) {
+		final byte[] bytes = this.bytes;
+		if (!Character.isHighSurrogate(c) || !Character.isLowSurrogate(next)) {
+			bytes[n++] = '?';
+			return n;
+		}
+		final int cp = Character.toCodePoint(c, next);
+		bytes[n++] = (byte) (0xf0 | cp >> 18);
+		bytes[n++] = (byte) (0x80 | cp >> 12 & 0x3f);
+		bytes[n++] = (byte) (0x80 | cp >> 6 & 0x3f);
+		bytes[n++] = (byte) (0x80 | cp & 0x3f);
+		return n;
+	}
+
+	// Sends `len` encoded bytes to the output.
+	private void drain(byte[] bytes, int len) throws IOException {
+		if (os != null) {
+			os.write(bytes, 0, len);
+		} else if (dst != null) {
+			dst.put(bytes, 0, len);
+		} else {
+			int off = 0;
+			while (off < len) {
+				ByteBuffer b = buffers[current];
+				if (!b.hasRemaining()) {
+					if (current == buffers.length - 1) {
+						writeBuffers();
+					} else {
+						current++;
+					}
+					b = buffers[current];
+				}
+				final int n = Math.min(len - off, b.remaining());
+				b.put(bytes, off, n);
+				off += n;
+			}
+		}
+	}
+
+	// Writes the filled direct buffers to the channel.
+	private void writeBuffers() throws IOException {
+		final int count = current + 1;
+		for (int i = 0; i < count; i++) {
+			buffers[i].flip();
+		}
+		final ByteBuffer last = buffers[current];
+		if (ch instanceof GatheringByteChannel) {
+			final GatheringByteChannel gch = (GatheringByteChannel) ch;
+			while (last.hasRemaining()) {
+				gch.write(buffers, 0, count);
+			}
+		} else {
+			for (int i = 0; i < count; i++) {
+				while (buffers[i].hasRemaining()) {
+					ch.write(buffers[i]);
+				}
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			buffers[i].clear();
+		}
+		current = 0;
+	}
+
+	// an unpaired high surrogate at the end of the output is replaced
+	private void flushHigh() throws IOException {
+		if (high != 0) {
+			high = 0;
+			bytes[0] = '?';
+			drain(bytes, 1);
+		}
+	}
+
+	@Override
+	void flushOut() throws IOException {
+		flushHigh();
+		if (os != null) {
+			os.flush();
+		} else if (ch != null) {
+			writeBuffers();
+		}
+	}
+
+	@Override
+	void closeOut() throws IOException {
+		if (os != null) {
+			try {
+				flushHigh();
+			} finally {
+				os.close();
+			}
+		} else if (ch != null) {
+			try {
+				flushOut();
+			} finally {
+				ch.close();
+			}
+		} else {
+			flushHigh();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Port of Go Scanner in Java (operating on bytes instead of chars: no charset decoding).
+ */
+public abstract class ByteScanner<T> implements Closeable {
+	// Minimum size of the mapped regions (when memory-mapped).
+	private static final int REGION_SIZE = 1024 * 1024;
+	// The input stream provided by the client (null when reading from a channel).
+	private InputStream in;
+	// The channel provided by the client (null when reading from an input stream).
+	private ReadableByteChannel ch;
+	// The file provided by the client when it is memory-mapped (null otherwise).
+	private FileChannel fc;
+	// Position in the input of the first byte in buf.
+	private long bufPos;
+	// Size of the mapped windows (when memory-mapped).
+	private int windowSize;
+	// Mapped region of the file containing the current window and its position in file (when memory-mapped).
+	private MappedByteBuffer region;
+	private long regionPos;
+	// The function to split the tokens.
+	private ByteSplitFunc<T> splitFunc;
+	// Maximum size of a token
+	private final int maxTokenSize;
+	// Last token returned by split.
+	private T token;
+	// Buffer used as argument to split (heap buffer for stream, direct buffer for channel).
+	private ByteBuffer buf;
+	// First non-processed byte in buf.
+	private int start;
+	// End of data in buf.
+	private int end;
+
+	private boolean eof;
+
+	protected ByteScanner(@WillCloseWhenClosed @Nonnull InputStream in) {
+		init(in, null);
+		maxTokenSize = 64 * 1024;
+		buf = ByteBuffer.allocate(4096); // Plausible starting size; needn't be large.
+	}
+
+	protected ByteScanner(@WillCloseWhenClosed @Nonnull ReadableByteChannel ch) {
+		init(null, ch);
+		maxTokenSize = 64 * 1024;
+		buf = ByteBuffer.allocateDirect(4096);
+	}
+
+	/**
+	 * The file is read through sliding memory-mapped windows (tokens are read in place: no copy).
+	 * Windows are views of mapped regions of at least 1MB: mappings are only released by the GC
+	 * so one mapping per window would exhaust the mappings allowed per process (`vm.max_map_count`) with small windows.
+	 * @param windowSize the (initial) size of the mapped windows
+	 */
+	protected ByteScanner(@WillCloseWhenClosed @Nonnull FileChannel fc, @Nonnegative int windowSize) {
+		init(null, fc);
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid window size: %d", windowSize));
+		}
+		this.fc = fc;
+		this.windowSize = windowSize;
+		maxTokenSize = Integer.MAX_VALUE;
+		buf = ByteBuffer.allocate(0);
+	}
+
+	private void init(InputStream in, ReadableByteChannel ch) {
+		if (in == null && ch == null) {
+			throw new IllegalArgumentException("null input");
+		}
+		this.in = in;
+		this.ch = ch;
+		token = null;
+		start = 0;
+		end = 0;
+		eof = false;
+	}
+
+	/**
+	 * @param splitFunc The function to split the tokens.
+	 */
+	public void setSplitFunc(@Nonnull ByteSplitFunc<T> splitFunc) {
+		this.splitFunc = splitFunc;
+	}
+
+	/** Advances the Scanner to the next token, which will then be
+	 * available through the {@link #token} method.
+	 * @return false when the scan stops, by reaching the end of the input.
+	 */
+	public boolean scan() throws IOException {
+		// Loop until we have a token.
+		while (true) {
+			// See if we can get a token with what we already have.
+			if (end > start || eof) {
+				final int pstart = start;
+				token = splitFunc.split(buf, start, end, eof);
+				if (token != null) {
+					return true;
+				} else if (pstart != start) {
+					continue;
+				}
+			}
+			// We cannot generate a token with what we are holding.
+			// If we've already hit EOF, we are done.
+			if (eof) {
+				start = 0;
+				end = 0;
+				return false;
+			}
+			read();
+		}
+	}
+
+	private void read() throws IOException {
+		if (fc != null) {
+			slide();
+			return;
+		}
+		// Must read more data.
+		// First, shift data to beginning of buffer if there's lots of empty space
+		// or space is needed.
+		final int capacity = buf.capacity();
+		if (start > 0 && (end == capacity || start > capacity / 2)) {
+			move(buf, start, buf, end - start);
+			bufPos += start;
+			end -= start;
+			start = 0;
+		}
+		// Is the buffer full? If so, resize.
+		if (end == capacity) {
+			if (capacity >= maxTokenSize || capacity > Integer.MAX_VALUE / 2) {
+				throw new ScanException("token too long");
+			}
+			int newSize = Math.min(capacity * 2, maxTokenSize);
+			ByteBuffer newBuf = buf.isDirect() ? ByteBuffer.allocateDirect(newSize) : ByteBuffer.allocate(newSize);
+			move(buf, start, newBuf, end - start);
+			buf = newBuf;
+			bufPos += start;
+			end -= start;
+			start = 0;
+		}
+		// Finally, we can read some input.
+		final int n;
+		if (in != null) {
+			n = in.read(buf.array(), buf.arrayOffset() + end, buf.capacity() - end);
+		} else {
+			((Buffer) buf).limit(buf.capacity()).position(end);
+			n = ch.read(buf);
+		}
+		if (n < 0) {
+			eof = true;
+		} else {
+			end += n;
+		}
+	}
+
+	private void slide() throws IOException {
+		// First non-processed byte in file.
+		final long pos = bufPos + start;
+		final long size = fc.size();
+		if (pos + (end - start) >= size) {
+			eof = true;
+			return;
+		}
+		// Is the window full? If so, resize.
+		while (end - start >= windowSize) {
+			if (windowSize > maxTokenSize / 2) {
+				throw new ScanException("token too long");
+			}
+			windowSize *= 2;
+		}
+		final int len = (int) Math.min(windowSize, size - pos);
+		if (region == null || pos < regionPos || pos + len > regionPos + region.capacity()) {
+			region = fc.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Math.max(windowSize, REGION_SIZE), size - pos));
+			regionPos = pos;
+		}
+		final ByteBuffer window = region.duplicate();
+		((Buffer) window).position((int) (pos - regionPos)).limit((int) (pos - regionPos) + len);
+		buf = window.slice();
+		bufPos = pos;
+		start = 0;
+		end = buf.capacity();
+	}
+
+	// Copies `len` bytes from `src` (starting at `from`) to the beginning of `dst`.
+	private static void move(ByteBuffer src, int from, ByteBuffer dst, int len) {
+		if (src.hasArray() && dst.hasArray()) {
+			System.arraycopy(src.array(), src.arrayOffset() + from, dst.array(), dst.arrayOffset(), len);
+			return;
+		}
+		for (int i = 0; i < len; i++) {
+			dst.put(i, src.get(from + i));
+		}
+	}
+
+	/** @return The token returned by {@link ByteSplitFunc#split} function */
+	protected T token() {
+		return token;
+	}
+
+	/** @return the next byte (without consuming it) or -1 at EOF. */
+	public int peek() throws IOException {
+		while (true) {
+			if (end > start) {
+				return buf.get(start) & 0xFF;
+			}
+			if (eof) {
+				return -1;
+			}
+			read();
+		}
+	}
+
+	public boolean atEndOfFile() {
+		return eof;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (in != null) {
+			in.close();
+		} else {
+			ch.close();
+		}
+	}
+
+	/** Used by {@link ByteSplitFunc#split} function to advance the input.
+	 * @param n the number of bytes.
+	 */
+	protected void advance(@Nonnegative int n) throws ScanException {
+		if (n < 0) {
+			throw new ScanException("SplitFunc returns negative advance count");
+		}
+		if (n > end) {
+			throw new ScanException("SplitFunc returns advance count beyond input");
+		}
+		start = n;
+	}
+
+	/** @return Position of the first non-processed byte in buffer. */
+	@Nonnegative
+	protected int position() {
+		return start;
+	}
+
+	/** @return Position in the input of the first non-processed byte. */
+	@Nonnegative
+	long offset() {
+		return bufPos + start;
+	}
+
+	/** @return The current buffer (replaced when resized or slid). */
+	ByteBuffer buffer() {
+		return buf;
+	}
+
+	/** @return End of data in buffer. */
+	@Nonnegative
+	int limit() {
+		return end;
+	}
+
+	/**
+	 * Reads more data into the buffer, after the non-processed data (which may be moved, see {@link #position}).
+	 * @return false when the end of the input had already been reached.
+	 */
+	boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+		read();
+		return true;
+	}
+}
@@ -0,0 +1,13 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+
+/**
+ * Split function used to tokenize the input (bytes)
+ */
+@FunctionalInterface
+public interface ByteSplitFunc<T> {
+	T split(@Nonnull ByteBuffer data, @Nonnegative int start, @Nonnegative int end, boolean atEOF) throws ScanException;
+}
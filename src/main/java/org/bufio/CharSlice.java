@@ -0,0 +1,135 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reusable view of a range of chars (like the most recent field scanned by a {@link CsvScanner}).
+ * The content is not copied: it is only valid until the underlying buffer is modified.
+ * {@link #hashCode} is the same as the one of a {@code String} with the same content
+ * but {@link #equals} is only true for another {@code CharSlice} (see {@link #contentEquals}).
+ */
+public final class CharSlice implements CharSequence {
+	private char[] data;
+	private int offset;
+	private int length;
+
+	CharSlice() {
+		data = new char[0];
+	}
+
+	void set(@Nonnull char[] data, @Nonnegative int offset, @Nonnegative int length) {
+		this.data = data;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/** The underlying buffer. */
+	char[] array() {
+		return data;
+	}
+
+	/** Position of the first char in the underlying buffer. */
+	int offset() {
+		return offset;
+	}
+
+	/** Copies the content so that it does not depend on the underlying buffer anymore. */
+	void detach(@Nonnull char[] copy) {
+		System.arraycopy(data, offset, copy, 0, length);
+		data = copy;
+		offset = 0;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(@Nonnegative int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index);
+		}
+		return data[offset + index];
+	}
+
+	@Nonnull
+	@Override
+	public CharSequence subSequence(@Nonnegative int start, @Nonnegative int end) {
+		if ((start < 0) || (end < 0) || (start > end) || (end > length)) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new String(data, offset + start, end - start);
+	}
+
+	/** Returns `true` if this slice has the same content as `cs`. */
+	public boolean contentEquals(@Nullable CharSequence cs) {
+		if (cs == null || cs.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (data[offset + i] != cs.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Returns the index of the first occurrence of `cs` in this slice or -1 (like {@link String#indexOf(String)}). */
+	public int indexOf(@Nonnull CharSequence cs) {
+		final int n = cs.length();
+		if (n == 0) {
+			return 0;
+		}
+		final char first = cs.charAt(0);
+		outer:
+		for (int i = offset, max = offset + length - n; i <= max; i++) {
+			if (data[i] != first) {
+				continue;
+			}
+			for (int j = 1; j < n; j++) {
+				if (data[i + j] != cs.charAt(j)) {
+					continue outer;
+				}
+			}
+			return i - offset;
+		}
+		return -1;
+	}
+
+	/**
+	 * Copies the content into `dst` at `off`.
+	 * Returns the number of chars copied.
+	 */
+	@Nonnegative
+	public int copyTo(@Nonnull char[] dst, @Nonnegative int off) {
+		System.arraycopy(data, offset, dst, off, length);
+		return length;
+	}
+
+	/** Same as {@code toString().hashCode()} but without allocation. */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = offset; i < offset + length; i++) {
+			h = 31 * h + data[i];
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o == this || o instanceof CharSlice && contentEquals((CharSlice) o);
+	}
+
+	@Nonnull
+	@Override
+	public String toString() {
+		if (length == 0) {
+			return "";
+		}
+		return new String(data, offset, length);
+	}
+}
@@ -0,0 +1,20 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Component used by {@link CsvReader#getObject} to decode the value of a column into an object of one type
+ * (see {@link Converters} for the built-in ones and {@link CsvReader#setConverter} for custom ones).
+ */
+@FunctionalInterface
+public interface Converter<T> {
+	/**
+	 * Decodes the value at `columnIndex` of the current row of `r`
+	 * (typically with {@link CsvReader#getString} or a numeric getter).
+	 * @return `null` for a null value (see {@link CsvReader#wasNull}).
+	 */
+	@Nullable
+	T convert(@Nonnull CsvReader r, @Nonnegative int columnIndex) throws ScanException;
+}
@@ -0,0 +1,246 @@
+package org.bufio;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Built-in converters used by {@link CsvReader#getObject} (resolved once by type and cached in a {@code ClassValue}):
+ * <ul>
+ * <li>{@code String}, {@code CharSequence},</li>
+ * <li>primitive and boxed types ({@code boolean} accepts "true", "false", "1" and "0" ignoring case),</li>
+ * <li>{@code BigDecimal}, {@code BigInteger},</li>
+ * <li>{@code java.time} types in ISO-8601 format
+ * ({@code LocalDate}, {@code LocalTime}, {@code LocalDateTime}, {@code OffsetTime}, {@code OffsetDateTime},
+ * {@code ZonedDateTime}, {@code Instant}, {@code Duration}),</li>
+ * <li>enums (by constant name) and {@code UUID}.</li>
+ * </ul>
+ * Except for {@code BigInteger}, values are decoded from the field chars without creating a {@code String}.
+ */
+public final class Converters {
+	private static final ClassValue<Converter<?>> BUILTIN = new ClassValue<Converter<?>>() {
+		@Override
+		protected Converter<?> computeValue(Class<?> type) {
+			return create(type);
+		}
+	};
+
+	private Converters() {
+	}
+
+	/** Returns the built-in converter for `type` or `null`. */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	public static <T> Converter<T> get(@Nonnull Class<T> type) {
+		return (Converter<T>) BUILTIN.get(type);
+	}
+
+	private static Converter<?> create(Class<?> type) {
+		if (type == String.class || type == CharSequence.class) {
+			return CsvReader::getString;
+		} else if (type == int.class || type == Integer.class) {
+			return (r, i) -> {
+				final int v = r.getInt(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == long.class || type == Long.class) {
+			return (r, i) -> {
+				final long v = r.getLong(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == double.class || type == Double.class) {
+			return (r, i) -> {
+				final double v = r.getDouble(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == float.class || type == Float.class) {
+			return (r, i) -> {
+				final float v = r.getFloat(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == short.class || type == Short.class) {
+			return (r, i) -> {
+				final short v = r.getShort(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == byte.class || type == Byte.class) {
+			return (r, i) -> {
+				final byte v = r.getByte(i);
+				return r.wasNull() ? null : v;
+			};
+		} else if (type == boolean.class || type == Boolean.class) {
+			return Converters::toBoolean;
+		} else if (type == char.class || type == Character.class) {
+			return Converters::toChar;
+		} else if (type == BigDecimal.class) {
+			return Converters::toBigDecimal;
+		} else if (type == BigInteger.class) {
+			return Converters::toBigInteger;
+		} else if (type == LocalDate.class) {
+			return temporal(type, LocalDate::parse);
+		} else if (type == LocalTime.class) {
+			return temporal(type, LocalTime::parse);
+		} else if (type == LocalDateTime.class) {
+			return temporal(type, LocalDateTime::parse);
+		} else if (type == OffsetTime.class) {
+			return temporal(type, OffsetTime::parse);
+		} else if (type == OffsetDateTime.class) {
+			return temporal(type, OffsetDateTime::parse);
+		} else if (type == ZonedDateTime.class) {
+			return temporal(type, ZonedDateTime::parse);
+		} else if (type == Instant.class) {
+			return temporal(type, Instant::parse);
+		} else if (type == Duration.class) {
+			return temporal(type, Duration::parse);
+		} else if (type == UUID.class) {
+			return Converters::toUUID;
+		} else if (type.isEnum()) {
+			final Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+			return (r, i) -> {
+				final CharSequence f = r.field(i);
+				if (r.wasNull()) {
+					return null;
+				}
+				for (Enum<?> constant : constants) {
+					if (constant.name().contentEquals(f)) {
+						return constant;
+					}
+				}
+				throw invalid(type, f, r, i);
+			};
+		}
+		return null;
+	}
+
+	private static Boolean toBoolean(CsvReader r, int i) throws ScanException {
+		final CharSequence f = r.field(i);
+		if (r.wasNull()) {
+			return null;
+		}
+		if (f.length() == 1) {
+			if (f.charAt(0) == '1') {
+				return Boolean.TRUE;
+			} else if (f.charAt(0) == '0') {
+				return Boolean.FALSE;
+			}
+		} else if (equalsIgnoreCase("true", f)) {
+			return Boolean.TRUE;
+		} else if (equalsIgnoreCase("false", f)) {
+			return Boolean.FALSE;
+		}
+		throw invalid(Boolean.class, f, r, i);
+	}
+
+	private static Character toChar(CsvReader r, int i) throws ScanException {
+		final CharSequence f = r.field(i);
+		if (r.wasNull()) {
+			return null;
+		}
+		if (f.length() != 1) {
+			throw invalid(Character.class, f, r, i);
+		}
+		return f.charAt(0);
+	}
+
+	private static BigDecimal toBigDecimal(CsvReader r, int i) throws ScanException {
+		final CharSequence f = r.field(i);
+		if (r.wasNull()) {
+			return null;
+		}
+		try {
+			if (f instanceof CharSlice) {
+				final CharSlice slice = (CharSlice) f;
+				return new BigDecimal(slice.array(), slice.offset(), slice.length());
+			}
+			return new BigDecimal(f.toString());
+		} catch (NumberFormatException e) {
+			throw invalidNumber(BigDecimal.class, f, r, i);
+		}
+	}
+
+	private static BigInteger toBigInteger(CsvReader r, int i) throws ScanException {
+		final String s = r.getString(i);
+		if (s == null) {
+			return null;
+		}
+		try {
+			return new BigInteger(s);
+		} catch (NumberFormatException e) {
+			throw invalidNumber(BigInteger.class, s, r, i);
+		}
+	}
+
+	private static Converter<?> temporal(Class<?> type, Function<CharSequence, ?> parser) {
+		return (r, i) -> {
+			final CharSequence f = r.field(i);
+			if (r.wasNull()) {
+				return null;
+			}
+			try {
+				return parser.apply(f);
+			} catch (DateTimeParseException e) {
+				throw invalid(type, f, r, i);
+			}
+		};
+	}
+
+	// 8-4-4-4-12 hex digits
+	private static UUID toUUID(CsvReader r, int i) throws ScanException {
+		final CharSequence f = r.field(i);
+		if (r.wasNull()) {
+			return null;
+		}
+		if (f.length() == 36 && f.charAt(8) == '-' && f.charAt(13) == '-' && f.charAt(18) == '-' && f.charAt(23) == '-') {
+			final long a = hex(f, 0, 8), b = hex(f, 9, 13), c = hex(f, 14, 18), d = hex(f, 19, 23), e = hex(f, 24, 36);
+			if ((a | b | c | d | e) >= 0) {
+				return new UUID(a << 32 | b << 16 | c, d << 48 | e);
+			}
+		}
+		throw invalid(UUID.class, f, r, i);
+	}
+
+	// Returns -1 if a char is not a hex digit.
+	private static long hex(CharSequence s, int start, int end) {
+		long v = 0;
+		for (int i = start; i < end; i++) {
+			final int d = Character.digit(s.charAt(i), 16);
+			if (d < 0) {
+				return -1;
+			}
+			v = v << 4 | d;
+		}
+		return v;
+	}
+
+	private static boolean equalsIgnoreCase(String s, CharSequence cs) {
+		if (s.length() != cs.length()) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.toLowerCase(cs.charAt(i)) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static ScanException invalid(Class<?> type, CharSequence value, CsvReader r, int columnIndex) {
+		return new ScanException(String.format("invalid %s \"%s\" at line %d, column %d", type.getSimpleName(), value, r.rowLineno(), columnIndex));
+	}
+
+	private static NumberFormatException invalidNumber(Class<?> type, CharSequence value, CsvReader r, int columnIndex) {
+		return new NumberFormatException(String.format("invalid %s \"%s\" at line %d, column %d", type.getSimpleName(), value, r.rowLineno(), columnIndex));
+	}
+}
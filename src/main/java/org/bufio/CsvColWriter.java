@@ -34,8 +34,15 @@ import java.util.Map;
  * }</pre>
  */
 public class CsvColWriter implements Closeable, Flushable {
+	// kinds of value by column
+	private static final byte OBJECT = 0, INT = 1, LONG = 2, FLOAT = 3, DOUBLE = 4;
+
 	private final CsvWriter writer;
-	private Object[] row = new Object[10]; // row
+	// current row: values in the slot of their kind (primitives are not boxed)
+	private Object[] row = new Object[10];
+	private byte[] kinds = new byte[10];
+	private long[] longs = new long[10];
+	private double[] doubles = new double[10];
 	private int n; // number of field in current row
 	private List<String> headers;
 	private Map<String, Integer> columnIndexes;
@@ -111,10 +118,10 @@ public class CsvColWriter implements Closeable, Flushable {
 	 * @param x the column value
 	 */
 	public void setByte(int columnIndex, byte x) {
-		setObject(columnIndex, x);
+		setInt(columnIndex, x);
 	}
 	public void setByte(String columnLabel, byte x) {
-		setObject(columnLabel, x);
+		setByte(findColumn(columnLabel), x);
 	}
 
 	/**
@@ -122,10 +129,10 @@ public class CsvColWriter implements Closeable, Flushable {
 	 * @param x the column value
 	 */
 	public void setShort(int columnIndex, short x) {
-		setObject(columnIndex, x);
+		setInt(columnIndex, x);
 	}
 	public void setShort(String columnLabel, short x) {
-		setObject(columnLabel, x);
+		setShort(findColumn(columnLabel), x);
 	}
 
 	/**
@@ -133,10 +140,11 @@ public class CsvColWriter implements Closeable, Flushable {
 	 * @param x the column value
 	 */
 	public void setInt(int columnIndex, int x) {
-		setObject(columnIndex, x);
+		final int i = slot(columnIndex, INT);
+		longs[i] = x;
 	}
 	public void setInt(String columnLabel, int x) {
-		setObject(columnLabel, x);
+		setInt(findColumn(columnLabel), x);
 	}
 
 	/**
@@ -144,32 +152,37 @@ public class CsvColWriter implements Closeable, Flushable {
 	 * @param x the column value
 	 */
 	public void setLong(int columnIndex, long x) {
-		setObject(columnIndex, x);
+		final int i = slot(columnIndex, LONG);
+		longs[i] = x;
 	}
 	public void setLong(String columnLabel, long x) {
-		setObject(columnLabel, x);
+		setLong(findColumn(columnLabel), x);
 	}
 
 	/**
+	 * The value is written with {@link CsvWriter#writeFloat} (shortest decimal, unlike {@code Float.toString} before JDK 19).
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 * @param x the column value
 	 */
 	public void setFloat(int columnIndex, float x) {
-		setObject(columnIndex, x);
+		final int i = slot(columnIndex, FLOAT);
+		doubles[i] = x;
 	}
 	public void setFloat(String columnLabel, float x) {
-		setObject(columnLabel, x);
+		setFloat(findColumn(columnLabel), x);
 	}
 
 	/**
+	 * The value is written with {@link CsvWriter#writeDouble} (shortest decimal, unlike {@code Double.toString} before JDK 19).
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 * @param x the column value
 	 */
 	public void setDouble(int columnIndex, double x) {
-		setObject(columnIndex, x);
+		final int i = slot(columnIndex, DOUBLE);
+		doubles[i] = x;
 	}
 	public void setDouble(String columnLabel, double x) {
-		setObject(columnLabel, x);
+		setDouble(findColumn(columnLabel), x);
 	}
 
 	/**
@@ -177,11 +190,7 @@ public class CsvColWriter implements Closeable, Flushable {
 	 * @param x the column value
 	 */
 	public void setObject(@Nonnegative int columnIndex, @Nullable Object x) {
-		final int i = columnIndex - 1;
-		if (i == row.length) {
-			row = Arrays.copyOf(row, i * 2); // FIXME limit
-		}
-		n = Math.max(n, columnIndex);
+		final int i = slot(columnIndex, OBJECT);
 		row[i] = x;
 	}
 	public void setObject(String columnLabel, @Nullable Object x) {
@@ -191,12 +200,47 @@ public class CsvColWriter implements Closeable, Flushable {
 	/** Tells when a line break must be inserted. */
 	public void endOfRow() throws IOException {
 		for (int i = 0; i < n; i++) {
-			writer.writeValue(row[i]);
+			switch (kinds[i]) {
+				case INT:
+					writer.writeInt((int) longs[i]);
+					break;
+				case LONG:
+					writer.writeLong(longs[i]);
+					break;
+				case FLOAT:
+					writer.writeFloat((float) doubles[i]);
+					break;
+				case DOUBLE:
+					writer.writeDouble(doubles[i]);
+					break;
+				default:
+					writer.writeValue(row[i]);
+					row[i] = null;
+			}
+			kinds[i] = OBJECT;
 		}
 		writer.endOfRow();
 		n = 0; // TODO ensure n is reset to 0 even if an IOException occurs...
 	}
 
+	// Returns the slot index of `columnIndex` for a value of `kind`.
+	private int slot(int columnIndex, byte kind) {
+		final int i = columnIndex - 1;
+		if (i >= row.length) {
+			final int length = Math.max(columnIndex, row.length * 2); // FIXME limit
+			row = Arrays.copyOf(row, length);
+			kinds = Arrays.copyOf(kinds, length);
+			longs = Arrays.copyOf(longs, length);
+			doubles = Arrays.copyOf(doubles, length);
+		}
+		n = Math.max(n, columnIndex);
+		if (kinds[i] == OBJECT) {
+			row[i] = null;
+		}
+		kinds[i] = kind;
+		return i;
+	}
+
 	/** Use \r\n as the line terminator. */
 	public void useCRLF() {
 		writer.useCRLF();
@@ -0,0 +1,20 @@
+package org.bufio;
+
+/**
+ * Tokenization strategies of a {@link CsvScanner} (see {@link CsvScanner#CsvScanner(java.io.Reader, char, boolean, CsvEngine)}).
+ */
+public enum CsvEngine {
+	/**
+	 * Character by character state machine (the default).
+	 */
+	SCALAR,
+	/**
+	 * Two-stage parser: a first pass builds bitmaps of quote, separator and newline positions by blocks of 64 chars
+	 * and computes in-quote regions with a prefix-XOR, a second pass emits fields from the separators/newlines outside quotes.
+	 * Blocks are classified with the JDK Vector API when available (JDK 17+ with `--add-modules jdk.incubator.vector`),
+	 * with a scalar classifier otherwise (in which case {@link #SCALAR} is usually faster).
+	 * Fields which are not well-formed (like a quote in an unquoted field) fall back to the {@link #SCALAR} engine,
+	 * so tokens, line numbers and errors are the same.
+	 */
+	INDEXED
+}
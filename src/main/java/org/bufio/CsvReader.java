@@ -8,14 +8,17 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -31,14 +34,38 @@ import java.util.stream.StreamSupport;
  * }</pre>
  */
 public class CsvReader implements Closeable, Iterable<String[]> {
-	private final CsvScanner impl;
+	private final FieldScanner impl;
 	private String[] row = new String[10]; // row
 	private int n; // number of field in current row
+	// when true, fields are decoded on first access (see setLazy)
+	private boolean lazy;
+	// start/end of the fields of the current row relative to the marked row start in the scanner buffer (lazy mode)
+	private int[] offsets;
+	private CharSlice slice;
+	private List<String> rowView;
+	// projected columns (by column index - 1) or null for all columns
+	private boolean[] projection;
 	private Map<String, Integer> columnIndexes;
+	// column labels by index - 1 (see getColumnLabel)
+	private String[] labels;
+	// schema columns by column index - 1 (see setSchema)
+	private CsvSchema.Column[] columns;
+	// decoders used by getValue resolved by column index - 1 from the schema types (see setSchema)
+	private Converter<?>[] decoders;
 	private Unmarshaler unmarshaler;
+	// converters registered with setConverter (see Converters for the built-in ones)
+	private Map<Class<?>, Converter<?>> customConverters;
+	// converter resolved by column index - 1 for converterTypes (see getObject)
+	private Class<?>[] converterTypes;
+	private Converter<?>[] converters;
+
+	// line number where the current row starts (used in error messages)
+	private int rowLineno;
 
 	private boolean emptyIsNull;
-	private Boolean wasNull;
+	private boolean wasNull;
+	// trims spaces before decoding integers
+	private boolean trimNumbers;
 
 	/**
 	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
@@ -55,16 +82,46 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		impl = new CsvScanner(r, sep, quoted);
 	}
 
-	/** Reuse this component with a new content. */
+	/**
+	 * Returns a new CSV reader to read from `r` with the specified tokenization `engine`.
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public CsvReader(@WillCloseWhenClosed @Nonnull Reader r, char sep, boolean quoted, @Nonnull CsvEngine engine) {
+		impl = new CsvScanner(r, sep, quoted, engine);
+	}
+
+	/**
+	 * Returns a new CSV reader on top of a byte scanner (for example, on a memory-mapped file).
+	 * <pre>{@code
+	 * CsvReader r = new CsvReader(new ByteCsvScanner(FileChannel.open(path), 64 << 20, ',', true));
+	 * }</pre>
+	 */
+	public CsvReader(@WillCloseWhenClosed @Nonnull ByteCsvScanner impl) {
+		if (impl == null) {
+			throw new IllegalArgumentException("null scanner");
+		}
+		this.impl = impl;
+	}
+
+	/**
+	 * Reuse this component with a new content.
+	 * @throws IllegalStateException if this reader has been created on top of a byte scanner.
+	 */
 	public final void reset(@WillCloseWhenClosed @Nonnull Reader r) throws IOException {
-		impl.reset(r);
+		if (!(impl instanceof CsvScanner)) {
+			throw new IllegalStateException("Cannot reset a byte scanner with a reader");
+		}
+		((CsvScanner) impl).reset(r);
 		n = 0;
 		columnIndexes = null; // TODO validate
-		wasNull = null;
+		labels = null;
+		columns = null;
+		wasNull = false;
 	}
 
 	public void withHeaders(@Nonnull Iterable<String> headers) {
 		columnIndexes = toColumnIndexes(headers);
+		labels = null;
 	}
 
 	@Nonnull
@@ -83,9 +140,10 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		if (n == 0) {
 			return Collections.emptyMap();
 		}
+		labels = null;
 		columnIndexes = new HashMap<>(n);
 		for (int j = 0; j < n; j++) {
-			columnIndexes.put(row[j], j + 1);
+			columnIndexes.put(value(j), j + 1);
 		}
 		return columnIndexes; // TODO clone/copy
 	}
@@ -97,30 +155,123 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	}
 
 	private void scanRow() throws IOException {
+		if (lazy) {
+			((CsvScanner) impl).mark();
+		}
 		for (n = 0; impl.scan(); n++) {
+			if (n == 0) {
+				rowLineno = impl.fieldLineno();
+			}
 			if (n == row.length) {
 				row = Arrays.copyOf(row, n * 2); // FIXME limit
 			}
-			row[n] = impl.token();
+			if (lazy) {
+				if (2 * n == offsets.length) {
+					offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				}
+				final CsvScanner s = (CsvScanner) impl;
+				final CharSlice field = s.field();
+				offsets[2 * n] = field.offset() - s.marked();
+				offsets[2 * n + 1] = offsets[2 * n] + field.length();
+				row[n] = null;
+			} else {
+				row[n] = impl.value();
+			}
 			if (impl.atEndOfRow()) {
 				n++;
 				break;
 			}
 		}
-		wasNull = null;
+		if (lazy && n == 0) {
+			((CsvScanner) impl).unmark();
+		}
+		wasNull = false;
 	}
 
+	// Decodes the current row before its data is released (lazy mode): the scanner is going to move past it.
+	private void releaseRow() {
+		if (lazy) {
+			for (int j = 0; j < n; j++) {
+				value(j);
+			}
+			((CsvScanner) impl).unmark();
+		}
+	}
+
+	/** Returns a copy of the current row (in {@link #setLazy lazy} mode, all fields are decoded, see {@link #rowView}). */
 	@Nonnull
 	public String[] values() {
+		if (lazy) {
+			for (int j = 0; j < n; j++) {
+				value(j);
+			}
+		}
 		return Arrays.copyOf(row, n);
 	}
 
 	/**
-	 * See {@link java.sql.ResultSet#getString(int)}.
-	 * @param columnIndex the first column is 1, the second is 2, ...
+	 * Returns a read-only view of the current row, reused from row to row
+	 * (in {@link #setLazy lazy} mode, fields are decoded on first access).
 	 */
-	@Nullable
-	public String getString(@Nonnegative int columnIndex) throws ScanException {
+	@Nonnull
+	public List<String> rowView() {
+		if (rowView == null) {
+			rowView = new AbstractList<String>() {
+				@Override
+				public String get(int index) {
+					if (index < 0 || index >= n) {
+						throw new IndexOutOfBoundsException("index: " + index);
+					}
+					return value(index);
+				}
+				@Override
+				public int size() {
+					return n;
+				}
+			};
+		}
+		return rowView;
+	}
+
+	// value of the field at `i` (first field is 0), decoded on first access in lazy mode
+	private String value(int i) {
+		if (row[i] == null) {
+			final CsvScanner s = (CsvScanner) impl;
+			final int start = s.marked() + offsets[2 * i];
+			row[i] = s.newValue(s.buffer(), start, offsets[2 * i + 1] - offsets[2 * i], i + 1);
+		}
+		return row[i];
+	}
+
+	// current field at `columnIndex` without decoding it (valid until the next row), sets wasNull (see Converters)
+	CharSequence field(int columnIndex) throws ScanException {
+		checkIndex(columnIndex);
+		final int i = columnIndex - 1;
+		final CharSequence value;
+		if (row[i] != null) {
+			value = row[i];
+		} else {
+			final CsvScanner s = (CsvScanner) impl;
+			slice.set(s.buffer(), s.marked() + offsets[2 * i], offsets[2 * i + 1] - offsets[2 * i]);
+			value = slice;
+		}
+		wasNull = isNull(columnIndex, value);
+		return value;
+	}
+
+	private boolean isNull(int columnIndex, CharSequence value) throws ScanException {
+		final CsvSchema.Column column = columns == null || columnIndex > columns.length ? null : columns[columnIndex - 1];
+		if (column == null) {
+			return emptyIsNull && value.length() == 0;
+		}
+		final boolean isNull = emptyIsNull && value.length() == 0 || column.isNull(value);
+		if (isNull && !column.isNullable()) {
+			throw new ScanException(String.format("null value in column '%s' at line %d", column.getName(), rowLineno));
+		}
+		return isNull;
+	}
+
+	private void checkIndex(int columnIndex) throws ScanException {
 		if (n == 0) {
 			throw new ScanException("No row");
 		}
@@ -130,14 +281,21 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		if (columnIndex > n) {
 			throw new ScanException(String.format("Index out of bound (%d > %d)", columnIndex, n));
 		}
-		final String value = row[columnIndex - 1];
-		if (emptyIsNull) {
-			wasNull = value.isEmpty();
-			if (wasNull) {
-				return null;
-			}
+		if (projection != null && (columnIndex > projection.length || !projection[columnIndex - 1])) {
+			throw new ScanException(String.format("Column %d is not projected", columnIndex));
 		}
-		return value;
+	}
+
+	/**
+	 * See {@link java.sql.ResultSet#getString(int)}.
+	 * @param columnIndex the first column is 1, the second is 2, ...
+	 */
+	@Nullable
+	public String getString(@Nonnegative int columnIndex) throws ScanException {
+		checkIndex(columnIndex);
+		final String value = value(columnIndex - 1);
+		wasNull = isNull(columnIndex, value);
+		return wasNull ? null : value;
 	}
 	/** See {@link java.sql.ResultSet#getString(String)}. */
 	public String getString(String columnLabel) throws ScanException {
@@ -149,11 +307,11 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public byte getByte(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Byte.parseByte(value);
+		return (byte) NumberDecoder.decodeLong(value, trimNumbers, Byte.MIN_VALUE, Byte.MAX_VALUE, "byte", rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getByte(String)}. */
 	public byte getByte(String columnLabel) throws ScanException {
@@ -165,11 +323,11 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public short getShort(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Short.parseShort(value);
+		return (short) NumberDecoder.decodeLong(value, trimNumbers, Short.MIN_VALUE, Short.MAX_VALUE, "short", rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getShort(String)}. */
 	public short getShort(String columnLabel) throws ScanException {
@@ -181,11 +339,11 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public int getInt(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Integer.parseInt(value);
+		return (int) NumberDecoder.decodeLong(value, trimNumbers, Integer.MIN_VALUE, Integer.MAX_VALUE, "int", rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getInt(String)}. */
 	public int getInt(String columnLabel) throws ScanException {
@@ -197,11 +355,11 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public long getLong(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Long.parseLong(value);
+		return NumberDecoder.decodeLong(value, trimNumbers, Long.MIN_VALUE, Long.MAX_VALUE, "long", rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getLong(String)}. */
 	public long getLong(String columnLabel) throws ScanException {
@@ -213,11 +371,11 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public float getFloat(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Float.parseFloat(value);
+		return NumberDecoder.decodeFloat(value, rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getFloat(String)}. */
 	public float getFloat(String columnLabel) throws ScanException {
@@ -229,26 +387,117 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @param columnIndex the first column is 1, the second is 2, ...
 	 */
 	public double getDouble(@Nonnegative int columnIndex) throws ScanException {
-		final String value = getString(columnIndex);
-		if (emptyIsNull && wasNull) {
+		final CharSequence value = field(columnIndex);
+		if (wasNull) {
 			return 0;
 		}
-		return Double.parseDouble(value);
+		return NumberDecoder.decodeDouble(value, rowLineno, columnIndex);
 	}
 	/** See {@link java.sql.ResultSet#getDouble(String)}. */
 	public double getDouble(String columnLabel) throws ScanException {
 		return getDouble(findColumn(columnLabel));
 	}
 
+	/**
+	 * Returns the value at `columnIndex` decoded according to its {@link #setSchema schema} type
+	 * ({@code String}, {@code Integer}, {@code Long}, {@code Float} or {@code Double}) or `null`.
+	 * Without schema, the value is returned as a {@code String}.
+	 * The decoder of each column is resolved once by {@link #setSchema} (see {@link Converters}).
+	 * @param columnIndex the first column is 1, the second is 2, ...
+	 */
+	@Nullable
+	public Object getValue(@Nonnegative int columnIndex) throws ScanException {
+		final Converter<?> decoder = decoders == null || columnIndex > decoders.length ? null : decoders[columnIndex - 1];
+		if (decoder == null) {
+			return getString(columnIndex);
+		}
+		return decoder.convert(this, columnIndex);
+	}
+
+	/**
+	 * Binds `schema` to the current headers (see {@link #scanHeaders} or {@link #withHeaders}):
+	 * null tokens and nullability of its columns are applied by the getters and {@link #getValue}.
+	 * Returns the index of each schema column (in declaration order) to be used as handle with the getters
+	 * (no label lookup by row).
+	 * A `null` schema unbinds the current one.
+	 * @throws ScanException if a column of the schema is not in the headers.
+	 */
+	@Nonnull
+	public int[] setSchema(@Nullable CsvSchema schema) throws ScanException {
+		if (schema == null) {
+			columns = null;
+			decoders = null;
+			return new int[0];
+		}
+		final int[] handles = new int[schema.size()];
+		int max = 0;
+		for (int i = 0; i < handles.length; i++) {
+			handles[i] = findColumn(schema.column(i).getName());
+			max = Math.max(max, handles[i]);
+		}
+		final CsvSchema.Column[] columns = new CsvSchema.Column[max];
+		final Converter<?>[] decoders = new Converter<?>[max];
+		for (int i = 0; i < handles.length; i++) {
+			columns[handles[i] - 1] = schema.column(i);
+			decoders[handles[i] - 1] = decoder(schema.column(i).getType());
+		}
+		this.columns = columns;
+		this.decoders = decoders;
+		return handles;
+	}
+
+	private static Converter<?> decoder(CsvSchema.Type type) {
+		switch (type) {
+			case INT:
+				return Converters.get(Integer.class);
+			case LONG:
+				return Converters.get(Long.class);
+			case FLOAT:
+				return Converters.get(Float.class);
+			case DOUBLE:
+				return Converters.get(Double.class);
+			default:
+				return Converters.get(String.class);
+		}
+	}
+
 	/**
 	 * See {@link java.sql.ResultSet#getObject(int, Class)}.
+	 * The value is decoded by the converter registered for `type` (see {@link #setConverter}),
+	 * else by the built-in one (see {@link Converters}), else by the {@link #setUnmarshaler unmarshaler}.
+	 * The converter is resolved once by column (as long as the same type is requested).
 	 * @param columnIndex the first column is 1, the second is 2, ...
+	 * @throws IllegalStateException if there is no converter for `type` and no unmarshaler.
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> T getObject(@Nonnegative int columnIndex, Class<T> type) throws ScanException {
-		if (unmarshaler == null) {
-			throw new IllegalStateException("No unmarshaler set");
+		checkIndex(columnIndex);
+		final int i = columnIndex - 1;
+		if (converterTypes == null || i >= converterTypes.length) {
+			final int n = Math.max(i + 1, converterTypes == null ? 8 : converterTypes.length * 2);
+			converterTypes = converterTypes == null ? new Class<?>[n] : Arrays.copyOf(converterTypes, n);
+			converters = converters == null ? new Converter<?>[n] : Arrays.copyOf(converters, n);
+		}
+		if (converterTypes[i] != type) {
+			converters[i] = converter(type);
+			converterTypes[i] = type;
 		}
-		return unmarshaler.unmarshal(getString(columnIndex), type);
+		return (T) converters[i].convert(this, columnIndex);
+	}
+
+	private Converter<?> converter(Class<?> type) {
+		Converter<?> converter = customConverters == null ? null : customConverters.get(type);
+		if (converter == null) {
+			converter = Converters.get(type);
+		}
+		if (converter == null) {
+			final Unmarshaler unmarshaler = this.unmarshaler;
+			if (unmarshaler == null) {
+				throw new IllegalStateException(String.format("No converter for %s and no unmarshaler set", type.getName()));
+			}
+			converter = (r, columnIndex) -> unmarshaler.unmarshal(r.getString(columnIndex), type);
+		}
+		return converter;
 	}
 
 	/** See {@link java.sql.ResultSet#getObject(String, Class)}. */
@@ -268,13 +517,41 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		return columnIndex;
 	}
 
+	/** Returns the index of the column labeled `name` (or ignoring case) or 0 (see {@link RowMapper}). */
+	int columnIndex(@Nonnull String name) throws ScanException {
+		if (columnIndexes == null || columnIndexes.isEmpty()) {
+			throw new ScanException("No header");
+		}
+		final Integer columnIndex = columnIndexes.get(name);
+		if (columnIndex != null) {
+			return columnIndex;
+		}
+		for (Map.Entry<String, Integer> entry : columnIndexes.entrySet()) {
+			if (name.equalsIgnoreCase(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+		return 0;
+	}
+
 	/**
 	 * Skips `n` rows
 	 */
 	public void skipRows(@Nonnegative int n) throws IOException {
+		releaseRow();
 		impl.skipRows(n);
 	}
 
+	/**
+	 * Counts the remaining rows by skipping them (no value is decoded).
+	 * Rows already read are not counted, nor the headers once they have been {@link #scanHeaders scanned}.
+	 */
+	@Nonnegative
+	public long countRows() throws IOException {
+		releaseRow();
+		return impl.countRows();
+	}
+
 	/**
 	 * Returns current line number.
 	 * @see java.sql.ResultSet#getRow
@@ -283,6 +560,12 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	public int getRow() { // FIXME row versus lineno
 		return impl.lineno();
 	}
+
+	// line number where the current row starts (see Converters)
+	@Nonnegative
+	int rowLineno() {
+		return rowLineno;
+	}
 	/** See {@link java.sql.ResultSetMetaData#getColumnCount()}. */
 	@Nonnegative
 	public int getColumnCount() {
@@ -300,12 +583,16 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		if (columnIndex < 1) {
 			throw new ScanException(String.format("Index out of bound (%d < 1)", columnIndex));
 		}
-		for (Map.Entry<String, Integer> entry : columnIndexes.entrySet()) {
-			if (entry.getValue() == columnIndex) {
-				return entry.getKey();
+		if (labels == null) {
+			labels = new String[Collections.max(columnIndexes.values())];
+			for (Map.Entry<String, Integer> entry : columnIndexes.entrySet()) {
+				labels[entry.getValue() - 1] = entry.getKey();
 			}
 		}
-		throw new ScanException(String.format("No such index %d in %s", columnIndex, columnIndexes));
+		if (columnIndex > labels.length || labels[columnIndex - 1] == null) {
+			throw new ScanException(String.format("No such index %d in %s", columnIndex, columnIndexes));
+		}
+		return labels[columnIndex - 1];
 	}
 
 	/**
@@ -326,6 +613,97 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 		impl.setSkipEmptyLines(skipEmptyLines);
 	}
 
+	/**
+	 * Only the columns at `columnIndexes` are decoded: other fields are only scanned past
+	 * (their values are empty) and a row ends at its last projected column (see {@link #getColumnCount}).
+	 * Without column index, all columns are decoded (the default).
+	 * @param columnIndexes the first column is 1, the second is 2, ...
+	 */
+	public void setProjection(@Nullable int... columnIndexes) {
+		impl.setProjection(columnIndexes);
+		projection = AbstractCsvScanner.toProjection(columnIndexes);
+	}
+	/** See {@link #setProjection(int...)} (headers must have been scanned or set). */
+	public void setProjection(@Nonnull String... columnLabels) throws ScanException {
+		final int[] columnIndexes = new int[columnLabels.length];
+		for (int i = 0; i < columnLabels.length; i++) {
+			columnIndexes[i] = findColumn(columnLabels[i]);
+		}
+		setProjection(columnIndexes);
+	}
+
+	/**
+	 * Only rows accepted by `filter` on their raw record are decoded (see {@link AbstractCsvScanner#setRowFilter(Predicate)}).
+	 * <pre>{@code
+	 * r.setRowFilter(record -> record.indexOf("customer-42") >= 0);
+	 * }</pre>
+	 * @throws IllegalStateException if this reader has been created on top of a byte scanner.
+	 */
+	public void setRowFilter(@Nullable Predicate<CharSlice> filter) {
+		setRowFilter(0, filter);
+	}
+	/**
+	 * Only rows whose field at `columnIndex` is accepted by `filter` are decoded
+	 * (see {@link AbstractCsvScanner#setRowFilter(int, Predicate)}).
+	 * @param columnIndex the first column is 1, the second is 2, ...
+	 * @throws IllegalStateException if this reader has been created on top of a byte scanner.
+	 */
+	public void setRowFilter(@Nonnegative int columnIndex, @Nullable Predicate<CharSlice> filter) {
+		if (!(impl instanceof CsvScanner)) {
+			throw new IllegalStateException("Row filter is not supported by a byte scanner");
+		}
+		((CsvScanner) impl).setRowFilter(columnIndex, filter);
+	}
+	/** See {@link #setRowFilter(int, Predicate)} (headers must have been scanned or set). */
+	public void setRowFilter(String columnLabel, @Nullable Predicate<CharSlice> filter) throws ScanException {
+		setRowFilter(findColumn(columnLabel), filter);
+	}
+
+	/**
+	 * Values of the column at `columnIndex` are deduplicated through a bounded table of `capacity` canonical strings
+	 * (for low-cardinality columns like a country or a currency code).
+	 * When the column turns out to have many more distinct values, the table is evicted and finally disabled.
+	 * A `capacity` of 0 disables interning for this column.
+	 * @param columnIndex the first column is 1, the second is 2, ...
+	 */
+	public void intern(@Nonnegative int columnIndex, @Nonnegative int capacity) {
+		impl.intern(columnIndex, capacity);
+	}
+	/** See {@link #intern(int, int)} (headers must have been scanned or set). */
+	public void intern(String columnLabel, @Nonnegative int capacity) throws ScanException {
+		intern(findColumn(columnLabel), capacity);
+	}
+
+	/**
+	 * When `lazy` is true, fields are not decoded while scanning a row but only on first access by a getter
+	 * (numbers are decoded without creating a {@code String}): their positions in the scanner buffer are recorded
+	 * and the buffer is not compacted while the row is current, so a row must fit in the scanner buffer (64K chars).
+	 * The default is false.
+	 * @throws IllegalStateException if this reader has been created on top of a byte scanner.
+	 */
+	public void setLazy(boolean lazy) {
+		if (!(impl instanceof CsvScanner)) {
+			throw new IllegalStateException("Lazy mode is not supported by a byte scanner");
+		}
+		final CsvScanner s = (CsvScanner) impl;
+		if (this.lazy && !lazy) { // current row is decoded before its data is released
+			for (int j = 0; j < n; j++) {
+				value(j);
+			}
+			s.unmark();
+		} else if (lazy && offsets == null) {
+			offsets = new int[2 * row.length];
+			slice = new CharSlice();
+		}
+		s.setViewOnly(lazy);
+		this.lazy = lazy;
+	}
+
+	/** Trims spaces before decoding integers (see {@link #getInt}, ...). The default is false. */
+	public void setTrimNumbers(boolean trimNumbers) {
+		this.trimNumbers = trimNumbers;
+	}
+
 	/** Treats empty value as `null` value */
 	public void setEmptyIsNull(boolean emptyIsNull) {
 		this.emptyIsNull = emptyIsNull;
@@ -335,12 +713,33 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 	 * @see java.sql.ResultSet#wasNull
 	 */
 	public boolean wasNull() {
-		return emptyIsNull ? wasNull : false;
+		return wasNull;
 	}
 
-	/** Sets the component used by {@link #getObject} to transform text to object. */
+	/** Sets the component used by {@link #getObject} to transform text to object when there is no {@link Converter} for a type. */
 	public void setUnmarshaler(@Nullable Unmarshaler unmarshaler) {
 		this.unmarshaler = unmarshaler;
+		converterTypes = null;
+		converters = null;
+	}
+
+	/**
+	 * Registers the converter used by {@link #getObject} for `type` (instead of the built-in one if any).
+	 * A `null` converter unregisters the current one.
+	 */
+	public <T> void setConverter(@Nonnull Class<T> type, @Nullable Converter<? extends T> converter) {
+		if (converter == null) {
+			if (customConverters != null) {
+				customConverters.remove(type);
+			}
+		} else {
+			if (customConverters == null) {
+				customConverters = new HashMap<>();
+			}
+			customConverters.put(type, converter);
+		}
+		converterTypes = null;
+		converters = null;
 	}
 
 	@Override
@@ -407,6 +806,7 @@ public class CsvReader implements Closeable, Iterable<String[]> {
 
 	/**
 	 * @return a sequential {@code Stream} over the elements in this reader.
+	 * @see ParallelCsvReader for parallel parsing of a file.
 	 */
 	@Nonnull
 	public Stream<String[]> stream() {
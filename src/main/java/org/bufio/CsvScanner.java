@@ -26,7 +26,23 @@ import java.util.NoSuchElementException;
  * }
  * }</pre>
  */
-public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<String> {
+public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<String>, FieldScanner {
+	// view of the most recent field
+	private final CharSlice field = new CharSlice();
+	// when true, fields are not converted to String while scanning
+	private boolean viewOnly;
+	// copy of the most recent field when the buffer must be refilled by peek (view only mode)
+	private char[] detached;
+	// trims spaces before decoding integers
+	private boolean trimNumbers;
+	// decodes empty value as `null` (0)
+	private boolean emptyIsNull;
+	// true when the last number decoded had an empty value
+	private boolean wasNull;
+	// canonical strings by column (see intern)
+	private StringTable[] interned;
+	private final CharSlice lookup = new CharSlice();
+
 	/**
 	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
 	 */
@@ -42,11 +58,24 @@ public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<S
 		super(r, sep, quoted);
 	}
 
+	/**
+	 * Returns a new CSV scanner to read from `r` with the specified tokenization `engine`.
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public CsvScanner(@WillCloseWhenClosed @Nonnull Reader r, char sep, boolean quoted, @Nonnull CsvEngine engine) {
+		super(r, sep, quoted, engine);
+	}
+
 	@Override
 	protected String newToken(@Nonnull char[] data, @Nonnegative int start, @Nonnegative int end) {
-		if (start == end) {
+		field.set(data, start, end - start);
+		if (viewOnly || start == end) { // in view only mode, the token is just a marker (see value)
 			return "";
 		}
+		final StringTable table = StringTable.get(interned, column());
+		if (table != null) {
+			return table.intern(field);
+		}
 		return new String(data, start, end - start);
 	}
 
@@ -80,11 +109,114 @@ public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<S
 		return i;
 	}
 
-	/** Returns the most recent value generated by a call to scan. */
+	/**
+	 * Fills `batch` with the next rows (at most {@link RowBatch#capacity}), decoding fields directly into its column vectors.
+	 * Returns the number of rows read (see {@link RowBatch#size}).
+	 * At EOF, returns 0.
+	 * <pre>{@code
+	 * CsvScanner s;
+	 * RowBatch batch = new RowBatch(1024, RowBatch.Type.INT, RowBatch.Type.STRING);
+	 * while (s.scanBatch(batch) > 0) {
+	 *   // ...
+	 * }
+	 * }</pre>
+	 * @throws NumberFormatException with the line and column of the field.
+	 */
+	@Nonnegative
+	public int scanBatch(@Nonnull RowBatch batch) throws IOException, NumberFormatException {
+		final boolean pviewOnly = viewOnly;
+		viewOnly = true; // no String
+		try {
+			batch.clear();
+			while (batch.size() < batch.capacity()) {
+				int n = 0;
+				while (scan()) {
+					if (n < batch.columns()) {
+						batch.set(n, field, trimNumbers, fieldLineno());
+					}
+					n++;
+					if (atEndOfRow()) {
+						break;
+					}
+				}
+				if (n == 0) {
+					break;
+				}
+				batch.endRow(n);
+			}
+			return batch.size();
+		} finally {
+			viewOnly = pviewOnly;
+		}
+	}
+
+	/**
+	 * Returns the most recent value generated by a call to scan.
+	 * In {@link #setViewOnly view only} mode, a new {@code String} is created at each call.
+	 */
+	@Override
 	public String value() {
+		if (viewOnly) {
+			final StringTable table = StringTable.get(interned, column());
+			return table == null ? field.toString() : table.intern(field);
+		}
 		return token();
 	}
 
+	/**
+	 * Returns a reusable view of the most recent field generated by a call to scan (without allocation).
+	 * The view is only valid until the next call to scan.
+	 */
+	@Nonnull
+	public CharSlice field() {
+		return field;
+	}
+
+	/** Creates the value of `column` stored at `data[offset, offset + length)` (like {@link #value} does for the current field). */
+	String newValue(@Nonnull char[] data, @Nonnegative int offset, @Nonnegative int length, @Nonnegative int column) {
+		if (length == 0) {
+			return "";
+		}
+		final StringTable table = StringTable.get(interned, column);
+		if (table != null) {
+			lookup.set(data, offset, length);
+			return table.intern(lookup);
+		}
+		return new String(data, offset, length);
+	}
+
+	/**
+	 * When `viewOnly` is true, fields are not converted to {@code String} while scanning:
+	 * they should be accessed through {@link #field} and only materialized by {@link #value} when needed.
+	 * The default is false.
+	 */
+	public void setViewOnly(boolean viewOnly) {
+		this.viewOnly = viewOnly;
+	}
+
+	/**
+	 * Values of `column` (first column is 1) are deduplicated through a table of at most `capacity` canonical strings
+	 * (looked up by content, a new string is only created for unseen values).
+	 * When the column turns out to have many more distinct values, the table is evicted and finally disabled.
+	 * A `capacity` of 0 disables interning for this column.
+	 */
+	@Override
+	public void intern(@Nonnegative int column, @Nonnegative int capacity) {
+		interned = StringTable.set(interned, column, capacity);
+	}
+
+	/** The most recent field stays valid (it is copied when the buffer has to be refilled). */
+	@Override
+	public char peek() throws IOException {
+		if (viewOnly && length() == 0 && !atEndOfFile()) {
+			if (detached == null || detached.length < field.length()) {
+				detached = new char[Math.max(field.length(), 64)];
+			}
+			field.detach(detached);
+		}
+		return super.peek();
+	}
+
 	/** Reads text until next separator or eol/eof. */
 	@Nullable
 	public String scanText() throws IOException {
@@ -93,21 +225,60 @@ public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<S
 		}
 		return null;
 	}
-	/** Reads double until next separator or eol/eof. */
+	/**
+	 * Reads double until next separator or eol/eof (without allocation for simple decimal numbers).
+	 * Like {@link Double#parseDouble}, leading and trailing spaces are ignored.
+	 * @throws NumberFormatException with the line and column of the field.
+	 */
 	public double scanDouble() throws IOException, NumberFormatException {
-		return Double.parseDouble(scanText());
+		final CharSlice f = scanNumber();
+		return wasNull ? 0 : NumberDecoder.decodeDouble(f, fieldLineno(), column());
 	}
-	/** Reads float until next separator or eol/eof. */
+	/**
+	 * Reads float until next separator or eol/eof (without allocation for simple decimal numbers).
+	 * Like {@link Float#parseFloat}, leading and trailing spaces are ignored.
+	 * @throws NumberFormatException with the line and column of the field.
+	 */
 	public float scanFloat() throws IOException, NumberFormatException {
-		return Float.parseFloat(scanText());
+		final CharSlice f = scanNumber();
+		return wasNull ? 0 : NumberDecoder.decodeFloat(f, fieldLineno(), column());
 	}
-	/** Reads int until next separator or eol/eof. */
+	/**
+	 * Reads int until next separator or eol/eof (without allocation).
+	 * @throws NumberFormatException with the line and column of the field.
+	 */
 	public int scanInt() throws IOException, NumberFormatException {
-		return Integer.parseInt(scanText());
+		final CharSlice f = scanNumber();
+		return wasNull ? 0 : (int) NumberDecoder.decodeLong(f, trimNumbers, Integer.MIN_VALUE, Integer.MAX_VALUE, "int", fieldLineno(), column());
 	}
-	/** Reads long until next separator or eol/eof. */
+	/**
+	 * Reads long until next separator or eol/eof (without allocation).
+	 * @throws NumberFormatException with the line and column of the field.
+	 */
 	public long scanLong() throws IOException, NumberFormatException {
-		return Long.parseLong(scanText());
+		final CharSlice f = scanNumber();
+		return wasNull ? 0 : NumberDecoder.decodeLong(f, trimNumbers, Long.MIN_VALUE, Long.MAX_VALUE, "long", fieldLineno(), column());
+	}
+
+	private CharSlice scanNumber() throws IOException {
+		if (!scan()) {
+			throw new NumberFormatException("null");
+		}
+		wasNull = emptyIsNull && field.length() == 0;
+		return field;
+	}
+
+	/** Trims spaces before decoding integers (see {@link #scanInt} and {@link #scanLong}). The default is false. */
+	public void setTrimNumbers(boolean trimNumbers) {
+		this.trimNumbers = trimNumbers;
+	}
+	/** Decodes empty value as `null` (0) instead of failing (see {@link #scanInt}, ... and {@link #wasNull}). */
+	public void setEmptyIsNull(boolean emptyIsNull) {
+		this.emptyIsNull = emptyIsNull;
+	}
+	/** Reports whether the last number read had an empty value (see {@link #setEmptyIsNull}). */
+	public boolean wasNull() {
+		return wasNull;
 	}
 
 	/** Reads bool until next separator or eol/eof. */
@@ -171,7 +342,7 @@ public class CsvScanner extends AbstractCsvScanner<String> implements Iterable<S
 					throw new NoSuchElementException();
 				}
 				state = CsvScanner.this.atEndOfRow() ? State.DONE : State.NOT_READY;
-				return CsvScanner.this.token();
+				return CsvScanner.this.value();
 			}
 		};
 	}
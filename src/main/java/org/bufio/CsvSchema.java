@@ -0,0 +1,133 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typed description of the columns of a CSV file (name, type, nullability and null tokens),
+ * bound once to the headers of a {@link CsvReader} (see {@link CsvReader#setSchema}),
+ * which resolves the column names to indexes used as handles for row access.
+ * <pre>{@code
+ * CsvSchema schema = new CsvSchema()
+ *   .add("id", CsvSchema.Type.LONG)
+ *   .add("amount", CsvSchema.Type.DOUBLE, true, "", "NA");
+ * r.scanHeaders(false);
+ * int[] handles = r.setSchema(schema);
+ * while (r.next()) {
+ *   long id = r.getLong(handles[0]);
+ *   double amount = r.getDouble(handles[1]);
+ *   if (r.wasNull()) {
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ */
+public final class CsvSchema {
+	/** Column types (see {@link CsvReader#getValue}). */
+	public enum Type {
+		STRING, INT, LONG, FLOAT, DOUBLE,
+	}
+
+	/** Column definition. */
+	public static final class Column {
+		private final String name;
+		private final Type type;
+		private final boolean nullable;
+		private final String[] nullTokens;
+
+		private Column(String name, Type type, boolean nullable, String[] nullTokens) {
+			this.name = name;
+			this.type = type;
+			this.nullable = nullable;
+			this.nullTokens = nullTokens;
+		}
+
+		@Nonnull
+		public String getName() {
+			return name;
+		}
+
+		@Nonnull
+		public Type getType() {
+			return type;
+		}
+
+		public boolean isNullable() {
+			return nullable;
+		}
+
+		/** Values representing `null` (like "" or "NA"). */
+		@Nonnull
+		public List<String> getNullTokens() {
+			return Collections.unmodifiableList(Arrays.asList(nullTokens));
+		}
+
+		/** Reports whether `value` is a null token (without allocation). */
+		boolean isNull(@Nonnull CharSequence value) {
+			for (String nullToken : nullTokens) {
+				if (nullToken.length() == value.length() && nullToken.contentEquals(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return name + ' ' + type + (nullable ? "" : " NOT NULL");
+		}
+	}
+
+	private final List<Column> columns = new ArrayList<>();
+
+	/** Adds a non-nullable column. */
+	@Nonnull
+	public CsvSchema add(@Nonnull String name, @Nonnull Type type) {
+		return add(name, type, false);
+	}
+
+	/**
+	 * Adds a column.
+	 * @param nullTokens values representing `null` (an empty value is `null` only if "" is specified
+	 *                   or {@link CsvReader#setEmptyIsNull} is set).
+	 */
+	@Nonnull
+	public CsvSchema add(@Nonnull String name, @Nonnull Type type, boolean nullable, @Nonnull String... nullTokens) {
+		if (name == null || type == null) {
+			throw new IllegalArgumentException("null name or type");
+		}
+		for (Column column : columns) {
+			if (column.name.equals(name)) {
+				throw new IllegalArgumentException(String.format("duplicate column: '%s'", name));
+			}
+		}
+		columns.add(new Column(name, type, nullable, nullTokens.clone()));
+		return this;
+	}
+
+	/** Columns in declaration order (the handles returned by {@link CsvReader#setSchema} are in the same order). */
+	@Nonnull
+	public List<Column> columns() {
+		return Collections.unmodifiableList(columns);
+	}
+
+	/** Returns the column at `i` (declaration order, the first column is 0). */
+	@Nonnull
+	public Column column(@Nonnegative int i) {
+		return columns.get(i);
+	}
+
+	@Nonnegative
+	public int size() {
+		return columns.size();
+	}
+
+	@Override
+	public String toString() {
+		return columns.toString();
+	}
+}
@@ -16,6 +16,8 @@ import java.sql.SQLException;
  * (compatible with rfc4180 and extended with the option of having a separator other than ",").
  * Successive calls to the `write` method will automatically insert the separator.
  * The `endOfRow` method tells when a line break is inserted.
+ * Output is buffered: rows are only written to the underlying writer when the buffer is full,
+ * on {@link #flush} or on {@link #close}.
  * <pre>{@code
  * CsvWriter w;
  * CsvReader r;
@@ -26,7 +28,8 @@ import java.sql.SQLException;
  * }</pre>
  */
 public class CsvWriter implements Closeable, Flushable {
-	private final Writer w;
+	// null when output is encoded by a subclass (see ByteCsvWriter)
+	private Writer w;
 	// values separator
 	private final char sep;
 	// specify if values should be quoted (when they contain a separator or a newline)
@@ -39,7 +42,13 @@ public class CsvWriter implements Closeable, Flushable {
 
 	// true at start of row
 	private boolean sor;
+	// scratch buffer
 	private char[] buf;
+	// output buffer: the underlying writer is only called when it is full or flushed
+	private final char[] out;
+	private int pos;
+	// true when sep may appear in a formatted number or boolean (which must then be checked/quoted)
+	private final boolean numericSep;
 
 	/** Creates a "standard" CSV writer (separator is comma and quoted mode active) */
 	public CsvWriter(@WillCloseWhenClosed @Nonnull Writer w) {
@@ -48,14 +57,29 @@ public class CsvWriter implements Closeable, Flushable {
 
 	/** Returns a new CSV writer */
 	public CsvWriter(@WillCloseWhenClosed @Nonnull Writer w, char sep, boolean quoted) {
+		this(sep, quoted);
 		if (w == null) {
 			throw new IllegalArgumentException("null writer");
 		}
 		this.w = w;
+	}
+
+	// Same settings as `settings` (see ParallelCsvWriter)
+	CsvWriter(@Nonnull CsvWriter settings, @Nonnull Writer w) {
+		this(w, settings.sep, settings.quoted);
+		useCRLF = settings.useCRLF;
+		comment = settings.comment;
+		marshaler = settings.marshaler;
+	}
+
+	// subclasses must override writeOut, flushOut and closeOut
+	CsvWriter(char sep, boolean quoted) {
 		this.sep = sep;
 		this.quoted = quoted;
 		sor = true;
 		buf = new char[4096];
+		out = new char[8192];
+		numericSep = sep >= '0' && sep <= '9' || sep == '.' || sep == '-' || Character.isLetter(sep);
 	}
 
 	// Exports result to CSV.
@@ -106,7 +130,7 @@ public class CsvWriter implements Closeable, Flushable {
 		endOfRow();
 	}
 
-	// Value's type is used to encode value to text.
+	// Value's type is used to encode value to text (Double and Float with toString, see writeDouble).
 	public void writeValue(@Nullable Object value) throws IOException {
 		if (marshaler != null) {
 			write(marshaler.marshal(value));
@@ -114,10 +138,14 @@ public class CsvWriter implements Closeable, Flushable {
 			write(buf, 0, 0);
 		} else if (value instanceof String) {
 			write((String) value);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			writeInt(((Number) value).intValue());
+		} else if (value instanceof Long) {
+			writeLong((Long) value);
 		} else if (value instanceof Number) {
 			write(value.toString());
 		} else if (value instanceof Boolean) {
-			write(value.toString()); // TODO parameterizable ("true"|"false")
+			writeBoolean((Boolean) value); // TODO parameterizable ("true"|"false")
 		} else if (value instanceof Character) {
 			buf[0] = (Character)value;
 			write(buf, 0, 1);
@@ -128,6 +156,77 @@ public class CsvWriter implements Closeable, Flushable {
 		}
 	}
 
+	/** Formats `value` directly into the output buffer (like {@link Integer#toString(int)}). */
+	public void writeInt(int value) throws IOException {
+		if (marshaler != null || numericSep) {
+			writeSlow(value);
+			return;
+		}
+		startNumber();
+		pos = NumberEncoder.encodeInt(value, out, pos);
+	}
+
+	/** Formats `value` directly into the output buffer (like {@link Long#toString(long)}). */
+	public void writeLong(long value) throws IOException {
+		if (marshaler != null || numericSep) {
+			writeSlow(value);
+			return;
+		}
+		startNumber();
+		pos = NumberEncoder.encodeLong(value, out, pos);
+	}
+
+	/**
+	 * Formats `value` directly into the output buffer with the shortest decimal which rounds to `value`
+	 * (like {@link Double#toString(double)} since JDK 19).
+	 * Before JDK 19, the text may differ from {@code Double.toString} which sometimes prints more digits
+	 * (2.0E23 instead of 1.9999999999999998E23): {@link #writeValue} keeps {@code toString}.
+	 */
+	public void writeDouble(double value) throws IOException {
+		if (marshaler != null || numericSep) {
+			writeSlow(value);
+			return;
+		}
+		startNumber();
+		pos = NumberEncoder.encodeDouble(value, out, pos);
+	}
+
+	/**
+	 * Formats `value` directly into the output buffer with the shortest decimal which rounds to `value`
+	 * (like {@link Float#toString(float)} since JDK 19, see {@link #writeDouble}).
+	 */
+	public void writeFloat(float value) throws IOException {
+		if (marshaler != null || numericSep) {
+			writeSlow(value);
+			return;
+		}
+		startNumber();
+		pos = NumberEncoder.encodeFloat(value, out, pos);
+	}
+
+	/** Writes "true" or "false". */
+	public void writeBoolean(boolean value) throws IOException {
+		if (marshaler != null || numericSep) {
+			writeSlow(value);
+			return;
+		}
+		startNumber();
+		pos = NumberEncoder.encodeBoolean(value, out, pos);
+	}
+
+	// Boxes `value` when it has to be marshaled or checked/quoted.
+	private void writeSlow(Object value) throws IOException {
+		write(marshaler != null ? marshaler.marshal(value) : value.toString());
+	}
+
+	// Starts a field which does not need quoting with room for a number.
+	private void startNumber() throws IOException {
+		if (out.length - pos <= NumberEncoder.MAX_LENGTH) {
+			flushBuffer();
+		}
+		startField();
+	}
+
 	/** Ensures that value is quoted when needed. */
 	public void write(@Nonnull char[] value) throws IOException {
 		write(value, 0, value.length);
@@ -139,54 +238,161 @@ public class CsvWriter implements Closeable, Flushable {
 	}
 
 	public void write(@Nonnull String str, int off, int len) throws IOException {
-		if (len > buf.length) { // FIXME
+		if (!quoted || indexOfSpecial(str, off, off + len) < 0) {
+			// copied directly into the output buffer
+			if (!quoted) {
+				checkUnquoted(str, off, off + len);
+			}
+			startField();
+			append(str, off, off + len);
+			return;
+		}
+		if (len > buf.length) {
 			buf = new char[len];
 		}
-		str.getChars(off, len, buf, 0);
+		str.getChars(off, off + len, buf, 0);
 		write(buf, 0, len);
 	}
 
 	/** Ensures that value is quoted when needed. */
 	public void write(char[] data, int start, int end) throws IOException {
-		if (!sor) {
-			w.append(sep);
-		}
-		// In quoted mode, value is enclosed between quotes if it contains sep, quote or \n.
 		if (quoted) {
+			// In quoted mode, value is enclosed between quotes if it contains sep, quote or \n.
+			int i = indexOfSpecial(data, start, end);
+			startField();
+			if (i < 0) {
+				append(data, start, end);
+				return;
+			}
+			append('"');
 			int last = start;
-			for (int i = start; i < end; i++) {
-				char c = data[i];
-				if (c != '"' && c != '\r' && c != '\n' && c != sep) {
-					continue;
-				}
-				if (last == start) {
-					w.write('"');
-				}
-				w.write(data, last, i + 1 - last);
+			for (; i < end; i++) {
+				final char c = data[i];
 				if (c == '"') {
-					w.write('"'); // escaped with another double quote
+					append(data, last, i + 1);
+					append('"'); // escaped with another double quote
+					last = i + 1;
 				}
-				last = i + 1;
-			}
-			w.write(data, last, end - last);
-			if (last != start) {
-				w.write('"');
 			}
+			append(data, last, end);
+			append('"');
 		} else {
-			// check that value does not contain sep or \n
-			for (int i = start; i < end; i++) {
-				char c = data[i];
-				if (c == '\n') {
-					throw new IOException("newline character in value");
-				} else if (c == sep) {
-					throw new IOException("separator in value");
-				}
+			checkUnquoted(data, start, end);
+			startField();
+			append(data, start, end);
+		}
+	}
+
+	// check that value does not contain sep or \n
+	private void checkUnquoted(CharSequence value, int start, int end) throws IOException {
+		for (int i = start; i < end; i++) {
+			checkUnquoted(value.charAt(i));
+		}
+	}
+	private void checkUnquoted(char[] data, int start, int end) throws IOException {
+		for (int i = start; i < end; i++) {
+			checkUnquoted(data[i]);
+		}
+	}
+	private void checkUnquoted(char c) throws IOException {
+		if (c == '\n') {
+			throw new IOException("newline character in value");
+		} else if (c == sep) {
+			throw new IOException("separator in value");
+		}
+	}
+
+	// Returns the index of the first char which must be quoted or -1.
+	private int indexOfSpecial(String s, int start, int end) {
+		for (int i = start; i < end; i++) {
+			final char c = s.charAt(i);
+			if (c <= '"' && (c == '"' || c == '\r' || c == '\n') || c == sep) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	private int indexOfSpecial(char[] data, int start, int end) {
+		for (int i = start; i < end; i++) {
+			final char c = data[i];
+			// quote, \r and \n are all <= '"'
+			if (c <= '"' && (c == '"' || c == '\r' || c == '\n') || c == sep) {
+				return i;
 			}
-			w.write(data, start, end - start);
+		}
+		return -1;
+	}
+
+	private void startField() throws IOException {
+		if (!sor) {
+			append(sep);
 		}
 		sor = false;
 	}
 
+	private void append(char c) throws IOException {
+		if (pos == out.length) {
+			flushBuffer();
+		}
+		out[pos++] = c;
+	}
+
+	private void append(char[] data, int start, int end) throws IOException {
+		final int len = end - start;
+		if (len > out.length - pos) {
+			flushBuffer();
+			if (len > out.length) {
+				writeOut(data, start, len); // too large to be buffered
+				return;
+			}
+		}
+		System.arraycopy(data, start, out, pos, len);
+		pos += len;
+	}
+
+	private void append(String s, int start, int end) throws IOException {
+		final int len = end - start;
+		if (len > out.length - pos) {
+			flushBuffer();
+			if (len > out.length) {
+				writeOut(s, start, len); // too large to be buffered
+				return;
+			}
+		}
+		s.getChars(start, end, out, pos);
+		pos += len;
+	}
+
+	// Appends rows already formatted with the same settings (see ParallelCsvWriter).
+	void appendRows(char[] data, int off, int len) throws IOException {
+		if (!sor) {
+			throw new IllegalStateException("not at start of row");
+		}
+		append(data, off, off + len);
+	}
+
+	// Writes the buffered content to the underlying writer.
+	void flushBuffer() throws IOException {
+		if (pos > 0) {
+			writeOut(out, 0, pos);
+			pos = 0;
+		}
+	}
+
+	// Writes `len` chars to the underlying output.
+	void writeOut(char[] data, int off, int len) throws IOException {
+		w.write(data, off, len);
+	}
+	void writeOut(String s, int off, int len) throws IOException {
+		w.write(s, off, len);
+	}
+	void flushOut() throws IOException {
+		w.flush();
+	}
+	void closeOut() throws IOException {
+		w.close();
+	}
+
 	/** Tells when a line break must be inserted.
 	 * <pre>{@code
 	 * CsvWriter w;
@@ -202,11 +408,29 @@ public class CsvWriter implements Closeable, Flushable {
 	 * }</pre>
 	 */
 	public void endOfRow() throws IOException {
+		if (out.length - pos < 2) {
+			flushBuffer();
+		}
 		if (useCRLF) {
-			w.write('\r');
+			out[pos++] = '\r';
 		}
-		w.write('\n');
+		out[pos++] = '\n';
 		sor = true;
+		rowEnded();
+	}
+
+	// Called after each row terminator (see BlockGzipCsvWriter).
+	void rowEnded() throws IOException {
+	}
+
+	// True when no field has been written since the last row terminator.
+	boolean atStartOfRow() {
+		return sor;
+	}
+
+	// Number of chars in the output buffer.
+	int buffered() {
+		return pos;
 	}
 
 	/** Use \r\n as the line terminator. */
@@ -223,13 +447,20 @@ public class CsvWriter implements Closeable, Flushable {
 		this.marshaler = marshaler;
 	}
 
+	/** Writes the buffered rows to the underlying writer and flushes it. */
 	@Override
 	public void flush() throws IOException {
-		w.flush();
+		flushBuffer();
+		flushOut();
 	}
 
+	/** Writes the buffered rows to the underlying writer and closes it. */
 	@Override
 	public void close() throws IOException {
-		w.close();
+		try {
+			flushBuffer();
+		} finally {
+			closeOut();
+		}
 	}
 }
@@ -0,0 +1,297 @@
+package org.bufio;
+
+import javax.annotation.Nonnull;
+import java.math.BigInteger;
+
+/**
+ * Exact decimal to binary floating-point conversion of simple decimal numbers
+ * (`[+-]digits[.digits][(e|E)[+-]digits]`, surrounding whitespace being ignored like {@link Double#parseDouble}):
+ * Clinger's fast path and Eisel-Lemire algorithm (port of Go strconv/eisel_lemire.go).
+ * Results are bit for bit equal to {@link Double#parseDouble}/{@link Float#parseFloat};
+ * when the algorithms cannot decide (or for other forms like hexadecimal, NaN or Infinity), NaN is returned
+ * and the caller must fall back to the JDK.
+ */
+final class FastDoubleParser {
+	private static final double[] POW10 = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+	};
+	private static final float[] FLOAT_POW10 = {
+			1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f,
+	};
+	// Number of significant digits kept in the mantissa
+	private static final int MAX_MANTISSA_DIGITS = 19;
+
+	private static final int MIN_EXP10 = -348;
+	private static final int MAX_EXP10 = 347;
+	// 128-bit mantissa approximations (rounded down) of the powers of 10 in [MIN_EXP10, MAX_EXP10]:
+	// POWERS_OF_TEN[2 * i] is the high part, POWERS_OF_TEN[2 * i + 1] the low part.
+	private static final long[] POWERS_OF_TEN = powersOfTen();
+
+	private FastDoubleParser() {
+	}
+
+	private static long[] powersOfTen() {
+		final long[] table = new long[2 * (MAX_EXP10 - MIN_EXP10 + 1)];
+		final BigInteger five = BigInteger.valueOf(5);
+		final BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+		for (int q = MIN_EXP10; q <= MAX_EXP10; q++) {
+			BigInteger m;
+			if (q >= 0) { // 10^q = 5^q * 2^q, only the mantissa of 5^q matters
+				m = five.pow(q);
+				m = m.bitLength() > 128 ? m.shiftRight(m.bitLength() - 128) : m.shiftLeft(128 - m.bitLength());
+			} else { // floor(2^b / 5^-q) with b such that the result has 128 bits
+				final BigInteger p = five.pow(-q);
+				m = BigInteger.ONE.shiftLeft(127 + p.bitLength()).divide(p);
+			}
+			final int i = 2 * (q - MIN_EXP10);
+			table[i] = m.shiftRight(64).longValue();
+			table[i + 1] = m.and(mask).longValue();
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the double (or the float when `single`) represented by `s` or NaN when the caller must fall back to the JDK.
+	 */
+	static double parse(@Nonnull CharSequence s, boolean single) {
+		int i = 0, end = s.length();
+		while (i < end && s.charAt(i) <= ' ') { // like String.trim
+			i++;
+		}
+		while (end > i && s.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		boolean negative = false;
+		if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+			negative = s.charAt(i) == '-';
+			i++;
+		}
+		// digits
+		long mantissa = 0;
+		int nd = 0; // number of significant digits
+		int ndMant = 0; // number of digits in mantissa
+		int dp = 0; // position of decimal point
+		boolean sawDot = false, sawDigits = false, trunc = false;
+		for (; i < end; i++) {
+			final char c = s.charAt(i);
+			if (c == '.') {
+				if (sawDot) {
+					return Double.NaN;
+				}
+				sawDot = true;
+				dp = nd;
+			} else if (c >= '0' && c <= '9') {
+				sawDigits = true;
+				if (c == '0' && nd == 0) { // ignore leading zeros
+					dp--;
+					continue;
+				}
+				nd++;
+				if (ndMant < MAX_MANTISSA_DIGITS) {
+					mantissa = mantissa * 10 + (c - '0');
+					ndMant++;
+				} else if (c != '0') {
+					trunc = true;
+				}
+			} else {
+				break;
+			}
+		}
+		if (!sawDigits) {
+			return Double.NaN;
+		}
+		if (!sawDot) {
+			dp = nd;
+		}
+		// exponent
+		if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			boolean negativeExp = false;
+			if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+				negativeExp = s.charAt(i) == '-';
+				i++;
+			}
+			if (i == end) {
+				return Double.NaN;
+			}
+			int e = 0;
+			for (; i < end; i++) {
+				final int d = s.charAt(i) - '0';
+				if (d < 0 || d > 9) {
+					return Double.NaN;
+				}
+				if (e < 10000) {
+					e = e * 10 + d;
+				}
+			}
+			dp += negativeExp ? -e : e;
+		}
+		if (i != end) {
+			return Double.NaN;
+		}
+		if (mantissa == 0) {
+			return negative ? -0.0 : 0.0;
+		}
+		final int exp10 = dp - ndMant;
+		return single ? parseFloat(mantissa, exp10, negative, trunc) : parseDouble(mantissa, exp10, negative, trunc);
+	}
+
+	private static double parseDouble(long mantissa, int exp10, boolean negative, boolean trunc) {
+		if (!trunc && mantissa >= 0 && mantissa <= 1L << 53 && exp10 >= -22 && exp10 <= 22) { // Clinger's fast path
+			final double v = exp10 < 0 ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+			return negative ? -v : v;
+		}
+		final long bits = eiselLemire64(mantissa, exp10, negative);
+		if (bits == -1) {
+			return Double.NaN;
+		}
+		// Even if the mantissa was truncated, the result may be correct:
+		// it is when the mantissa + 1 gives the same result.
+		if (trunc && eiselLemire64(mantissa + 1, exp10, negative) != bits) {
+			return Double.NaN;
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	private static double parseFloat(long mantissa, int exp10, boolean negative, boolean trunc) {
+		if (!trunc && mantissa >= 0 && mantissa <= 1L << 24 && exp10 >= -10 && exp10 <= 10) { // Clinger's fast path
+			final float v = exp10 < 0 ? mantissa / FLOAT_POW10[-exp10] : mantissa * FLOAT_POW10[exp10];
+			return negative ? -v : v;
+		}
+		final long bits = eiselLemire32(mantissa, exp10, negative);
+		if (bits == -1) {
+			return Double.NaN;
+		}
+		if (trunc && eiselLemire32(mantissa + 1, exp10, negative) != bits) {
+			return Double.NaN;
+		}
+		return Float.intBitsToFloat((int) bits);
+	}
+
+	/**
+	 * Returns the bits of the double nearest to `(negative ? -1 : 1) * mantissa * 10^exp10`
+	 * or -1 when the algorithm cannot decide.
+	 * `mantissa` is unsigned and not 0.
+	 */
+	static long eiselLemire64(long mantissa, int exp10, boolean negative) {
+		if (exp10 < MIN_EXP10 || MAX_EXP10 < exp10) {
+			return -1;
+		}
+		// Normalization.
+		final int clz = Long.numberOfLeadingZeros(mantissa);
+		mantissa <<= clz;
+		long retExp2 = ((217706 * exp10) >> 16) + 64 + 1023 - clz;
+		// Multiplication.
+		final int i = 2 * (exp10 - MIN_EXP10);
+		long xHi = unsignedMultiplyHigh(mantissa, POWERS_OF_TEN[i]);
+		long xLo = mantissa * POWERS_OF_TEN[i];
+		// Wider Approximation.
+		if ((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + mantissa, mantissa) < 0) {
+			final long yHi = unsignedMultiplyHigh(mantissa, POWERS_OF_TEN[i + 1]);
+			final long yLo = mantissa * POWERS_OF_TEN[i + 1];
+			long mergedHi = xHi;
+			final long mergedLo = xLo + yHi;
+			if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+				mergedHi++;
+			}
+			if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + mantissa, mantissa) < 0) {
+				return -1;
+			}
+			xHi = mergedHi;
+			xLo = mergedLo;
+		}
+		// Shifting to 54 Bits.
+		final long msb = xHi >>> 63;
+		long retMantissa = xHi >>> (msb + 9);
+		retExp2 -= 1 ^ msb;
+		// Half-way Ambiguity.
+		if (xLo == 0 && (xHi & 0x1FF) == 0 && (retMantissa & 3) == 1) {
+			return -1;
+		}
+		// From 54 to 53 Bits.
+		retMantissa += retMantissa & 1;
+		retMantissa >>>= 1;
+		if (retMantissa >>> 53 > 0) {
+			retMantissa >>>= 1;
+			retExp2 += 1;
+		}
+		// Zero or underflow means subnormal, 0x7FF or above means Inf/NaN.
+		if (retExp2 <= 0 || retExp2 >= 0x7FF) {
+			return -1;
+		}
+		long retBits = retExp2 << 52 | retMantissa & 0x000FFFFFFFFFFFFFL;
+		if (negative) {
+			retBits |= 0x8000000000000000L;
+		}
+		return retBits;
+	}
+
+	/**
+	 * Returns the bits of the float nearest to `(negative ? -1 : 1) * mantissa * 10^exp10`
+	 * or -1 when the algorithm cannot decide.
+	 * `mantissa` is unsigned and not 0.
+	 */
+	static long eiselLemire32(long mantissa, int exp10, boolean negative) {
+		if (exp10 < MIN_EXP10 || MAX_EXP10 < exp10) {
+			return -1;
+		}
+		// Normalization.
+		final int clz = Long.numberOfLeadingZeros(mantissa);
+		mantissa <<= clz;
+		long retExp2 = ((217706 * exp10) >> 16) + 64 + 127 - clz;
+		// Multiplication.
+		final int i = 2 * (exp10 - MIN_EXP10);
+		long xHi = unsignedMultiplyHigh(mantissa, POWERS_OF_TEN[i]);
+		long xLo = mantissa * POWERS_OF_TEN[i];
+		// Wider Approximation.
+		if ((xHi & 0x3FFFFFFFFFL) == 0x3FFFFFFFFFL && Long.compareUnsigned(xLo + mantissa, mantissa) < 0) {
+			final long yHi = unsignedMultiplyHigh(mantissa, POWERS_OF_TEN[i + 1]);
+			final long yLo = mantissa * POWERS_OF_TEN[i + 1];
+			long mergedHi = xHi;
+			final long mergedLo = xLo + yHi;
+			if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+				mergedHi++;
+			}
+			if ((mergedHi & 0x3FFFFFFFFFL) == 0x3FFFFFFFFFL && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + mantissa, mantissa) < 0) {
+				return -1;
+			}
+			xHi = mergedHi;
+			xLo = mergedLo;
+		}
+		// Shifting to 25 Bits.
+		final long msb = xHi >>> 63;
+		long retMantissa = xHi >>> (msb + 38);
+		retExp2 -= 1 ^ msb;
+		// Half-way Ambiguity.
+		if (xLo == 0 && (xHi & 0x3FFFFFFFFFL) == 0 && (retMantissa & 3) == 1) {
+			return -1;
+		}
+		// From 25 to 24 Bits.
+		retMantissa += retMantissa & 1;
+		retMantissa >>>= 1;
+		if (retMantissa >>> 24 > 0) {
+			retMantissa >>>= 1;
+			retExp2 += 1;
+		}
+		// Zero or underflow means subnormal, 0xFF or above means Inf/NaN.
+		if (retExp2 <= 0 || retExp2 >= 0xFF) {
+			return -1;
+		}
+		long retBits = retExp2 << 23 | retMantissa & 0x007FFFFFL;
+		if (negative) {
+			retBits |= 0x80000000L;
+		}
+		return retBits;
+	}
+
+	// High 64 bits of the unsigned 128-bit product (Math.unsignedMultiplyHigh is not available in Java 8).
+	static long unsignedMultiplyHigh(long x, long y) {
+		final long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+		final long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+		final long w0 = x0 * y0;
+		final long t = x1 * y0 + (w0 >>> 32);
+		final long w1 = (t & 0xFFFFFFFFL) + x0 * y1;
+		return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+	}
+}
@@ -0,0 +1,30 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Fields scanner used by {@link CsvReader} (implemented by {@link CsvScanner} and {@link ByteCsvScanner}).
+ */
+interface FieldScanner extends Closeable {
+	boolean scan() throws IOException;
+	/** Returns the most recent value generated by a call to scan. */
+	String value() throws IOException;
+	boolean atEndOfRow();
+	boolean atEndOfFile();
+	@Nonnegative
+	int lineno();
+	@Nonnegative
+	int fieldLineno();
+	@Nonnegative
+	int column();
+	void skipRows(@Nonnegative int n) throws IOException;
+	@Nonnegative
+	long countRows() throws IOException;
+	char setCommentMarker(char comment);
+	void setTrim(boolean trim);
+	void setSkipEmptyLines(boolean skipEmptyLines);
+	void setProjection(int... columns);
+	void intern(@Nonnegative int column, @Nonnegative int capacity);
+}
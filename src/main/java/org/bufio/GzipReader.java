@@ -0,0 +1,172 @@
+package org.bufio;
+
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reader of gzip compressed text (single or multi-member) where inflation and charset decoding
+ * are done by a dedicated thread, so that they overlap with the parsing done by the reading thread.
+ * Decoded chars are exchanged through a small ring of recycled buffers:
+ * the reading thread only waits when no buffer has been filled yet.
+ * <pre>{@code
+ * CsvReader r = new CsvReader(new GzipReader(Files.newInputStream(path)));
+ * while (r.next()) {
+ *   // ...
+ * }
+ * r.close();
+ * }</pre>
+ * This reader must be closed to stop the background thread before the end of the input.
+ */
+public class GzipReader extends Reader {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int BUFFER_COUNT = 4;
+
+	// chars decoded by the background thread
+	private static final class Chunk {
+		private final char[] buf;
+		private int len;
+		private IOException error;
+
+		private Chunk(char[] buf) {
+			this.buf = buf;
+		}
+	}
+
+	// marks the end of input
+	private static final Chunk EOF = new Chunk(new char[0]);
+
+	private final InputStream in;
+	private final Charset charset;
+	private final Thread inflater;
+	// empty buffers (to be filled by the background thread)
+	private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(BUFFER_COUNT);
+	// filled buffers (followed by EOF or an error)
+	private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(BUFFER_COUNT + 1);
+	// buffer being read and position in it
+	private Chunk current;
+	private int pos;
+	private volatile boolean closed;
+
+	/** Decodes the inflated content of `in` as UTF-8. */
+	public GzipReader(@WillCloseWhenClosed @Nonnull InputStream in) {
+		this(in, StandardCharsets.UTF_8);
+	}
+
+	/** Decodes the inflated content of `in` with `charset` (malformed input is replaced). */
+	public GzipReader(@WillCloseWhenClosed @Nonnull InputStream in, @Nonnull Charset charset) {
+		if (in == null) {
+			throw new IllegalArgumentException("null input stream");
+		}
+		this.in = in;
+		this.charset = charset;
+		for (int i = 0; i < BUFFER_COUNT; i++) {
+			free.add(new Chunk(new char[BUFFER_SIZE]));
+		}
+		inflater = new Thread(this::inflate, "gzip-reader");
+		inflater.setDaemon(true);
+		inflater.start();
+	}
+
+	// background thread: fills the free buffers
+	private void inflate() {
+		Chunk last = EOF;
+		try (Reader r = new InputStreamReader(new GZIPInputStream(in, BUFFER_SIZE), charset)) {
+			while (!closed) {
+				final Chunk c = free.take();
+				final char[] buf = c.buf;
+				int len = 0;
+				int n = 0;
+				while (len < buf.length && (n = r.read(buf, len, buf.length - len)) >= 0) {
+					len += n;
+				}
+				if (len > 0) {
+					c.len = len;
+					filled.put(c);
+				}
+				if (n < 0) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			return; // closed
+		} catch (IOException e) {
+			if (closed) {
+				return;
+			}
+			last = new Chunk(EOF.buf);
+			last.error = e;
+		}
+		try {
+			filled.put(last);
+		} catch (InterruptedException e) {
+			// closed
+		}
+	}
+
+	@Override
+	public int read(@Nonnull char[] cbuf, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("reader closed");
+		} else if (len == 0) {
+			return 0;
+		}
+		if ((current == null || pos == current.len) && !next()) {
+			return -1;
+		}
+		final int n = Math.min(len, current.len - pos);
+		System.arraycopy(current.buf, pos, cbuf, off, n);
+		pos += n;
+		return n;
+	}
+
+	// Recycles the current buffer and waits for the next one.
+	private boolean next() throws IOException {
+		if (current != null) {
+			if (current == EOF) {
+				return false;
+			} else if (current.error != null) {
+				throw current.error;
+			}
+			free.add(current);
+		}
+		try {
+			current = filled.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		pos = 0;
+		if (current.error != null) {
+			throw current.error;
+		}
+		return current != EOF;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			in.close(); // unblocks the background thread when it is reading
+		} finally {
+			inflater.interrupt();
+			try {
+				inflater.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Decodes numbers directly from a field (a {@link CharSlice} over the scan buffer or a {@code String})
+ * without allocation on success.
+ * Errors are reported by a {@code NumberFormatException} with the line and column of the field.
+ */
+final class NumberDecoder {
+	private NumberDecoder() {
+	}
+
+	/**
+	 * Decodes an integer (ASCII digits with an optional sign) in `[min, max]`.
+	 * @param type used in error messages ("int", "long", ...)
+	 */
+	static long decodeLong(@Nonnull CharSequence s, boolean trim, long min, long max, @Nonnull String type,
+			@Nonnegative int lineno, @Nonnegative int column) throws NumberFormatException {
+		int i = 0, end = s.length();
+		if (trim) {
+			while (i < end && Character.isWhitespace(s.charAt(i))) {
+				i++;
+			}
+			while (end > i && Character.isWhitespace(s.charAt(end - 1))) {
+				end--;
+			}
+		}
+		boolean negative = false;
+		if (i < end) {
+			final char c = s.charAt(i);
+			if (c == '-') {
+				negative = true;
+				i++;
+			} else if (c == '+') {
+				i++;
+			}
+		}
+		if (i == end) {
+			throw invalid(s, type, lineno, column);
+		}
+		// accumulating negatively (like Long.parseLong) to handle min
+		final long limit = negative ? min : -max;
+		final long multmin = limit / 10;
+		long result = 0;
+		for (; i < end; i++) {
+			final int d = s.charAt(i) - '0';
+			if (d < 0 || d > 9) {
+				throw invalid(s, type, lineno, column);
+			}
+			if (result < multmin) {
+				throw outOfRange(s, type, lineno, column);
+			}
+			result *= 10;
+			if (result < limit + d) {
+				throw outOfRange(s, type, lineno, column);
+			}
+			result -= d;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Decodes a double like {@link Double#parseDouble} (leading and trailing whitespace is ignored).
+	 * Decimal numbers are decoded without allocation (see {@link FastDoubleParser}), other forms are delegated to {@link Double#parseDouble}.
+	 */
+	static double decodeDouble(@Nonnull CharSequence s, @Nonnegative int lineno, @Nonnegative int column) throws NumberFormatException {
+		final double v = FastDoubleParser.parse(s, false);
+		if (v == v) { // not NaN
+			return v;
+		}
+		try {
+			return Double.parseDouble(s.toString());
+		} catch (NumberFormatException e) {
+			throw invalid(s, "double", lineno, column);
+		}
+	}
+
+	/**
+	 * Decodes a float like {@link Float#parseFloat} (leading and trailing whitespace is ignored).
+	 * Decimal numbers are decoded without allocation (see {@link FastDoubleParser}), other forms are delegated to {@link Float#parseFloat}.
+	 */
+	static float decodeFloat(@Nonnull CharSequence s, @Nonnegative int lineno, @Nonnegative int column) throws NumberFormatException {
+		final double v = FastDoubleParser.parse(s, true);
+		if (v == v) { // not NaN
+			return (float) v;
+		}
+		try {
+			return Float.parseFloat(s.toString());
+		} catch (NumberFormatException e) {
+			throw invalid(s, "float", lineno, column);
+		}
+	}
+
+	private static NumberFormatException invalid(CharSequence s, String type, int lineno, int column) {
+		return new NumberFormatException(String.format("invalid %s \"%s\" at line %d, column %d", type, s, lineno, column));
+	}
+
+	private static NumberFormatException outOfRange(CharSequence s, String type, int lineno, int column) {
+		return new NumberFormatException(String.format("%s value out of range \"%s\" at line %d, column %d", type, s, lineno, column));
+	}
+}
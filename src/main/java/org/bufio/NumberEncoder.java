@@ -0,0 +1,439 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.math.BigInteger;
+
+import static org.bufio.FastDoubleParser.unsignedMultiplyHigh;
+
+/**
+ * Encodes numbers directly into a char buffer (without allocation).
+ * Doubles and floats are formatted with the shortest decimal which rounds to the same value
+ * (Schubfach, see R. Giulietti, "The Schubfach way to render doubles", 2020)
+ * in the format of {@code Double.toString} and {@code Float.toString} since JDK 19
+ * (older JDKs sometimes print more digits than needed).
+ * Each method writes at `off` and returns the new offset: the caller must ensure that the buffer has enough room
+ * ({@link #MAX_LENGTH} chars).
+ */
+final class NumberEncoder {
+	/** Maximum number of chars written by one call. */
+	static final int MAX_LENGTH = 24;
+
+	// Let 10^-k = beta 2^r with 2^125 <= beta < 2^126 and g = floor(beta) + 1,
+	// G stores g1 = floor(g 2^-63) and g0 = g mod 2^63 for k in [K_MIN, K_MAX].
+	private static final int K_MIN = -324;
+	private static final int K_MAX = 292;
+	private static final long[] G = g();
+
+	private static final long[] POW10 = {
+			1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+			10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+			1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L,
+	};
+	private static final long MASK_63 = (1L << 63) - 1;
+	private static final int MASK_28 = (1 << 28) - 1;
+
+	// double
+	private static final int P = 53;
+	private static final int Q_MIN = -1074;
+	private static final long C_MIN = 1L << P - 1;
+	private static final long C_TINY = 3;
+	private static final int H = 17;
+	// float
+	private static final int FP = 24;
+	private static final int FQ_MIN = -149;
+	private static final int FC_MIN = 1 << FP - 1;
+	private static final int FC_TINY = 8;
+	private static final int FH = 9;
+
+	private static final char[] MIN_LONG = "-9223372036854775808".toCharArray();
+
+	private NumberEncoder() {
+	}
+
+	static int encodeInt(int v, @Nonnull char[] buf, @Nonnegative int off) {
+		return encodeLong(v, buf, off);
+	}
+
+	static int encodeLong(long v, @Nonnull char[] buf, @Nonnegative int off) {
+		if (v == Long.MIN_VALUE) {
+			System.arraycopy(MIN_LONG, 0, buf, off, MIN_LONG.length);
+			return off + MIN_LONG.length;
+		}
+		if (v < 0) {
+			buf[off++] = '-';
+			v = -v;
+		}
+		int len = 1;
+		while (len < 19 && v >= POW10[len]) {
+			len++;
+		}
+		final int end = off + len;
+		for (int i = end - 1; i >= off; i--) {
+			final long q = v / 10;
+			buf[i] = (char) ('0' + (int) (v - q * 10));
+			v = q;
+		}
+		return end;
+	}
+
+	static int encodeBoolean(boolean v, @Nonnull char[] buf, @Nonnegative int off) {
+		final String s = v ? "true" : "false";
+		s.getChars(0, s.length(), buf, off);
+		return off + s.length();
+	}
+
+	static int encodeDouble(double v, @Nonnull char[] buf, @Nonnegative int off) {
+		final long bits = Double.doubleToRawLongBits(v);
+		final long t = bits & C_MIN - 1;
+		final int bq = (int) (bits >>> P - 1) & 0x7FF;
+		if (bq < 0x7FF) {
+			if (bits < 0) {
+				buf[off++] = '-';
+			}
+			if (bq != 0) {
+				// normal value, mq = -q
+				final int mq = -Q_MIN + 1 - bq;
+				final long c = C_MIN | t;
+				// integer value
+				if (0 < mq & mq < P) {
+					final long f = c >> mq;
+					if (f << mq == c) {
+						return toChars(f, 0, buf, off);
+					}
+				}
+				return toDecimal(-mq, c, 0, buf, off);
+			}
+			if (t != 0) {
+				// subnormal value
+				return t < C_TINY ? toDecimal(Q_MIN, 10 * t, -1, buf, off) : toDecimal(Q_MIN, t, 0, buf, off);
+			}
+			return special("0.0", buf, off);
+		}
+		if (t != 0) {
+			return special("NaN", buf, off);
+		}
+		return special(bits > 0 ? "Infinity" : "-Infinity", buf, off);
+	}
+
+	static int encodeFloat(float v, @Nonnull char[] buf, @Nonnegative int off) {
+		final int bits = Float.floatToRawIntBits(v);
+		final int t = bits & FC_MIN - 1;
+		final int bq = (bits >>> FP - 1) & 0xFF;
+		if (bq < 0xFF) {
+			if (bits < 0) {
+				buf[off++] = '-';
+			}
+			if (bq != 0) {
+				final int mq = -FQ_MIN + 1 - bq;
+				final int c = FC_MIN | t;
+				if (0 < mq & mq < FP) {
+					final int f = c >> mq;
+					if (f << mq == c) {
+						return toChars(f, 0, buf, off);
+					}
+				}
+				return toDecimal(-mq, c, 0, buf, off);
+			}
+			if (t != 0) {
+				return t < FC_TINY ? toDecimal(FQ_MIN, 10 * t, -1, buf, off) : toDecimal(FQ_MIN, t, 0, buf, off);
+			}
+			return special("0.0", buf, off);
+		}
+		if (t != 0) {
+			return special("NaN", buf, off);
+		}
+		return special(bits > 0 ? "Infinity" : "-Infinity", buf, off);
+	}
+
+	private static int special(String s, char[] buf, int off) {
+		s.getChars(0, s.length(), buf, off);
+		return off + s.length();
+	}
+
+	// Shortest decimal in the rounding interval of c 2^q (double).
+	private static int toDecimal(int q, long c, int dk, char[] buf, int off) {
+		final int out = (int) c & 0x1;
+		final long cb = c << 2;
+		final long cbr = cb + 2;
+		final long cbl;
+		final int k;
+		if (c != C_MIN | q == Q_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		final int h = q + flog2pow10(-k) + 2;
+		final long g1 = G[(k - K_MIN) << 1];
+		final long g0 = G[(k - K_MIN) << 1 | 1];
+		final long vb = rop(g1, g0, cb << h);
+		final long vbl = rop(g1, g0, cbl << h);
+		final long vbr = rop(g1, g0, cbr << h);
+
+		final long s = vb >> 2;
+		if (s >= 100) {
+			// s' 10 = floor(s / 10) 10
+			final long sp10 = 10 * unsignedMultiplyHigh(s, 115_292_150_460_684_698L << 4);
+			final long tp10 = sp10 + 10;
+			final boolean upin = vbl + out <= sp10 << 2;
+			final boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin) {
+				return toChars(upin ? sp10 : tp10, k, buf, off);
+			}
+		}
+		final long t = s + 1;
+		final boolean uin = vbl + out <= s << 2;
+		final boolean win = (t << 2) + out <= vbr;
+		if (uin != win) {
+			return toChars(uin ? s : t, k + dk, buf, off);
+		}
+		// both s and t are in the interval: the closest one (even on ties)
+		final long cmp = vb - (s + t << 1);
+		return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, off);
+	}
+
+	// Shortest decimal in the rounding interval of c 2^q (float).
+	private static int toDecimal(int q, int c, int dk, char[] buf, int off) {
+		final int out = c & 0x1;
+		final long cb = (long) c << 2;
+		final long cbr = cb + 2;
+		final long cbl;
+		final int k;
+		if (c != FC_MIN | q == FQ_MIN) {
+			cbl = cb - 2;
+			k = flog10pow2(q);
+		} else {
+			cbl = cb - 1;
+			k = flog10threeQuartersPow2(q);
+		}
+		final int h = q + flog2pow10(-k) + 33;
+		final long g = G[(k - K_MIN) << 1] + 1;
+		final int vb = rop(g, cb << h);
+		final int vbl = rop(g, cbl << h);
+		final int vbr = rop(g, cbr << h);
+
+		final int s = vb >> 2;
+		if (s >= 100) {
+			final int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+			final int tp10 = sp10 + 10;
+			final boolean upin = vbl + out <= sp10 << 2;
+			final boolean wpin = (tp10 << 2) + out <= vbr;
+			if (upin != wpin) {
+				return toChars(upin ? sp10 : tp10, k, buf, off);
+			}
+		}
+		final int t = s + 1;
+		final boolean uin = vbl + out <= s << 2;
+		final boolean win = (t << 2) + out <= vbr;
+		if (uin != win) {
+			return toChars(uin ? s : t, k + dk, buf, off);
+		}
+		final int cmp = vb - (s + t << 1);
+		return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, off);
+	}
+
+	// Rounds to odd: g cp 2^-127 (double).
+	private static long rop(long g1, long g0, long cp) {
+		final long x1 = unsignedMultiplyHigh(g0, cp);
+		final long y0 = g1 * cp;
+		final long y1 = unsignedMultiplyHigh(g1, cp);
+		final long z = (y0 >>> 1) + x1;
+		final long vbp = y1 + (z >>> 63);
+		return vbp | (z & MASK_63) + MASK_63 >>> 63;
+	}
+
+	// Rounds to odd: g cp 2^-95 (float).
+	private static int rop(long g, long cp) {
+		final long x1 = unsignedMultiplyHigh(g, cp);
+		final long vbp = x1 >>> 31;
+		return (int) (vbp | (x1 & 0xFFFFFFFFL) + 0xFFFFFFFFL >>> 32);
+	}
+
+	// Formats f 10^e (double): 10^(len-1) <= f < 10^len with len <= 17.
+	private static int toChars(long f, int e, char[] buf, int off) {
+		int len = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+		if (f >= POW10[len]) {
+			len += 1;
+		}
+		// 10^(H-1) <= f < 10^H and f 10^(e-H) = 0.f 10^e
+		f *= POW10[H - len];
+		e += len;
+		// h = the most significant digit, m = the next 8 digits, l = the last 8 digits
+		final long hm = unsignedMultiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+		final int l = (int) (f - 100_000_000L * hm);
+		final int h = (int) (hm * 1_441_151_881L >>> 57);
+		final int m = (int) (hm - 100_000_000 * h);
+		if (0 < e && e <= 7) {
+			// plain format without leading zeroes
+			buf[off++] = (char) ('0' + h);
+			int y = y(m);
+			int i = 1;
+			for (; i < e; ++i) {
+				final int t = 10 * y;
+				buf[off++] = (char) ('0' + (t >>> 28));
+				y = t & MASK_28;
+			}
+			buf[off++] = '.';
+			for (; i <= 8; ++i) {
+				final int t = 10 * y;
+				buf[off++] = (char) ('0' + (t >>> 28));
+				y = t & MASK_28;
+			}
+			return lowDigits(l, buf, off);
+		} else if (-3 < e && e <= 0) {
+			// plain format with leading zeroes
+			buf[off++] = '0';
+			buf[off++] = '.';
+			for (; e < 0; ++e) {
+				buf[off++] = '0';
+			}
+			buf[off++] = (char) ('0' + h);
+			off = append8Digits(m, buf, off);
+			return lowDigits(l, buf, off);
+		}
+		// computerized scientific notation
+		buf[off++] = (char) ('0' + h);
+		buf[off++] = '.';
+		off = append8Digits(m, buf, off);
+		off = lowDigits(l, buf, off);
+		return exponent(e - 1, buf, off);
+	}
+
+	// Formats f 10^e (float): 10^(len-1) <= f < 10^len with len <= 9.
+	private static int toChars(int f, int e, char[] buf, int off) {
+		int len = flog10pow2(Integer.SIZE - Integer.numberOfLeadingZeros(f));
+		if (f >= POW10[len]) {
+			len += 1;
+		}
+		f *= (int) POW10[FH - len];
+		e += len;
+		// h = the most significant digit, l = the last 8 digits
+		final int h = (int) (f * 1_441_151_881L >>> 57);
+		final int l = f - 100_000_000 * h;
+		if (0 < e && e <= 7) {
+			buf[off++] = (char) ('0' + h);
+			int y = y(l);
+			int i = 1;
+			for (; i < e; ++i) {
+				final int t = 10 * y;
+				buf[off++] = (char) ('0' + (t >>> 28));
+				y = t & MASK_28;
+			}
+			buf[off++] = '.';
+			for (; i <= 8; ++i) {
+				final int t = 10 * y;
+				buf[off++] = (char) ('0' + (t >>> 28));
+				y = t & MASK_28;
+			}
+			return removeTrailingZeroes(buf, off);
+		} else if (-3 < e && e <= 0) {
+			buf[off++] = '0';
+			buf[off++] = '.';
+			for (; e < 0; ++e) {
+				buf[off++] = '0';
+			}
+			buf[off++] = (char) ('0' + h);
+			off = append8Digits(l, buf, off);
+			return removeTrailingZeroes(buf, off);
+		}
+		buf[off++] = (char) ('0' + h);
+		buf[off++] = '.';
+		off = append8Digits(l, buf, off);
+		off = removeTrailingZeroes(buf, off);
+		return exponent(e - 1, buf, off);
+	}
+
+	private static int lowDigits(int l, char[] buf, int off) {
+		if (l != 0) {
+			off = append8Digits(l, buf, off);
+		}
+		return removeTrailingZeroes(buf, off);
+	}
+
+	private static int append8Digits(int m, char[] buf, int off) {
+		int y = y(m);
+		for (int i = 0; i < 8; ++i) {
+			final int t = 10 * y;
+			buf[off++] = (char) ('0' + (t >>> 28));
+			y = t & MASK_28;
+		}
+		return off;
+	}
+
+	// but keeps the one directly to the right of '.'
+	private static int removeTrailingZeroes(char[] buf, int off) {
+		while (buf[off - 1] == '0') {
+			--off;
+		}
+		if (buf[off - 1] == '.') {
+			++off;
+		}
+		return off;
+	}
+
+	// floor((a + 1) 2^28 / 10^8) - 1 for a < 10^8: the digits of a as a fraction in 4.28 fixed point
+	private static int y(int a) {
+		return (int) (unsignedMultiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+	}
+
+	private static int exponent(int e, char[] buf, int off) {
+		buf[off++] = 'E';
+		if (e < 0) {
+			buf[off++] = '-';
+			e = -e;
+		}
+		if (e < 10) {
+			buf[off++] = (char) ('0' + e);
+			return off;
+		}
+		int d;
+		if (e >= 100) {
+			d = e * 1_311 >>> 17; // floor(e / 100)
+			buf[off++] = (char) ('0' + d);
+			e -= 100 * d;
+		}
+		d = e * 103 >>> 10; // floor(e / 10)
+		buf[off++] = (char) ('0' + d);
+		buf[off++] = (char) ('0' + e - 10 * d);
+		return off;
+	}
+
+	// floor(log10(2^e))
+	private static int flog10pow2(int e) {
+		return (int) (e * 661_971_961_083L >> 41);
+	}
+
+	// floor(log10(3/4 2^e))
+	private static int flog10threeQuartersPow2(int e) {
+		return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+	}
+
+	// floor(log2(10^e))
+	private static int flog2pow10(int e) {
+		return (int) (e * 913_124_641_741L >> 38);
+	}
+
+	private static long[] g() {
+		final long[] g = new long[(K_MAX - K_MIN + 1) << 1];
+		final BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+		for (int k = K_MIN; k <= K_MAX; k++) {
+			final BigInteger beta;
+			if (k <= 0) {
+				// 10^-k integer: beta = 10^-k 2^-r
+				final BigInteger n = BigInteger.TEN.pow(-k);
+				final int r = n.bitLength() - 126;
+				beta = r >= 0 ? n.shiftRight(r) : n.shiftLeft(-r);
+			} else {
+				// 10^-k = 1 / d: beta = 2^-r / d
+				final BigInteger d = BigInteger.TEN.pow(k);
+				beta = BigInteger.ONE.shiftLeft(125 + d.bitLength()).divide(d);
+			}
+			final BigInteger v = beta.add(BigInteger.ONE);
+			g[(k - K_MIN) << 1] = v.shiftRight(63).longValue();
+			g[(k - K_MIN) << 1 | 1] = v.and(mask63).longValue();
+		}
+		return g;
+	}
+}
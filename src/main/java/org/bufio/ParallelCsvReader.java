@@ -0,0 +1,449 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a (large) CSV file by rows in parallel
+ * (compatible with rfc4180 and extended with the option of having a separator other than ",").
+ * The file is split into byte ranges, each range starting on a record boundary,
+ * and each range is parsed by its own {@link CsvReader}.
+ * <pre>{@code
+ * ParallelCsvReader r;
+ * r.stream().forEach(row -> {
+ *   // ...
+ * });
+ * }</pre>
+ * Split points are found by counting quotes (in quoted mode, a newline is a record boundary only if it is
+ * preceded by an even number of quotes), so quotes must not appear in unquoted fields or in comments
+ * (rfc4180). The charset must be ASCII compatible (UTF-8, ISO-8859-1, ...).
+ * Line numbers reported by errors are relative to the range start.
+ * Files written by {@link BlockGzipCsvWriter} are split on their blocks (see {@link #setBlockGzipIndex}).
+ */
+public class ParallelCsvReader implements Closeable {
+	private final FileChannel ch;
+	// values separator
+	private final char sep;
+	// specify if values may be quoted (when they contain separator or newline)
+	private final boolean quoted;
+	private Charset charset = StandardCharsets.UTF_8;
+	private char comment;
+	private boolean trim;
+	private boolean skipEmptyLines = true;
+	private boolean ordered = true;
+	private long chunkSize = 64L * 1024 * 1024;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	// first byte after the headers
+	private long base;
+	// blocks of a file written by BlockGzipCsvWriter (null for a plain file)
+	private BlockGzipIndex blocks;
+	// number of rows to skip in the first block (headers)
+	private int skippedRows;
+	private boolean ignoreCommentMarker;
+
+	/**
+	 * Creates a "standard" CSV reader (separator is comma and quoted mode active)
+	 */
+	public ParallelCsvReader(@Nonnull Path path) throws IOException {
+		this(FileChannel.open(path, StandardOpenOption.READ), ',', true);
+	}
+
+	/**
+	 * Returns a new CSV reader to read from `ch`.
+	 * When `quoted` is false, values must not contain a separator or newline.
+	 */
+	public ParallelCsvReader(@WillCloseWhenClosed @Nonnull FileChannel ch, char sep, boolean quoted) {
+		if (ch == null) {
+			throw new IllegalArgumentException("null channel");
+		}
+		this.ch = ch;
+		this.sep = sep;
+		this.quoted = quoted;
+	}
+
+	/**
+	 * Reads the first row (sequentially).
+	 * Rows returned by {@link #stream} or {@link #spliterator} will start after this one.
+	 */
+	@Nonnull
+	public Map<String, Integer> scanHeaders(boolean ignoreCommentMarker) throws IOException {
+		if (blocks != null) {
+			if (blocks.blockCount() == 0) {
+				return Collections.emptyMap();
+			}
+			try (CsvReader r = open(blocks.blockOffset(0), blocks.blockOffset(1))) {
+				final Map<String, Integer> headers = r.scanHeaders(ignoreCommentMarker);
+				this.ignoreCommentMarker = ignoreCommentMarker;
+				skippedRows++;
+				return headers;
+			}
+		}
+		final long size = ch.size();
+		long end = base;
+		while (end < size) {
+			final long from = end;
+			end = nextBoundary(from, size);
+			try (CsvReader r = open(from, end)) {
+				final Map<String, Integer> headers = r.scanHeaders(ignoreCommentMarker);
+				if (!headers.isEmpty()) {
+					base = end;
+					return headers;
+				}
+			}
+		}
+		base = end;
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * @return a parallel {@code Stream} over the rows of this file.
+	 */
+	@Nonnull
+	public Stream<String[]> stream() throws IOException {
+		final Stream<String[]> stream = StreamSupport.stream(spliterator(), true);
+		return ordered ? stream : stream.unordered();
+	}
+
+	/**
+	 * Performs the given action for each row in the {@link #setPool pool}.
+	 * When {@link #setOrdered ordered}, the action is called in the original rows order (but not concurrently).
+	 */
+	public void forEach(@Nonnull Consumer<? super String[]> action) throws IOException {
+		final Stream<String[]> stream = stream();
+		final Future<?> f = pool.submit(() -> {
+			if (ordered) {
+				stream.forEachOrdered(action);
+			} else {
+				stream.forEach(action);
+			}
+		});
+		try {
+			f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return a {@code Spliterator} over the rows of this file, which is split on record boundaries.
+	 */
+	@Nonnull
+	public Spliterator<String[]> spliterator() throws IOException {
+		final long[] bounds = boundaries();
+		return new RangeSpliterator(bounds, 0, bounds.length - 1, null);
+	}
+
+	// Computes ranges bounds: range i is [bounds[i], bounds[i+1])
+	private long[] boundaries() throws IOException {
+		if (blocks != null) {
+			final long[] bounds = new long[blocks.blockCount() + 1];
+			for (int i = 0; i < bounds.length; i++) {
+				bounds[i] = blocks.blockOffset(i);
+			}
+			return bounds;
+		}
+		final long size = ch.size();
+		final List<Callable<long[]>> tasks = new ArrayList<>();
+		for (long from = base; from < size; from += chunkSize) {
+			final long start = from;
+			tasks.add(() -> scanChunk(start, Math.min(start + chunkSize, size)));
+		}
+		final List<long[]> chunks = new ArrayList<>(tasks.size());
+		try {
+			for (Future<long[]> f : pool.invokeAll(tasks)) {
+				chunks.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		final List<Long> bounds = new ArrayList<>(chunks.size() + 1);
+		bounds.add(base);
+		boolean inQuotes = false; // at the start of the current chunk
+		for (int i = 0; i < chunks.size(); i++) {
+			final long[] chunk = chunks.get(i);
+			if (i > 0) {
+				final long nl = chunk[inQuotes ? 2 : 1];
+				if (nl >= 0) {
+					bounds.add(nl + 1);
+				}
+			}
+			inQuotes ^= chunk[0] != 0;
+		}
+		if (bounds.get(bounds.size() - 1) < size) {
+			bounds.add(size);
+		}
+		final long[] result = new long[bounds.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	// Returns {quotes count parity, position of first newline preceded by an even number of quotes,
+	// position of first newline preceded by an odd number of quotes} (-1 when there is no such newline).
+	private long[] scanChunk(long from, long to) throws IOException {
+		final ByteBuffer buf = ByteBuffer.allocate((int) Math.min(64 * 1024, to - from));
+		final byte[] b = buf.array();
+		boolean odd = false;
+		long even = -1, oddNl = -1;
+		long pos = from;
+		while (pos < to) {
+			((Buffer) buf).clear();
+			if (to - pos < buf.capacity()) {
+				((Buffer) buf).limit((int) (to - pos));
+			}
+			final int n = ch.read(buf, pos);
+			if (n < 0) {
+				break;
+			}
+			for (int i = 0; i < n; i++) {
+				final byte c = b[i];
+				if (c == '"') {
+					odd ^= quoted;
+				} else if (c == '\n') {
+					if (odd) {
+						if (oddNl < 0) {
+							oddNl = pos + i;
+						}
+					} else if (even < 0) {
+						even = pos + i;
+						if (!quoted) {
+							return new long[]{0, even, -1};
+						}
+					}
+				}
+			}
+			pos += n;
+		}
+		return new long[]{odd ? 1 : 0, even, oddNl};
+	}
+
+	// Returns the position following the first record starting at `from`.
+	private long nextBoundary(long from, long size) throws IOException {
+		boolean inQuotes = false;
+		for (long pos = from; pos < size; pos += 64 * 1024) {
+			final long[] chunk = scanChunk(pos, Math.min(pos + 64 * 1024, size));
+			final long nl = chunk[inQuotes ? 2 : 1];
+			if (nl >= 0) {
+				return nl + 1;
+			}
+			inQuotes ^= chunk[0] != 0;
+		}
+		return size;
+	}
+
+	private CsvReader open(long from, long to) throws IOException {
+		InputStream in = new RangeInputStream(ch, from, to);
+		if (blocks != null) {
+			in = new GZIPInputStream(in, 8192);
+		}
+		final CsvReader r = new CsvReader(new InputStreamReader(in, charset), sep, quoted);
+		r.setCommentMarker(comment);
+		r.setTrim(trim);
+		r.setSkipEmptyLines(skipEmptyLines);
+		if (blocks != null && from == blocks.blockOffset(0)) {
+			for (int i = 0; i < skippedRows; i++) {
+				r.scanHeaders(ignoreCommentMarker);
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Specifies that the file has been written by {@link BlockGzipCsvWriter}: its blocks are decompressed
+	 * and parsed in parallel (instead of splitting the file on record boundaries).
+	 * The index can be loaded from a {@link BlockGzipIndex#write saved} one
+	 * or rebuilt with {@link BlockGzipIndex#scan}.
+	 */
+	public void setBlockGzipIndex(@Nullable BlockGzipIndex blocks) {
+		this.blocks = blocks;
+	}
+
+	/** Sets the charset (must be ASCII compatible). The default is UTF-8. */
+	public void setCharset(@Nonnull Charset charset) {
+		this.charset = charset;
+	}
+
+	/**
+	 * Sets the character marking the start of a line comment. When specified (not 0), line comment appears as empty line.
+	 */
+	public void setCommentMarker(char comment) {
+		this.comment = comment;
+	}
+
+	/**
+	 * Trims spaces (only on not-quoted values). Break rfc4180 rule: "Spaces are considered part of a field and should not be ignored."
+	 */
+	public void setTrim(boolean trim) {
+		this.trim = trim;
+	}
+
+	public void setSkipEmptyLines(boolean skipEmptyLines) {
+		this.skipEmptyLines = skipEmptyLines;
+	}
+
+	/** Specifies if the original rows order must be kept (the default) or not. */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/** Sets the (approximate) size of the ranges (in bytes). The default is 64MB. */
+	public void setChunkSize(@Nonnegative long chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid chunk size: %d", chunkSize));
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/** Sets the pool used to find split points and by {@link #forEach}. The default is the common pool. */
+	public void setPool(@Nonnull ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public void close() throws IOException {
+		ch.close();
+	}
+
+	private class RangeSpliterator implements Spliterator<String[]> {
+		private final long[] bounds;
+		// current range index
+		private int lo;
+		// last range index (exclusive)
+		private final int hi;
+		// reader on the current range (null if not started)
+		private CsvReader current;
+
+		private RangeSpliterator(long[] bounds, int lo, int hi, CsvReader current) {
+			this.bounds = bounds;
+			this.lo = lo;
+			this.hi = hi;
+			this.current = current;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super String[]> action) {
+			try {
+				while (true) {
+					if (current == null) {
+						if (lo >= hi) {
+							return false;
+						}
+						current = open(bounds[lo], bounds[lo + 1]);
+					}
+					if (current.next()) {
+						action.accept(current.values());
+						return true;
+					}
+					current.close();
+					current = null;
+					lo++;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public Spliterator<String[]> trySplit() {
+			final int mid = (lo + hi) >>> 1;
+			if (mid <= lo) {
+				return null;
+			}
+			// the prefix (including the current range) is handed over
+			final Spliterator<String[]> prefix = new RangeSpliterator(bounds, lo, mid, current);
+			lo = mid;
+			current = null;
+			return prefix;
+		}
+
+		/**
+		 * Number of rows of the remaining blocks (see {@link #setBlockGzipIndex}) or, for a plain file,
+		 * number of remaining bytes (rows are not counted in advance: bytes are an upper bound of the rows).
+		 */
+		@Override
+		public long estimateSize() {
+			if (lo >= hi) {
+				return 0;
+			} else if (blocks != null) {
+				return blocks.firstRow(hi) - blocks.firstRow(lo);
+			}
+			return bounds[hi] - bounds[lo];
+		}
+
+		@Override
+		public int characteristics() {
+			return (ordered ? Spliterator.ORDERED : 0) | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+		}
+	}
+
+	// Bytes [from, to) of a channel (which is not closed).
+	private static class RangeInputStream extends InputStream {
+		private final FileChannel ch;
+		private long pos;
+		private final long to;
+
+		private RangeInputStream(FileChannel ch, long from, long to) {
+			this.ch = ch;
+			this.pos = from;
+			this.to = to;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+			if (pos >= to) {
+				return -1;
+			}
+			final int n = ch.read(ByteBuffer.wrap(b, off, (int) Math.min(len, to - pos)), pos);
+			if (n > 0) {
+				pos += n;
+			}
+			return n;
+		}
+	}
+}
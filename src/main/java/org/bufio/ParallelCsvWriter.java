@@ -0,0 +1,266 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Writes the rows of a (parallel) stream as CSV, formatting them in parallel.
+ * The stream is split into batches of rows, each batch is formatted by a worker into its own chunk
+ * (with a {@link CsvWriter} having the same settings as the sink) and chunks are appended to the sink
+ * in the original rows order (unless {@link #setOrdered unordered}).
+ * So the output is the same as the one produced by the sink alone.
+ * <pre>{@code
+ * CsvWriter w;
+ * ParallelCsvWriter pw = new ParallelCsvWriter(w);
+ * pw.write(trades.parallelStream(), (trade, csv) -> {
+ *   csv.write(trade.getSymbol());
+ *   csv.writeDouble(trade.getPrice());
+ * });
+ * pw.flush();
+ * }</pre>
+ * At most {@link #setMaxInFlight maxInFlight} chunks are pending at any time.
+ * The sink marshaler (if any) is called concurrently.
+ */
+public class ParallelCsvWriter implements Closeable, Flushable {
+	/** Writes the fields of one row (the row terminator is added after). */
+	@FunctionalInterface
+	public interface Formatter<T> {
+		void format(T row, @Nonnull CsvWriter w) throws IOException;
+	}
+
+	private final CsvWriter sink;
+	private boolean ordered = true;
+	private int batchSize = 1024;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private int maxInFlight = 2 * pool.getParallelism();
+
+	/** Creates a "standard" CSV writer (separator is comma and quoted mode active) */
+	public ParallelCsvWriter(@WillCloseWhenClosed @Nonnull Writer w) {
+		this(new CsvWriter(w));
+	}
+
+	/** Returns a new CSV writer appending the formatted rows to `sink` (from which settings are copied). */
+	public ParallelCsvWriter(@WillCloseWhenClosed @Nonnull CsvWriter sink) {
+		if (sink == null) {
+			throw new IllegalArgumentException("null writer");
+		}
+		this.sink = sink;
+	}
+
+	/** Writes each row of `rows` with {@link CsvWriter#writeRow(String...)}. */
+	public void writeRows(@Nonnull Stream<String[]> rows) throws IOException {
+		write(rows, (row, w) -> {
+			for (String value : row) {
+				w.write(value);
+			}
+		});
+	}
+
+	/**
+	 * Formats each row of `rows` with `formatter` in the {@link #setPool pool}
+	 * and appends them to the sink from the calling thread.
+	 */
+	public <T> void write(@Nonnull Stream<T> rows, @Nonnull Formatter<? super T> formatter) throws IOException {
+		new Job<T>(formatter).run(rows.spliterator());
+	}
+
+	/** Specifies if the original rows order must be kept (the default) or not. */
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/** Sets the (approximate) number of rows by chunk. The default is 1024. */
+	public void setBatchSize(@Nonnegative int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid batch size: %d", batchSize));
+		}
+		this.batchSize = batchSize;
+	}
+
+	/** Sets the maximum number of chunks being formatted or waiting to be written. The default is twice the pool parallelism. */
+	public void setMaxInFlight(@Nonnegative int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException(String.format("invalid max in flight: %d", maxInFlight));
+		}
+		this.maxInFlight = maxInFlight;
+	}
+
+	/** Sets the pool used to format the rows. The default is the common pool. */
+	public void setPool(@Nonnull ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		sink.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		sink.close();
+	}
+
+	// formatted rows
+	private static class Chunk extends Writer {
+		private final long seq;
+		private char[] buf = new char[8192];
+		private int count;
+
+		private Chunk(long seq) {
+			this.seq = seq;
+		}
+
+		@Override
+		public void write(@Nonnull char[] cbuf, int off, int len) {
+			if (count + len > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + len));
+			}
+			System.arraycopy(cbuf, off, buf, count, len);
+			count += len;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	// state of one write call
+	private class Job<T> {
+		private final Formatter<? super T> formatter;
+		// not submitted as ForkJoinTask which would wrap or copy the exceptions
+		private final CompletionService<Chunk> completion = new ExecutorCompletionService<>(pool::execute);
+		// completed chunks waiting for their predecessors (ordered only)
+		private final Map<Long, Chunk> completed = new HashMap<>();
+		private final AtomicBoolean failed = new AtomicBoolean();
+		// sequence number of the next chunk to submit
+		private long submitted;
+		// number of chunks appended to the sink
+		private long written;
+
+		private Job(Formatter<? super T> formatter) {
+			this.formatter = formatter;
+		}
+
+		private void run(Spliterator<T> rows) throws IOException {
+			try {
+				split(rows);
+				while (written < submitted) {
+					append();
+				}
+			} finally {
+				failed.set(written < submitted);
+			}
+		}
+
+		// Submits `rows` by batches in order: prefixes first.
+		private void split(Spliterator<T> rows) throws IOException {
+			while (rows.estimateSize() > batchSize) {
+				final Spliterator<T> prefix = rows.trySplit();
+				if (prefix == null) {
+					// not splittable: batches are read by the calling thread
+					final List<T> batch = new ArrayList<>(batchSize);
+					while (rows.tryAdvance(batch::add)) {
+						if (batch.size() == batchSize) {
+							submit(new ArrayList<>(batch).spliterator());
+							batch.clear();
+						}
+					}
+					if (!batch.isEmpty()) {
+						submit(batch.spliterator());
+					}
+					return;
+				}
+				split(prefix);
+			}
+			submit(rows);
+		}
+
+		private void submit(Spliterator<? extends T> rows) throws IOException {
+			while (submitted - written >= maxInFlight) {
+				append();
+			}
+			final long seq = submitted++;
+			completion.submit(() -> format(seq, rows));
+		}
+
+		private Chunk format(long seq, Spliterator<? extends T> rows) throws IOException {
+			final Chunk chunk = new Chunk(seq);
+			if (failed.get()) {
+				return chunk;
+			}
+			final CsvWriter w = new CsvWriter(sink, chunk);
+			try {
+				rows.forEachRemaining(row -> {
+					try {
+						formatter.format(row, w);
+						w.endOfRow();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			w.flush();
+			return chunk;
+		}
+
+		// Waits for one chunk and appends the chunks which can be written.
+		private void append() throws IOException {
+			Chunk chunk = take();
+			if (!ordered) {
+				sink.appendRows(chunk.buf, 0, chunk.count);
+				written++;
+				return;
+			}
+			completed.put(chunk.seq, chunk);
+			while ((chunk = completed.remove(written)) != null) {
+				sink.appendRows(chunk.buf, 0, chunk.count);
+				written++;
+			}
+		}
+
+		private Chunk take() throws IOException {
+			try {
+				return completion.take().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				final Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				} else if (cause instanceof UncheckedIOException) {
+					throw ((UncheckedIOException) cause).getCause();
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import java.io.IOException;
+
+/**
+ * Record skipping state machine shared by the char and byte scanners (see {@link AbstractCsvScanner#skipRows}
+ * and {@link AbstractByteCsvScanner#skipRows}): looks only for the newlines outside quoted fields,
+ * without creating any token. Code units (chars or bytes) are accessed as int through the subclass.
+ */
+abstract class RecordSkipper {
+	// states
+	private static final int FIELD = 0, UNQUOTED = 1, QUOTED = 2, QUOTE = 3, COMMENT = 4;
+
+	private final int sep;
+	private final boolean quoted;
+	// 0 when there is no comment marker
+	private final int comment;
+	private final boolean trim;
+	private final boolean skipEmptyLines;
+	// current line number (to be copied back by the scanner, even on error)
+	int lineno;
+
+	RecordSkipper(int sep, boolean quoted, int comment, boolean trim, boolean skipEmptyLines, int lineno) {
+		this.sep = sep;
+		this.quoted = quoted;
+		this.comment = comment;
+		this.trim = trim;
+		this.skipEmptyLines = skipEmptyLines;
+		this.lineno = lineno;
+	}
+
+	/** @return Position of the first non-processed code unit in the scanner buffer. */
+	abstract int position();
+
+	/** @return End of data in the scanner buffer. */
+	abstract int limit();
+
+	/** @return The code unit at `i` in the scanner buffer. */
+	abstract int at(int i);
+
+	/** @return The index of the first `a` or `b` in the scanner buffer between `from` and `to` or `to` if there is none. */
+	abstract int indexOf(int from, int to, int a, int b);
+
+	abstract boolean isWhitespace(int c);
+
+	/** See {@link Scanner#advance}. */
+	abstract void advance(int n) throws ScanException;
+
+	/** See {@link Scanner#fill}. */
+	abstract boolean fill() throws IOException;
+
+	/**
+	 * Skips `n` rows (or up to EOF).
+	 * @param sor at start of a record
+	 * @param counted the current row has already been counted (see atEndOfRow)
+	 * @return the number of skipped rows.
+	 */
+	@Nonnegative
+	final long skip(long n, boolean sor, boolean counted) throws IOException {
+		long count = 0;
+		int state = FIELD;
+		boolean blank = sor; // the current record is an empty line so far
+		boolean cr = false; // a '\r' has been seen in the blank record
+		int pc = 0; // last code unit of the previous buffer
+		int startLineno = lineno;
+		while (true) {
+			final int start = position();
+			final int end = limit();
+			int i = start;
+			while (i < end) {
+				if (state == FIELD) {
+					final int c = at(i);
+					if (quoted && c == '"') {
+						state = QUOTED;
+						startLineno = lineno;
+						blank = false;
+						i++;
+					} else if (sor && comment != 0 && c == comment) {
+						state = COMMENT;
+						i++;
+					} else {
+						state = UNQUOTED;
+					}
+					sor = false;
+					continue;
+				}
+				final int j;
+				if (state == QUOTED) {
+					j = indexOf(i, end, '"', '\n');
+					if (j == end) {
+						i = end;
+						continue;
+					} else if (at(j) == '"') {
+						state = QUOTE;
+					} else {
+						lineno++;
+					}
+					i = j + 1;
+					continue;
+				} else if (state == QUOTE) {
+					if (at(i) == '"') { // escaped quote
+						state = QUOTED;
+						i++;
+					} else {
+						state = UNQUOTED;
+					}
+					continue;
+				} else if (state == COMMENT) {
+					j = indexOf(i, end, '\n', '\n');
+					if (j == end) {
+						i = end;
+						continue;
+					}
+					counted = true;
+				} else if (blank) { // separators and spaces matter until the first other code unit
+					final int c = at(i);
+					if (c != '\n') {
+						if (c == sep) {
+							state = FIELD;
+							blank = false;
+						} else if (trim ? !isWhitespace(c) : c != '\r' || cr) {
+							blank = false;
+						} else {
+							cr = true;
+						}
+						i++;
+						continue;
+					}
+					j = i;
+				} else {
+					// a quote only opens a quoted field after a separator
+					j = quoted ? indexOf(i, end, '"', '\n') : indexOf(i, end, '\n', '\n');
+					if (j < end && at(j) == '"') {
+						if ((j > start ? at(j - 1) : pc) == sep) {
+							state = QUOTED;
+							startLineno = lineno;
+						}
+						i = j + 1;
+						continue;
+					} else if (j == end) {
+						i = end;
+						continue;
+					}
+				}
+				// end of record
+				lineno++;
+				if (!counted && !(blank && skipEmptyLines) && ++count == n) {
+					advance(j + 1);
+					return count;
+				}
+				state = FIELD;
+				sor = true;
+				counted = false;
+				blank = true;
+				cr = false;
+				i = j + 1;
+			}
+			if (end > start) {
+				pc = at(end - 1);
+			}
+			advance(end);
+			if (!fill()) {
+				break;
+			}
+		}
+		if (state == QUOTED) {
+			throw new ScanException(String.format("non-terminated quoted field at line %d", startLineno));
+		}
+		if (!sor && !counted && state != COMMENT && !(blank && skipEmptyLines)) { // last record without newline
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,403 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reusable columnar batch of rows filled by {@link CsvScanner#scanBatch}:
+ * each column is stored in a typed vector (`int[]`, `long[]`, `double[]`, chars slab or dictionary codes)
+ * with a null bitmap (empty or missing fields are null).
+ * Vectors are reused from batch to batch so that steady-state parsing does not allocate.
+ * A {@link Type#DICTIONARY DICTIONARY} column with too many distinct values (see {@link #setMaxDictionarySize})
+ * is converted to a {@link Type#STRING STRING} column (see {@link #type}) for the rest of the scan.
+ * <pre>{@code
+ * RowBatch batch = new RowBatch(1024, RowBatch.Type.INT, RowBatch.Type.DICTIONARY, RowBatch.Type.DOUBLE);
+ * while (s.scanBatch(batch) > 0) {
+ *   int[] ids = batch.ints(0);
+ *   int[] codes = batch.codes(1);
+ *   double[] amounts = batch.doubles(2);
+ *   for (int row = 0; row < batch.size(); row++) {
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ */
+public final class RowBatch {
+	/** Column vector types. */
+	public enum Type {
+		/** {@code int[]} (see {@link #ints}) */
+		INT,
+		/** {@code long[]} (see {@link #longs}) */
+		LONG,
+		/** {@code double[]} (see {@link #doubles}) */
+		DOUBLE,
+		/** Chars of all values in one slab with `size + 1` offsets (see {@link #chars} and {@link #offsets}) */
+		STRING,
+		/**
+		 * Codes into a dictionary of distinct values shared by all batches (see {@link #codes} and {@link #dictionary}),
+		 * converted to {@link #STRING} when the dictionary is full (see {@link #setMaxDictionarySize})
+		 */
+		DICTIONARY,
+	}
+
+	private final int capacity;
+	private final Type[] types;
+	// int[], long[], double[] or int[] (offsets or codes) by column
+	private final Object[] vectors;
+	private final long[][] nulls;
+	// chars slab by STRING column
+	private final char[][] slabs;
+	private final Dictionary[] dictionaries;
+	private int maxDictionarySize = 1 << 16;
+	private int size;
+
+	/**
+	 * @param capacity maximum number of rows by batch
+	 * @param types type of each column (extra fields of a row are ignored)
+	 */
+	public RowBatch(@Nonnegative int capacity, @Nonnull Type... types) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException(String.format("invalid capacity: %d", capacity));
+		}
+		this.capacity = capacity;
+		this.types = types.clone();
+		vectors = new Object[types.length];
+		nulls = new long[types.length][(capacity + 63) >>> 6];
+		slabs = new char[types.length][];
+		dictionaries = new Dictionary[types.length];
+		for (int c = 0; c < types.length; c++) {
+			switch (types[c]) {
+				case INT:
+					vectors[c] = new int[capacity];
+					break;
+				case LONG:
+					vectors[c] = new long[capacity];
+					break;
+				case DOUBLE:
+					vectors[c] = new double[capacity];
+					break;
+				case STRING:
+					vectors[c] = new int[capacity + 1];
+					slabs[c] = new char[capacity * 16];
+					break;
+				case DICTIONARY:
+					vectors[c] = new int[capacity];
+					dictionaries[c] = new Dictionary();
+					break;
+				default:
+					throw new IllegalArgumentException(String.format("unsupported type: %s", types[c]));
+			}
+		}
+	}
+
+	/** Maximum number of rows. */
+	@Nonnegative
+	public int capacity() {
+		return capacity;
+	}
+
+	/** Number of rows in this batch. */
+	@Nonnegative
+	public int size() {
+		return size;
+	}
+
+	/** Number of columns. */
+	@Nonnegative
+	public int columns() {
+		return types.length;
+	}
+
+	/**
+	 * Maximum number of distinct values of a {@link Type#DICTIONARY DICTIONARY} column (the default is 65536).
+	 * Once reached, the column is converted to {@link Type#STRING STRING} (including the values of the current batch)
+	 * and its dictionary is released.
+	 */
+	public void setMaxDictionarySize(@Nonnegative int maxDictionarySize) {
+		if (maxDictionarySize <= 0) {
+			throw new IllegalArgumentException(String.format("invalid dictionary size: %d", maxDictionarySize));
+		}
+		this.maxDictionarySize = maxDictionarySize;
+	}
+
+	/**
+	 * @param column the first column is 0
+	 * @return the type of `column`: {@link Type#STRING STRING} for a {@link Type#DICTIONARY DICTIONARY} column whose dictionary is full.
+	 */
+	@Nonnull
+	public Type type(@Nonnegative int column) {
+		return types[column];
+	}
+
+	/** Reports whether the value at `row` in `column` is null (empty or missing field). */
+	public boolean isNull(@Nonnegative int column, @Nonnegative int row) {
+		checkRow(row);
+		return (nulls[column][row >>> 6] & 1L << row) != 0;
+	}
+
+	/** Null bitmap of `column`: bit `row & 63` of word `row >>> 6` is set for a null value. */
+	@Nonnull
+	public long[] nulls(@Nonnegative int column) {
+		return nulls[column];
+	}
+
+	/** Values of an {@link Type#INT INT} column (only the first {@link #size} values are valid, null values are 0). */
+	@Nonnull
+	public int[] ints(@Nonnegative int column) {
+		return (int[]) vector(column, Type.INT);
+	}
+
+	/** Values of a {@link Type#LONG LONG} column (only the first {@link #size} values are valid, null values are 0). */
+	@Nonnull
+	public long[] longs(@Nonnegative int column) {
+		return (long[]) vector(column, Type.LONG);
+	}
+
+	/** Values of a {@link Type#DOUBLE DOUBLE} column (only the first {@link #size} values are valid, null values are 0). */
+	@Nonnull
+	public double[] doubles(@Nonnegative int column) {
+		return (double[]) vector(column, Type.DOUBLE);
+	}
+
+	/** Chars slab of a {@link Type#STRING STRING} column: the value at `row` is in `[offsets[row], offsets[row + 1])`. */
+	@Nonnull
+	public char[] chars(@Nonnegative int column) {
+		vector(column, Type.STRING);
+		return slabs[column];
+	}
+
+	/** Offsets of a {@link Type#STRING STRING} column in its {@link #chars} slab (`size + 1` valid values). */
+	@Nonnull
+	public int[] offsets(@Nonnegative int column) {
+		return (int[]) vector(column, Type.STRING);
+	}
+
+	/** Codes of a {@link Type#DICTIONARY DICTIONARY} column (index in {@link #dictionary}, -1 for null values). */
+	@Nonnull
+	public int[] codes(@Nonnegative int column) {
+		return (int[]) vector(column, Type.DICTIONARY);
+	}
+
+	/** Distinct values of a {@link Type#DICTIONARY DICTIONARY} column (shared by all batches, codes are stable). */
+	@Nonnull
+	public List<String> dictionary(@Nonnegative int column) {
+		vector(column, Type.DICTIONARY);
+		return Collections.unmodifiableList(dictionaries[column].values);
+	}
+
+	/** Value at `row` in an {@link Type#INT INT} column. */
+	public int getInt(@Nonnegative int column, @Nonnegative int row) {
+		checkRow(row);
+		return ints(column)[row];
+	}
+
+	/** Value at `row` in a {@link Type#LONG LONG} column. */
+	public long getLong(@Nonnegative int column, @Nonnegative int row) {
+		checkRow(row);
+		return longs(column)[row];
+	}
+
+	/** Value at `row` in a {@link Type#DOUBLE DOUBLE} column. */
+	public double getDouble(@Nonnegative int column, @Nonnegative int row) {
+		checkRow(row);
+		return doubles(column)[row];
+	}
+
+	/** Value at `row` in any column as a {@code String} (`null` for a null value). */
+	@Nullable
+	public String getString(@Nonnegative int column, @Nonnegative int row) {
+		if (isNull(column, row)) {
+			return null;
+		}
+		switch (types[column]) {
+			case INT:
+				return Integer.toString(ints(column)[row]);
+			case LONG:
+				return Long.toString(longs(column)[row]);
+			case DOUBLE:
+				return Double.toString(doubles(column)[row]);
+			case STRING:
+				final int[] offsets = offsets(column);
+				return new String(slabs[column], offsets[row], offsets[row + 1] - offsets[row]);
+			default:
+				return dictionaries[column].values.get(codes(column)[row]);
+		}
+	}
+
+	private Object vector(int column, Type type) {
+		if (types[column] != type) {
+			throw new IllegalStateException(String.format("column %d is %s, not %s", column, types[column], type));
+		}
+		return vectors[column];
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException(String.format("row: %d, size: %d", row, size));
+		}
+	}
+
+	// Empties this batch (before filling it again).
+	void clear() {
+		for (int c = 0; c < types.length; c++) {
+			Arrays.fill(nulls[c], 0L);
+		}
+		size = 0;
+	}
+
+	/** Stores `field` in `column` of the current row (see {@link #endRow}). */
+	void set(@Nonnegative int column, @Nonnull CharSlice field, boolean trimNumbers, @Nonnegative int lineno) {
+		final int row = size;
+		final int len = field.length();
+		switch (types[column]) {
+			case INT:
+				if (len == 0) {
+					setNull(column, row);
+				} else {
+					((int[]) vectors[column])[row] = (int) NumberDecoder.decodeLong(field, trimNumbers, Integer.MIN_VALUE, Integer.MAX_VALUE, "int", lineno, column + 1);
+				}
+				break;
+			case LONG:
+				if (len == 0) {
+					setNull(column, row);
+				} else {
+					((long[]) vectors[column])[row] = NumberDecoder.decodeLong(field, trimNumbers, Long.MIN_VALUE, Long.MAX_VALUE, "long", lineno, column + 1);
+				}
+				break;
+			case DOUBLE:
+				if (len == 0) {
+					setNull(column, row);
+				} else {
+					((double[]) vectors[column])[row] = NumberDecoder.decodeDouble(field, lineno, column + 1);
+				}
+				break;
+			case STRING:
+				final int[] offsets = (int[]) vectors[column];
+				final int off = row == 0 ? 0 : offsets[row];
+				if (off + len > slabs[column].length) {
+					slabs[column] = Arrays.copyOf(slabs[column], Math.max(off + len, slabs[column].length * 2));
+				}
+				offsets[row] = off;
+				offsets[row + 1] = off + field.copyTo(slabs[column], off);
+				if (len == 0) {
+					setNull(column, row);
+				}
+				break;
+			default:
+				if (len == 0) {
+					setNull(column, row);
+					((int[]) vectors[column])[row] = -1;
+				} else {
+					final int code = dictionaries[column].code(field, maxDictionarySize);
+					if (code < 0) { // too many distinct values
+						toStrings(column);
+						set(column, field, trimNumbers, lineno);
+						return;
+					}
+					((int[]) vectors[column])[row] = code;
+				}
+		}
+	}
+
+	// Converts a DICTIONARY column to STRING, including the values of the current batch.
+	private void toStrings(int column) {
+		final int[] codes = (int[]) vectors[column];
+		final List<String> values = dictionaries[column].values;
+		final int[] offsets = new int[capacity + 1];
+		char[] slab = new char[capacity * 16];
+		int off = 0;
+		for (int row = 0; row < size; row++) {
+			final String value = codes[row] < 0 ? "" : values.get(codes[row]);
+			if (off + value.length() > slab.length) {
+				slab = Arrays.copyOf(slab, Math.max(off + value.length(), slab.length * 2));
+			}
+			value.getChars(0, value.length(), slab, off);
+			offsets[row] = off;
+			off += value.length();
+		}
+		offsets[size] = off;
+		types[column] = Type.STRING;
+		vectors[column] = offsets;
+		slabs[column] = slab;
+		dictionaries[column] = null;
+	}
+
+	/** Completes the current row: the columns after the `n` first ones are null. */
+	void endRow(@Nonnegative int n) {
+		for (int c = n; c < types.length; c++) {
+			final int row = size;
+			setNull(c, row);
+			switch (types[c]) {
+				case INT:
+					((int[]) vectors[c])[row] = 0;
+					break;
+				case LONG:
+					((long[]) vectors[c])[row] = 0;
+					break;
+				case DOUBLE:
+					((double[]) vectors[c])[row] = 0;
+					break;
+				case STRING:
+					final int[] offsets = (int[]) vectors[c];
+					if (row == 0) {
+						offsets[0] = 0;
+					}
+					offsets[row + 1] = offsets[row];
+					break;
+				default:
+					((int[]) vectors[c])[row] = -1;
+			}
+		}
+		size++;
+	}
+
+	private void setNull(int column, int row) {
+		nulls[column][row >>> 6] |= 1L << row;
+	}
+
+	// Distinct values with their codes (open addressing, linear probing on the chars of the field).
+	private static final class Dictionary {
+		private final List<String> values = new ArrayList<>();
+		private int[] slots = new int[64]; // code + 1 (0 for an empty slot)
+
+		// Returns -1 when `field` is a new value and there are already `max` values.
+		int code(CharSlice field, int max) {
+			final int h = field.hashCode();
+			int mask = slots.length - 1;
+			int i = h & mask;
+			for (int s; (s = slots[i]) != 0; i = (i + 1) & mask) {
+				final String v = values.get(s - 1);
+				if (v.hashCode() == h && field.contentEquals(v)) {
+					return s - 1;
+				}
+			}
+			final int code = values.size();
+			if (code >= max) {
+				return -1;
+			}
+			values.add(field.toString());
+			slots[i] = code + 1;
+			if (values.size() > slots.length >>> 1) {
+				rehash();
+			}
+			return code;
+		}
+
+		private void rehash() {
+			slots = new int[slots.length << 1];
+			final int mask = slots.length - 1;
+			for (int code = 0; code < values.size(); code++) {
+				int i = values.get(code).hashCode() & mask;
+				while (slots[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				slots[i] = code + 1;
+			}
+		}
+	}
+}
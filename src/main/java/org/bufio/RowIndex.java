@@ -0,0 +1,283 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Checkpoints (byte offset and line number) of every `interval`-th row of a CSV file,
+ * used to start reading the file at any row without scanning the preceding ones
+ * (only up to `interval - 1` rows are skipped after seeking).
+ * Rows are numbered from 0 (the headers, if any, being row 0), comments and empty lines (unless kept) are not rows.
+ * <pre>{@code
+ * RowIndex index = RowIndex.build(path, 4096, ',', true);
+ * index.write(indexPath);
+ * // later
+ * RowIndex index = RowIndex.read(indexPath, path);
+ * try (CsvReader r = index.reader(path, 50_000_000)) {
+ *   // ...
+ * }
+ * }</pre>
+ * The index is built with the same record rules as {@link CsvReader#skipRows} (quoted fields, comments, empty and blank lines).
+ * The file must be encoded in an ASCII compatible charset (readers are created for UTF-8).
+ * An index is bound to the size and last modification time of the indexed file: a stale index is rejected.
+ */
+public final class RowIndex {
+	private static final int MAGIC = 0x43535249; // "CSRI"
+	private static final int VERSION = 2;
+
+	private final long size;
+	private final long lastModified;
+	private final char sep;
+	private final boolean quoted;
+	private char comment;
+	private boolean skipEmptyLines = true;
+	private boolean trim;
+	private final int interval;
+	private long rowCount;
+	// checkpoint i is the position of row i * interval
+	private long[] offsets;
+	private int[] linenos;
+	private int n;
+
+	private RowIndex(long size, long lastModified, char sep, boolean quoted, int interval) {
+		this.size = size;
+		this.lastModified = lastModified;
+		this.sep = sep;
+		this.quoted = quoted;
+		this.interval = interval;
+	}
+
+	/** Indexes every `interval`-th row of `path` (without comments, empty lines being skipped). */
+	@Nonnull
+	public static RowIndex build(@Nonnull Path path, @Nonnegative int interval, char sep, boolean quoted) throws IOException {
+		return build(path, interval, sep, quoted, (char) 0, true);
+	}
+
+	/**
+	 * Indexes every `interval`-th row of `path`.
+	 * See {@link CsvReader#setCommentMarker} and {@link CsvReader#setSkipEmptyLines}.
+	 */
+	@Nonnull
+	public static RowIndex build(@Nonnull Path path, @Nonnegative int interval, char sep, boolean quoted, char comment, boolean skipEmptyLines) throws IOException {
+		return build(path, interval, sep, quoted, comment, skipEmptyLines, false);
+	}
+
+	/**
+	 * Indexes every `interval`-th row of `path`.
+	 * See {@link CsvReader#setCommentMarker}, {@link CsvReader#setSkipEmptyLines} and {@link CsvReader#setTrim}
+	 * (blank lines are empty lines when trimmed).
+	 */
+	@Nonnull
+	public static RowIndex build(@Nonnull Path path, @Nonnegative int interval, char sep, boolean quoted, char comment, boolean skipEmptyLines,
+			boolean trim) throws IOException {
+		if (interval <= 0) {
+			throw new IllegalArgumentException(String.format("invalid interval: %d", interval));
+		}
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			final RowIndex index = new RowIndex(ch.size(), Files.getLastModifiedTime(path).toMillis(), sep, quoted, interval);
+			index.comment = comment;
+			index.skipEmptyLines = skipEmptyLines;
+			index.trim = trim;
+			index.scan(ch);
+			return index;
+		}
+	}
+
+	// Rows are skipped `interval` at a time by a scanner configured like the ones returned by reader and scanner.
+	private void scan(FileChannel ch) throws IOException {
+		offsets = new long[16];
+		linenos = new int[16];
+		checkpoint(0, 1);
+		final ByteCsvScanner s = new ByteCsvScanner(ch, sep, quoted);
+		s.setCommentMarker(comment);
+		s.setSkipEmptyLines(skipEmptyLines);
+		s.setTrim(trim);
+		long count;
+		while ((count = s.skipRecords(interval)) == interval) {
+			rowCount += count;
+			checkpoint(s.offset(), s.lineno());
+		}
+		rowCount += count;
+	}
+
+	private void checkpoint(long offset, int lineno) {
+		if (n == offsets.length) {
+			offsets = Arrays.copyOf(offsets, n * 2);
+			linenos = Arrays.copyOf(linenos, n * 2);
+		}
+		offsets[n] = offset;
+		linenos[n++] = lineno;
+	}
+
+	/** @return the number of rows in the indexed file. */
+	@Nonnegative
+	public long rowCount() {
+		return rowCount;
+	}
+
+	private int checkpoint(long row) {
+		if (row < 0 || row > rowCount) {
+			throw new IndexOutOfBoundsException(String.format("invalid row: %d (row count: %d)", row, rowCount));
+		}
+		return (int) Math.min(row / interval, n - 1);
+	}
+
+	/**
+	 * Returns a reader positioned before row `row` (the next call to {@link CsvReader#next} reads it).
+	 * Line numbers are the ones in the whole file.
+	 */
+	@Nonnull
+	public CsvReader reader(@Nonnull Path path, @Nonnegative long row) throws IOException {
+		final int i = checkpoint(row);
+		final FileChannel ch = open(path, offsets[i]);
+		final ByteCsvScanner s = new ByteCsvScanner(ch, sep, quoted);
+		s.setCommentMarker(comment);
+		s.setSkipEmptyLines(skipEmptyLines);
+		s.setTrim(trim);
+		s.setLineno(linenos[i]);
+		final CsvReader r = new CsvReader(s);
+		r.skipRows((int) (row - (long) i * interval));
+		return r;
+	}
+
+	/**
+	 * Returns a scanner positioned before row `row`.
+	 * Line numbers are the ones in the whole file.
+	 */
+	@Nonnull
+	public CsvScanner scanner(@Nonnull Path path, @Nonnegative long row) throws IOException {
+		final int i = checkpoint(row);
+		final FileChannel ch = open(path, offsets[i]);
+		final CsvScanner s = new CsvScanner(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.UTF_8), sep, quoted);
+		s.setCommentMarker(comment);
+		s.setSkipEmptyLines(skipEmptyLines);
+		s.setTrim(trim);
+		s.setLineno(linenos[i]);
+		s.skipRows((int) (row - (long) i * interval));
+		return s;
+	}
+
+	private FileChannel open(Path path, long offset) throws IOException {
+		final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			check(ch.size(), Files.getLastModifiedTime(path).toMillis(), path);
+			return ch.position(offset);
+		} catch (IOException | RuntimeException e) {
+			ch.close();
+			throw e;
+		}
+	}
+
+	private void check(long size, long lastModified, Path path) throws IOException {
+		if (size != this.size || lastModified != this.lastModified) {
+			throw new IOException(String.format("stale index for %s (size: %d <> %d, last modified: %d <> %d)",
+					path, size, this.size, lastModified, this.lastModified));
+		}
+	}
+
+	/** Saves this index to `indexPath` (offsets and line numbers are delta encoded). */
+	public void write(@Nonnull Path indexPath) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(size);
+			out.writeLong(lastModified);
+			out.writeChar(sep);
+			out.writeBoolean(quoted);
+			out.writeChar(comment);
+			out.writeBoolean(skipEmptyLines);
+			out.writeBoolean(trim);
+			out.writeInt(interval);
+			out.writeLong(rowCount);
+			out.writeInt(n);
+			long offset = 0;
+			int lineno = 0;
+			for (int i = 0; i < n; i++) {
+				writeVarLong(out, offsets[i] - offset);
+				writeVarLong(out, linenos[i] - lineno);
+				offset = offsets[i];
+				lineno = linenos[i];
+			}
+		}
+	}
+
+	/** Loads the index of `path` saved in `indexPath` (an IOException is thrown if `path` has changed since). */
+	@Nonnull
+	public static RowIndex read(@Nonnull Path indexPath, @Nonnull Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+			if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+				throw new IOException(String.format("not a row index: %s", indexPath));
+			}
+			final long size = in.readLong();
+			final long lastModified = in.readLong();
+			final char sep = in.readChar();
+			final boolean quoted = in.readBoolean();
+			final char comment = in.readChar();
+			final boolean skipEmptyLines = in.readBoolean();
+			final boolean trim = in.readBoolean();
+			final int interval = in.readInt();
+			if (interval <= 0) {
+				throw new IOException(String.format("invalid interval: %d", interval));
+			}
+			final RowIndex result = new RowIndex(size, lastModified, sep, quoted, interval);
+			result.check(Files.size(path), Files.getLastModifiedTime(path).toMillis(), path);
+			result.comment = comment;
+			result.skipEmptyLines = skipEmptyLines;
+			result.trim = trim;
+			result.rowCount = in.readLong();
+			result.n = in.readInt();
+			if (result.n <= 0 || result.n - 1 != result.rowCount / interval) {
+				throw new IOException(String.format("invalid checkpoint count: %d", result.n));
+			}
+			result.offsets = new long[result.n];
+			result.linenos = new int[result.n];
+			long offset = 0;
+			int lineno = 0;
+			for (int i = 0; i < result.n; i++) {
+				offset += readVarLong(in);
+				lineno += (int) readVarLong(in);
+				result.offsets[i] = offset;
+				result.linenos[i] = lineno;
+			}
+			return result;
+		}
+	}
+
+	private static void writeVarLong(DataOutputStream out, long v) throws IOException {
+		while ((v & ~0x7FL) != 0) {
+			out.writeByte((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte((int) v);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = in.readByte();
+			v |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return v;
+			}
+		}
+		throw new IOException("malformed index");
+	}
+
+	@Override
+	public String toString() {
+		return String.format("RowIndex{rows=%d, interval=%d, checkpoints=%d}", rowCount, interval, n);
+	}
+}
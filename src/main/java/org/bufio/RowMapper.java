@@ -0,0 +1,327 @@
+package org.bufio;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the rows of a {@link CsvReader} to objects of a class:
+ * JavaBeans (public no-arg constructor with setters or public fields) or records (canonical constructor).
+ * Properties are bound to the columns with the same header label (or ignoring case) once, when the mapper is created,
+ * and accessed through method handles (no reflection by row).
+ * <pre>{@code
+ * CsvReader r;
+ * r.scanHeaders(false);
+ * RowMapper<Trade> mapper = new RowMapper<>(Trade.class, r);
+ * while (r.next()) {
+ *   Trade trade = mapper.map();
+ *   // ...
+ * }
+ * }</pre>
+ * Primitive properties are decoded without creating a {@code String}, empty values (see {@link CsvReader#setEmptyIsNull})
+ * are mapped to `null` for boxed properties (0 for primitives) and other types are delegated to {@link CsvReader#getObject}
+ * (like booleans and chars, so that invalid values are rejected as in {@link Converters}).
+ */
+public final class RowMapper<T> {
+	// Class.isRecord and Class.getRecordComponents (JDK 16+)
+	private static final Method IS_RECORD = method(Class.class, "isRecord");
+	private static final Method GET_RECORD_COMPONENTS = method(Class.class, "getRecordComponents");
+
+	private enum Kind {
+		STRING, INT, LONG, DOUBLE, FLOAT, SHORT, BYTE, BOOLEAN, CHAR, OBJECT,
+	}
+
+	private static final class Property {
+		private final String name;
+		private final Class<?> type;
+		private final Kind kind;
+		// column index (0 when not bound)
+		private int columnIndex;
+		// (Object, type)void for a primitive type, (Object, Object)void otherwise (null for a record component)
+		private MethodHandle setter;
+
+		private Property(String name, Class<?> type) {
+			this.name = name;
+			this.type = type;
+			kind = kind(type);
+		}
+	}
+
+	private final CsvReader reader;
+	private final Class<T> type;
+	// ()Object for a bean, (Object[])Object for a record
+	private final MethodHandle constructor;
+	private final boolean record;
+	// all record components (in constructor order) or bound bean properties
+	private final Property[] properties;
+
+	/**
+	 * Creates a mapper from the rows of `reader` to `type` objects.
+	 * Headers must have been scanned or set (see {@link CsvReader#scanHeaders} or {@link CsvReader#withHeaders}).
+	 * @throws IllegalArgumentException if `type` is neither a record nor a class with a public no-arg constructor.
+	 * @throws ScanException if `reader` has no header.
+	 */
+	public RowMapper(@Nonnull Class<T> type, @Nonnull CsvReader reader) throws ScanException {
+		this.reader = reader;
+		this.type = type;
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			if (isRecord(type)) {
+				record = true;
+				final Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+				properties = new Property[components.length];
+				final Class<?>[] types = new Class<?>[components.length];
+				for (int i = 0; i < components.length; i++) {
+					final Class<?> c = components[i].getClass();
+					final String name = (String) c.getMethod("getName").invoke(components[i]);
+					types[i] = (Class<?>) c.getMethod("getType").invoke(components[i]);
+					properties[i] = new Property(name, types[i]);
+					properties[i].columnIndex = reader.columnIndex(name);
+				}
+				final Constructor<T> canonical = type.getDeclaredConstructor(types);
+				canonical.setAccessible(true);
+				constructor = lookup.unreflectConstructor(canonical)
+						.asType(MethodType.methodType(Object.class, types))
+						.asSpreader(Object[].class, types.length)
+						.asType(MethodType.methodType(Object.class, Object[].class));
+			} else {
+				record = false;
+				constructor = lookup.unreflectConstructor(type.getConstructor()).asType(MethodType.methodType(Object.class));
+				final Map<String, Property> properties = new LinkedHashMap<>();
+				for (Field field : type.getFields()) {
+					if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+						final Property p = new Property(field.getName(), field.getType());
+						p.setter = adapt(lookup.unreflectSetter(field), p);
+						properties.put(p.name, p);
+					}
+				}
+				for (Method method : type.getMethods()) {
+					final String name = method.getName();
+					if (name.length() > 3 && name.startsWith("set") && method.getParameterCount() == 1
+							&& !Modifier.isStatic(method.getModifiers())) {
+						final Property p = new Property(Character.toLowerCase(name.charAt(3)) + name.substring(4),
+								method.getParameterTypes()[0]);
+						p.setter = adapt(lookup.unreflect(method), p);
+						properties.put(p.name, p); // setter wins over field
+					}
+				}
+				final List<Property> bound = new ArrayList<>();
+				for (Property p : properties.values()) {
+					p.columnIndex = reader.columnIndex(p.name);
+					if (p.columnIndex > 0) {
+						bound.add(p);
+					}
+				}
+				this.properties = bound.toArray(new Property[0]);
+			}
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(String.format("%s has no public no-arg constructor", type.getName()), e);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(String.format("cannot map %s", type.getName()), e);
+		}
+	}
+
+	/**
+	 * Maps the current row of the reader (see {@link CsvReader#next}).
+	 * @throws NumberFormatException if a numeric value cannot be decoded.
+	 */
+	@Nonnull
+	public T map() throws ScanException {
+		try {
+			if (record) {
+				final Object[] args = new Object[properties.length];
+				for (int i = 0; i < properties.length; i++) {
+					final Property p = properties[i];
+					args[i] = p.columnIndex > 0 ? value(p) : p.type.isPrimitive() ? zero(p.kind) : null;
+				}
+				return type.cast((Object) constructor.invokeExact(args));
+			}
+			final Object bean = (Object) constructor.invokeExact();
+			for (Property p : properties) {
+				set(bean, p);
+			}
+			return type.cast(bean);
+		} catch (ScanException | RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(String.format("cannot map %s", type.getName()), e);
+		}
+	}
+
+	/** Returns the names of the properties bound to a column. */
+	@Nonnull
+	public List<String> boundProperties() {
+		final List<String> names = new ArrayList<>();
+		for (Property p : properties) {
+			if (p.columnIndex > 0) {
+				names.add(p.name);
+			}
+		}
+		return names;
+	}
+
+	// primitive values are passed without boxing
+	private void set(Object bean, Property p) throws Throwable {
+		final int i = p.columnIndex;
+		final boolean primitive = p.type.isPrimitive();
+		switch (p.kind) {
+			case INT:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getInt(i));
+					return;
+				}
+				break;
+			case LONG:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getLong(i));
+					return;
+				}
+				break;
+			case DOUBLE:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getDouble(i));
+					return;
+				}
+				break;
+			case FLOAT:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getFloat(i));
+					return;
+				}
+				break;
+			case SHORT:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getShort(i));
+					return;
+				}
+				break;
+			case BYTE:
+				if (primitive) {
+					p.setter.invokeExact(bean, reader.getByte(i));
+					return;
+				}
+				break;
+			case BOOLEAN:
+				if (primitive) {
+					p.setter.invokeExact(bean, ((Boolean) value(p)).booleanValue());
+					return;
+				}
+				break;
+			case CHAR:
+				if (primitive) {
+					p.setter.invokeExact(bean, ((Character) value(p)).charValue());
+					return;
+				}
+				break;
+			default:
+				break;
+		}
+		p.setter.invokeExact(bean, value(p));
+	}
+
+	// boxed value (null for an empty value)
+	private Object value(Property p) throws ScanException {
+		final int i = p.columnIndex;
+		final Object value;
+		switch (p.kind) {
+			case STRING:
+				return reader.getString(i);
+			case INT:
+				value = reader.getInt(i);
+				break;
+			case LONG:
+				value = reader.getLong(i);
+				break;
+			case DOUBLE:
+				value = reader.getDouble(i);
+				break;
+			case FLOAT:
+				value = reader.getFloat(i);
+				break;
+			case SHORT:
+				value = reader.getShort(i);
+				break;
+			case BYTE:
+				value = reader.getByte(i);
+				break;
+			case BOOLEAN:
+			case CHAR:
+				// same decoding and errors as getObject (see Converters)
+				final Object v = reader.getObject(i, p.type);
+				return v == null && p.type.isPrimitive() ? zero(p.kind) : v;
+			default:
+				return reader.getObject(i, p.type);
+		}
+		return reader.wasNull() && !p.type.isPrimitive() ? null : value;
+	}
+
+	private static MethodHandle adapt(MethodHandle setter, Property p) {
+		final Class<?> valueType = p.type.isPrimitive() ? p.type : Object.class;
+		return setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+	}
+
+	private static Kind kind(Class<?> type) {
+		if (type == String.class || type == CharSequence.class) {
+			return Kind.STRING;
+		} else if (type == int.class || type == Integer.class) {
+			return Kind.INT;
+		} else if (type == long.class || type == Long.class) {
+			return Kind.LONG;
+		} else if (type == double.class || type == Double.class) {
+			return Kind.DOUBLE;
+		} else if (type == float.class || type == Float.class) {
+			return Kind.FLOAT;
+		} else if (type == short.class || type == Short.class) {
+			return Kind.SHORT;
+		} else if (type == byte.class || type == Byte.class) {
+			return Kind.BYTE;
+		} else if (type == boolean.class || type == Boolean.class) {
+			return Kind.BOOLEAN;
+		} else if (type == char.class || type == Character.class) {
+			return Kind.CHAR;
+		}
+		return Kind.OBJECT;
+	}
+
+	private static Object zero(Kind kind) {
+		switch (kind) {
+			case INT:
+				return 0;
+			case LONG:
+				return 0L;
+			case DOUBLE:
+				return 0d;
+			case FLOAT:
+				return 0f;
+			case SHORT:
+				return (short) 0;
+			case BYTE:
+				return (byte) 0;
+			case BOOLEAN:
+				return false;
+			default:
+				return '\0';
+		}
+	}
+
+	private static boolean isRecord(Class<?> type) throws ReflectiveOperationException {
+		return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+	}
+
+	private static Method method(Class<?> type, String name) {
+		try {
+			return type.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null; // JDK < 16
+		}
+	}
+}
@@ -28,6 +28,10 @@ public abstract class Scanner<T> implements Closeable, CharSequence {
 	private int end;
 
 	private boolean eof;
+	// Incremented each time buf content is moved or refilled.
+	private int fills;
+	// Start of the data which must be kept in buf (see mark) or -1.
+	private int mark = -1;
 
 	protected Scanner(@WillCloseWhenClosed @Nonnull Reader r) {
 		init(r);
@@ -54,6 +58,8 @@ public abstract class Scanner<T> implements Closeable, CharSequence {
 		start = 0;
 		end = 0;
 		eof = false;
+		mark = -1;
+		fills++;
 	}
 
 	/**
@@ -94,25 +100,28 @@ public abstract class Scanner<T> implements Closeable, CharSequence {
 	private void read() throws IOException {
 		// Must read more data.
 		// First, shift data to beginning of buffer if there's lots of empty space
-		// or space is needed.
-		if (start > 0 && (end == buf.length || start > buf.length / 2)) {
-			System.arraycopy(buf, start, buf, 0, end - start);
-			end -= start;
-			start = 0;
+		// or space is needed (marked data is kept).
+		final int keep = mark < 0 ? start : mark;
+		if (keep > 0 && (end == buf.length || keep > buf.length / 2)) {
+			System.arraycopy(buf, keep, buf, 0, end - keep);
+			end -= keep;
+			start -= keep;
+			if (mark > 0) {
+				mark = 0;
+			}
 		}
 		// Is the buffer full? If so, resize.
 		if (end == buf.length) {
 			if (buf.length >= maxTokenSize || buf.length > Integer.MAX_VALUE / 2) {
-				throw new ScanException("token too long");
+				throw new ScanException(mark < 0 ? "token too long" : "row too long");
 			}
 			int newSize = Math.min(buf.length * 2, maxTokenSize);
 			char[] newBuf = new char[newSize];
-			System.arraycopy(buf, start, newBuf, 0, end - start);
+			System.arraycopy(buf, 0, newBuf, 0, end);
 			buf = newBuf;
-			end -= start;
-			start = 0;
 		}
 		// Finally, we can read some input.
+		fills++;
 		int n = r.read(buf, end, buf.length - end);
 		if (n < 0) {
 			eof = true;
@@ -160,6 +169,45 @@ public abstract class Scanner<T> implements Closeable, CharSequence {
 		start = n;
 	}
 
+	/** @return A counter incremented each time the buffer content is moved or refilled (positions are stable in between). */
+	int fills() {
+		return fills;
+	}
+
+	/**
+	 * Keeps the data from the current position in the buffer until {@link #unmark} (or the next mark):
+	 * data may be moved (see {@link #marked}) but not discarded.
+	 */
+	void mark() {
+		mark = start;
+	}
+
+	void unmark() {
+		mark = -1;
+	}
+
+	/** @return Current position of the marked data in {@link #buffer} (or -1). */
+	int marked() {
+		return mark;
+	}
+
+	/** @return The current buffer (replaced when resized). */
+	char[] buffer() {
+		return buf;
+	}
+
+	/**
+	 * Reads more data into the buffer, after the non-processed data (which may be moved, see {@link #position}).
+	 * @return false when the end of the input had already been reached.
+	 */
+	boolean fill() throws IOException {
+		if (eof) {
+			return false;
+		}
+		read();
+		return true;
+	}
+
 	/** @return Position of the first non-processed byte in buffer. */
 	@Nonnegative
 	protected int position() {
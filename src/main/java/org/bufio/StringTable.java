@@ -0,0 +1,174 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded table of canonical strings for a low-cardinality column (like a country or currency code).
+ * Lookups are done on the chars (or ASCII bytes) of a field: a {@code String} is only created the first time a value is seen.
+ * When the table is full and most lookups miss (high-cardinality column), its content is evicted,
+ * and after {@link #MAX_EVICTIONS} evictions, interning is disabled (values are simply copied).
+ */
+final class StringTable {
+	// longer values are not interned
+	static final int MAX_LENGTH = 64;
+	static final int MAX_EVICTIONS = 2;
+	static final int MAX_CAPACITY = 1 << 20;
+
+	private final int capacity;
+	private String[] slots; // open addressing, linear probing
+	private int size;
+	// lookups/misses since the table is full
+	private int lookups;
+	private int misses;
+	private int evictions;
+
+	/** @param capacity maximum number of distinct values */
+	StringTable(@Nonnegative int capacity) {
+		if (capacity <= 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException(String.format("invalid capacity: %d", capacity));
+		}
+		this.capacity = capacity;
+		slots = new String[Integer.highestOneBit(capacity) << 2]; // at most half full
+	}
+
+	/** Returns the canonical string with the same content as `s`. */
+	@Nonnull
+	String intern(@Nonnull CharSequence s) {
+		final int len = s.length();
+		if (slots == null || len > MAX_LENGTH) {
+			return s.toString();
+		}
+		int h = 0;
+		for (int i = 0; i < len; i++) {
+			h = 31 * h + s.charAt(i);
+		}
+		final int mask = slots.length - 1;
+		int i = h & mask;
+		for (String v; (v = slots[i]) != null; i = (i + 1) & mask) {
+			if (v.length() == len && v.hashCode() == h && contentEquals(v, s)) {
+				return hit(v);
+			}
+		}
+		return miss(i, s.toString());
+	}
+
+	/** Returns the canonical string of the ASCII bytes `b[off, off + len)`. */
+	@Nonnull
+	String intern(@Nonnull byte[] b, @Nonnegative int off, @Nonnegative int len) {
+		if (slots == null || len > MAX_LENGTH) {
+			return new String(b, off, len, StandardCharsets.ISO_8859_1);
+		}
+		int h = 0;
+		for (int i = off; i < off + len; i++) {
+			h = 31 * h + b[i];
+		}
+		final int mask = slots.length - 1;
+		int i = h & mask;
+		for (String v; (v = slots[i]) != null; i = (i + 1) & mask) {
+			if (v.length() == len && v.hashCode() == h && contentEquals(v, b, off)) {
+				return hit(v);
+			}
+		}
+		return miss(i, new String(b, off, len, StandardCharsets.ISO_8859_1));
+	}
+
+	/** Number of distinct values currently in the table. */
+	@Nonnegative
+	int size() {
+		return size;
+	}
+
+	/** Reports whether interning has been disabled because the column has too many distinct values. */
+	boolean isDisabled() {
+		return slots == null;
+	}
+
+	private String hit(String v) {
+		if (size == capacity) {
+			lookups++;
+		}
+		return v;
+	}
+
+	private String miss(int slot, String v) {
+		if (size < capacity) {
+			slots[slot] = v;
+			size++;
+			return v;
+		}
+		lookups++;
+		misses++;
+		if (lookups == capacity << 2) { // the hit ratio is checked by windows of 4 * capacity lookups
+			if (misses > lookups >> 1) {
+				evict();
+			}
+			lookups = 0;
+			misses = 0;
+		}
+		return v;
+	}
+
+	private void evict() {
+		if (++evictions > MAX_EVICTIONS) {
+			slots = null;
+		} else {
+			Arrays.fill(slots, null);
+		}
+		size = 0;
+	}
+
+	private static boolean contentEquals(String v, CharSequence s) {
+		for (int i = 0; i < v.length(); i++) {
+			if (v.charAt(i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contentEquals(String v, byte[] b, int off) {
+		for (int i = 0; i < v.length(); i++) {
+			if (v.charAt(i) != b[off + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns `tables` (possibly resized) with a new table of `capacity` values for `column` (first column is 1)
+	 * or without table for this column when `capacity` is 0.
+	 */
+	@Nullable
+	static StringTable[] set(@Nullable StringTable[] tables, @Nonnegative int column, @Nonnegative int capacity) {
+		if (column < 1) {
+			throw new IllegalArgumentException(String.format("invalid column: %d", column));
+		}
+		if (capacity < 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException(String.format("invalid capacity: %d", capacity));
+		}
+		if (tables == null) {
+			if (capacity == 0) {
+				return null;
+			}
+			tables = new StringTable[column];
+		} else if (tables.length < column) {
+			if (capacity == 0) {
+				return tables;
+			}
+			tables = Arrays.copyOf(tables, column);
+		}
+		tables[column - 1] = capacity == 0 ? null : new StringTable(capacity);
+		return tables;
+	}
+
+	/** Returns the table of `column` (first column is 1) or `null`. */
+	@Nullable
+	static StringTable get(@Nullable StringTable[] tables, @Nonnegative int column) {
+		return tables == null || column > tables.length || column < 1 ? null : tables[column - 1];
+	}
+}
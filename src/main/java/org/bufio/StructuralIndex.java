@@ -0,0 +1,184 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Structural index of a buffer (used by {@link CsvEngine#INDEXED}):
+ * quote, separator and newline positions are first classified as bitmaps by blocks of 64 chars,
+ * then in-quote regions are computed with a prefix-XOR on the quote bitmaps
+ * and the separators/newlines outside quotes are kept as field boundaries.
+ * Blocks are indexed lazily, in batches, starting from a field start (which must be outside quotes).
+ */
+final class StructuralIndex {
+	static final BlockClassifier SCALAR = new ScalarBlockClassifier();
+	// Vectorized when the JDK Vector API is available.
+	static final BlockClassifier CLASSIFIER = load();
+	// Number of blocks classified at once
+	private static final int BATCH = 16;
+
+	private final char sep;
+	private final boolean quoted;
+
+	private char[] data;
+	// Position of the first block
+	private int base;
+	// End of data
+	private int end;
+	// Number of indexed blocks
+	private int blocks;
+	// True when the last indexed block ends inside quotes
+	private boolean inQuotes;
+
+	private long[] quotes = new long[BATCH];
+	private long[] seps = new long[BATCH];
+	private long[] lfs = new long[BATCH];
+	// separators and newlines outside quotes
+	private long[] structurals = new long[BATCH];
+
+	StructuralIndex(char sep, boolean quoted) {
+		this.sep = sep;
+		this.quoted = quoted;
+	}
+
+	private static BlockClassifier load() {
+		try {
+			// only present in the multi-release section of the jar (JDK 17+)
+			final Class<?> c = Class.forName("org.bufio.VectorBlockClassifier");
+			return (BlockClassifier) c.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// missing class or module (`--add-modules jdk.incubator.vector`)
+			return SCALAR;
+		}
+	}
+
+	/** Starts a new index on `data[from, end)`, `from` being a field start. */
+	void reset(@Nonnull char[] data, @Nonnegative int from, @Nonnegative int end) {
+		this.data = data;
+		this.base = from;
+		this.end = end;
+		blocks = 0;
+		inQuotes = false;
+	}
+
+	/**
+	 * Returns the position of the first separator or newline outside quotes in `[pos, end)` or -1.
+	 */
+	int next(@Nonnegative int pos) {
+		int b = (pos - base) >> 6;
+		long mask = -1L << ((pos - base) & 63);
+		while (true) {
+			while (b >= blocks) {
+				if (!index()) {
+					return -1;
+				}
+			}
+			final long m = structurals[b] & mask;
+			if (m != 0) {
+				return base + (b << 6) + Long.numberOfTrailingZeros(m);
+			}
+			b++;
+			mask = -1L;
+		}
+	}
+
+	/**
+	 * Returns the position of the first quote in `[pos, to)` or -1.
+	 * `[pos, to)` must have been indexed (see {@link #next}).
+	 */
+	int nextQuote(@Nonnegative int pos, @Nonnegative int to) {
+		return first(quotes, pos, to);
+	}
+
+	/**
+	 * Returns the number of newlines in `[from, to)`.
+	 * `[from, to)` must have been indexed (see {@link #next}).
+	 */
+	int countNewlines(@Nonnegative int from, @Nonnegative int to) {
+		int count = 0;
+		for (int pos = from; pos < to; ) {
+			final int b = (pos - base) >> 6;
+			final int blockEnd = base + ((b + 1) << 6);
+			count += Long.bitCount(lfs[b] & range(pos, Math.min(to, blockEnd)));
+			pos = blockEnd;
+		}
+		return count;
+	}
+
+	private int first(long[] bitmaps, int pos, int to) {
+		while (pos < to) {
+			final int b = (pos - base) >> 6;
+			final int blockEnd = base + ((b + 1) << 6);
+			final long m = bitmaps[b] & range(pos, Math.min(to, blockEnd));
+			if (m != 0) {
+				return base + (b << 6) + Long.numberOfTrailingZeros(m);
+			}
+			pos = blockEnd;
+		}
+		return -1;
+	}
+
+	// Bits of [from, to) in their (same) block
+	private long range(int from, int to) {
+		final int lo = (from - base) & 63;
+		final int n = to - from;
+		return n == 64 ? -1L : ((1L << n) - 1) << lo;
+	}
+
+	// Indexes the next batch of blocks. Returns false when there is no more data.
+	private boolean index() {
+		final int from = base + (blocks << 6);
+		if (from >= end) {
+			return false;
+		}
+		final int to = Math.min(end, from + (BATCH << 6));
+		final int n = (to - from + 63) >> 6;
+		if (blocks + n > structurals.length) {
+			final int length = Math.max(structurals.length * 2, blocks + n);
+			quotes = Arrays.copyOf(quotes, length);
+			seps = Arrays.copyOf(seps, length);
+			lfs = Arrays.copyOf(lfs, length);
+			structurals = Arrays.copyOf(structurals, length);
+		}
+		CLASSIFIER.classify(data, from, to, sep, quoted, quotes, seps, lfs, blocks);
+		for (int b = blocks; b < blocks + n; b++) {
+			final long q = prefixXor(quotes[b]) ^ (inQuotes ? -1L : 0L);
+			inQuotes = q < 0; // last bit
+			structurals[b] = (seps[b] | lfs[b]) & ~q;
+		}
+		blocks += n;
+		return true;
+	}
+
+	// Bit i is set when the number of bits set in [0, i] is odd.
+	static long prefixXor(long x) {
+		x ^= x << 1;
+		x ^= x << 2;
+		x ^= x << 4;
+		x ^= x << 8;
+		x ^= x << 16;
+		x ^= x << 32;
+		return x;
+	}
+
+	private static final class ScalarBlockClassifier implements BlockClassifier {
+		@Override
+		public void classify(@Nonnull char[] data, @Nonnegative int from, @Nonnegative int to, char sep, boolean quoted,
+				@Nonnull long[] quotes, @Nonnull long[] seps, @Nonnull long[] lfs, @Nonnegative int off) {
+			for (int i = from, b = off; i < to; b++) {
+				final int n = Math.min(64, to - i);
+				long q = 0, s = 0, l = 0;
+				for (int k = 0; k < n; k++, i++) {
+					final char c = data[i];
+					q |= (c == '"' ? 1L : 0L) << k;
+					s |= (c == sep ? 1L : 0L) << k;
+					l |= (c == '\n' ? 1L : 0L) << k;
+				}
+				quotes[b] = quoted ? q : 0L;
+				seps[b] = s;
+				lfs[b] = l;
+			}
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.bufio;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD within a register: searches several code units per 64-bit word
+ * (4 chars or 8 bytes) instead of one at a time.
+ */
+final class Swar {
+	private static final long ONES16 = 0x0001000100010001L;
+	private static final long LOW15 = 0x7FFF7FFF7FFF7FFFL;
+	private static final long ONES8 = 0x0101010101010101L;
+	private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+	private Swar() {
+	}
+
+	/**
+	 * Returns the index of the first occurrence of `a` or `b` in `data[from, to)` or `to` if there is none.
+	 */
+	@Nonnegative
+	static int indexOf(@Nonnull char[] data, @Nonnegative int from, @Nonnegative int to, char a, char b) {
+		int i = from;
+		if (to - from >= 8) {
+			final long pa = a * ONES16, pb = b * ONES16;
+			for (; i + 4 <= to; i += 4) {
+				final long w = data[i] | (long) data[i + 1] << 16 | (long) data[i + 2] << 32 | (long) data[i + 3] << 48;
+				final long m = zeros16(w ^ pa) | zeros16(w ^ pb);
+				if (m != 0) {
+					return i + (Long.numberOfTrailingZeros(m) >>> 4);
+				}
+			}
+		}
+		for (; i < to; i++) {
+			final char c = data[i];
+			if (c == a || c == b) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of `a` or `b` in `data[from, to)` or `to` if there is none.
+	 */
+	@Nonnegative
+	static int indexOf(@Nonnull ByteBuffer data, @Nonnegative int from, @Nonnegative int to, byte a, byte b) {
+		int i = from;
+		if (to - from >= 16) {
+			final long pa = (a & 0xFFL) * ONES8, pb = (b & 0xFFL) * ONES8;
+			final boolean bigEndian = data.order() == ByteOrder.BIG_ENDIAN;
+			for (; i + 8 <= to; i += 8) {
+				final long w = data.getLong(i);
+				final long m = zeros8(w ^ pa) | zeros8(w ^ pb);
+				if (m != 0) {
+					return i + ((bigEndian ? Long.numberOfLeadingZeros(m) : Long.numberOfTrailingZeros(m)) >>> 3);
+				}
+			}
+		}
+		for (; i < to; i++) {
+			final byte c = data.get(i);
+			if (c == a || c == b) {
+				return i;
+			}
+		}
+		return to;
+	}
+
+	// Sets the high bit of each 16-bit lane which is zero (exact: no false positive).
+	private static long zeros16(long x) {
+		return ~(((x & LOW15) + LOW15) | x | LOW15);
+	}
+
+	// Sets the high bit of each 8-bit lane which is zero (exact: no false positive).
+	private static long zeros8(long x) {
+		return ~(((x & LOW7) + LOW7) | x | LOW7);
+	}
+}
@@ -0,0 +1,58 @@
+package org.bufio;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Block classifier using the JDK Vector API (JDK 17+ with `--add-modules jdk.incubator.vector`).
+ * Loaded by {@link StructuralIndex} when available.
+ */
+final class VectorBlockClassifier implements BlockClassifier {
+	// at most 16 lanes, so that lane weights fit in a short
+	private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED.length() > 16 ?
+			ShortVector.SPECIES_256 : ShortVector.SPECIES_PREFERRED;
+	private static final ShortVector ZERO = ShortVector.zero(SPECIES);
+	// lane i is 1 << i (VectorMask.toLong is not an intrinsic in JDK 17, an OR reduction is)
+	private static final ShortVector WEIGHTS = ShortVector.fromArray(SPECIES, weights(), 0);
+
+	private static short[] weights() {
+		final short[] weights = new short[SPECIES.length()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = (short) (1 << i);
+		}
+		return weights;
+	}
+
+	@Override
+	public void classify(@Nonnull char[] data, @Nonnegative int from, @Nonnegative int to, char sep, boolean quoted,
+			@Nonnull long[] quotes, @Nonnull long[] seps, @Nonnull long[] lfs, @Nonnegative int off) {
+		final int lanes = SPECIES.length();
+		int i = from, b = off;
+		for (; i + 64 <= to; i += 64, b++) {
+			long q = 0, s = 0, l = 0;
+			for (int k = 0; k < 64; k += lanes) {
+				final ShortVector v = ShortVector.fromCharArray(SPECIES, data, i + k);
+				if (quoted) {
+					q |= bits(v, '"') << k;
+				}
+				s |= bits(v, sep) << k;
+				l |= bits(v, '\n') << k;
+			}
+			quotes[b] = q;
+			seps[b] = s;
+			lfs[b] = l;
+		}
+		if (i < to) { // partial block
+			StructuralIndex.SCALAR.classify(data, i, to, sep, quoted, quotes, seps, lfs, b);
+		}
+	}
+
+	// bit i is set when lane i is equal to c
+	private static long bits(ShortVector v, char c) {
+		return ZERO.blend(WEIGHTS, v.eq((short) c)).reduceLanes(VectorOperators.OR) & 0xFFFFL;
+	}
+}
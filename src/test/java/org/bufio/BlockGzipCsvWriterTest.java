@@ -0,0 +1,134 @@
+package org.bufio;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class BlockGzipCsvWriterTest {
+	private static void writeRows(CsvWriter w, int n) throws IOException {
+		w.writeRow("id", "text", "value");
+		for (int i = 0; i < n; i++) {
+			w.writeInt(i);
+			w.write(i % 3 == 0 ? "multi\nline, \"quoted\" é" : "plain");
+			w.writeDouble(i * 0.25);
+			w.endOfRow();
+		}
+	}
+
+	private static String gunzip(byte[] gz) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+			final byte[] b = new byte[8192];
+			int n;
+			while ((n = in.read(b)) > 0) {
+				out.write(b, 0, n);
+			}
+		}
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testBlocks() throws IOException {
+		final StringWriter expected = new StringWriter();
+		try (CsvWriter w = new CsvWriter(expected)) {
+			writeRows(w, 10_000);
+		}
+		final Path path = Files.createTempFile("blocks", ".csv.gz");
+		try {
+			final BlockGzipCsvWriter w = new BlockGzipCsvWriter(Files.newOutputStream(path));
+			w.setBlockSize(4096);
+			w.setLevel(1);
+			writeRows(w, 10_000);
+			w.close();
+			final byte[] gz = Files.readAllBytes(path);
+			assertEquals(expected.toString(), gunzip(gz));
+
+			final BlockGzipIndex index = w.getIndex();
+			assertTrue(index.toString(), index.blockCount() > 10);
+			assertEquals(10_001, index.rowCount());
+			assertEquals(0, index.blockOffset(0));
+			assertEquals(0, index.firstRow(0));
+			final BlockGzipIndex scanned;
+			try (FileChannel ch = FileChannel.open(path)) {
+				scanned = BlockGzipIndex.scan(ch);
+			}
+			final ByteArrayOutputStream saved = new ByteArrayOutputStream();
+			index.write(saved);
+			final BlockGzipIndex loaded = BlockGzipIndex.read(new ByteArrayInputStream(saved.toByteArray()));
+			for (BlockGzipIndex other : new BlockGzipIndex[]{scanned, loaded}) {
+				assertEquals(index.blockCount(), other.blockCount());
+				for (int i = 0; i <= index.blockCount(); i++) {
+					assertEquals(index.blockOffset(i), other.blockOffset(i));
+					assertEquals(index.firstRow(i), other.firstRow(i));
+				}
+			}
+
+			// each block contains complete rows
+			for (int i = 0; i < index.blockCount(); i++) {
+				final int from = (int) index.blockOffset(i);
+				final int to = (int) index.blockOffset(i + 1);
+				final byte[] block = new byte[to - from];
+				System.arraycopy(gz, from, block, 0, block.length);
+				int rows = 0;
+				try (CsvReader r = new CsvReader(new java.io.StringReader(gunzip(block)))) {
+					while (r.next()) {
+						assertEquals(3, r.values().length);
+						rows++;
+					}
+				}
+				assertEquals(index.firstRow(i + 1) - index.firstRow(i), rows);
+				assertEquals(i, index.findBlock(index.firstRow(i)));
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testFlushAndPartialRow() throws IOException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final BlockGzipCsvWriter w = new BlockGzipCsvWriter(bos);
+		w.writeRow("a", "b");
+		w.flush();
+		assertEquals("a,b\n", gunzip(bos.toByteArray()));
+		w.write("c");
+		w.flush(); // a partial row is not flushed
+		assertEquals(1, w.getIndex().blockCount());
+		w.close();
+		assertEquals("a,b\nc", gunzip(bos.toByteArray()));
+		assertEquals(2, w.getIndex().rowCount());
+	}
+
+	@Test
+	public void testGunzip() throws IOException, InterruptedException {
+		final Path path = Files.createTempFile("blocks", ".csv.gz");
+		try {
+			try (BlockGzipCsvWriter w = new BlockGzipCsvWriter(Files.newOutputStream(path))) {
+				w.setBlockSize(1000);
+				writeRows(w, 1000);
+			}
+			final Process p;
+			try {
+				p = new ProcessBuilder("gzip", "-t", path.toString()).start();
+			} catch (IOException e) {
+				Assume.assumeNoException(e);
+				return;
+			}
+			assertEquals(0, p.waitFor());
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
@@ -0,0 +1,308 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ByteCsvScannerTest {
+	@Test
+	public void testScan() throws IOException {
+		ByteCsvScanner r;
+		for (ReadTest t : ReadTest.tests) {
+			r = new ByteCsvScanner(new ByteArrayInputStream(t.input.getBytes(StandardCharsets.UTF_8)), t.sep, t.quoted);
+			r.setCommentMarker(t.comment);
+			r.setTrim(t.trim);
+			r.setSkipEmptyLines(t.skipEmptyLines);
+
+			int i = 0, j = 0;
+			try {
+				while (r.scan()) {
+					if (i >= t.output.length) {
+						fail(String.format("%s: unexpected number of row %d; want %d max", t.name, i + 1, t.output.length));
+					} else if (j >= t.output[i].length) {
+						fail(String.format("%s: unexpected number of column %d; want %d at line %d", t.name, j + 1, t.output[i].length, i + 1));
+					}
+					if (!t.output[i][j].equals(r.value())) {
+						fail(String.format("%s: unexpected value '%s'; want '%s' at line %d, column %d", t.name, r.value(), t.output[i][j], i + 1, j + 1));
+					}
+					if (r.atEndOfRow()) {
+						j = 0;
+						i++;
+					} else {
+						j++;
+					}
+				}
+				if (t.error != null) {
+					fail(String.format("%s: error '%s', want error '%s'", t.name, null, t.error));
+				}
+				if (i != t.output.length) {
+					fail(String.format("%s: unexpected number of row %d; want %d", t.name, i, t.output.length));
+				}
+			} catch (ScanException e) {
+				if (t.error != null) {
+					if (!e.getMessage().contains(t.error)) {
+						fail(String.format("%s: error '%s', want error '%s'", t.name, e, t.error));
+					} else if (t.line != 0 && (t.line != r.lineno() || t.column != j + 1)) {
+						fail(String.format("%s: error at %d:%d expected %d:%d", t.name, r.lineno(), j + 1, t.line, t.column));
+					}
+				} else {
+					fail(String.format("%s: unexpected error '%s'", t.name, e));
+				}
+			} finally {
+				r.close();
+			}
+		}
+	}
+
+	@Test
+	public void testScanRowFromChannel() throws IOException {
+		ByteCsvScanner r;
+		for (ReadTest t : ReadTest.tests) {
+			if (t.error != null) {
+				continue;
+			}
+			r = new ByteCsvScanner(Channels.newChannel(new ByteArrayInputStream(t.input.getBytes(StandardCharsets.UTF_8))), t.sep, t.quoted);
+			r.setCommentMarker(t.comment);
+			r.setTrim(t.trim);
+			r.setSkipEmptyLines(t.skipEmptyLines);
+
+			int i = 0, j;
+			String[] values = new String[10];
+			while ((j = r.scanRow(values)) > 0) {
+				assertTrue(t.name, i < t.output.length);
+				assertArrayEquals(t.name, t.output[i], Arrays.copyOf(values, j));
+				i++;
+			}
+			assertEquals(t.name, t.output.length, i);
+			r.close();
+		}
+	}
+
+	@Test
+	public void testUtf8() throws IOException {
+		final String input = "é,日本語,\"a\"\"€\"\nascii,😀,";
+		ByteCsvScanner r = new ByteCsvScanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+		String[] values = new String[3];
+		assertEquals(3, r.scanRow(values));
+		assertArrayEquals(new String[]{"é", "日本語", "a\"€"}, values);
+		assertEquals(3, r.scanRow(values));
+		assertArrayEquals(new String[]{"ascii", "😀", ""}, values);
+		assertEquals(0, r.scanRow(values));
+		r.close();
+	}
+
+	@Test
+	public void testInvalidUtf8() throws IOException {
+		ByteCsvScanner r = new ByteCsvScanner(new ByteArrayInputStream(new byte[]{'a', ',', (byte) 0xC3, ',', 'b'}));
+		assertTrue(r.scan());
+		assertEquals("a", r.value());
+		assertTrue(r.scan());
+		assertEquals(1, r.valueLength()); // not decoded
+		try {
+			r.value();
+			fail();
+		} catch (ScanException e) {
+			assertEquals("invalid UTF-8 sequence at line 1, column 2", e.getMessage());
+		}
+		assertTrue(r.scan());
+		assertEquals("b", r.value());
+		assertFalse(r.scan());
+		r.close();
+	}
+
+	@Test
+	public void testCopyTo() throws IOException {
+		ByteCsvScanner r = new ByteCsvScanner(Channels.newChannel(new ByteArrayInputStream("abc,\"d,e\"".getBytes(StandardCharsets.UTF_8))), ',', true);
+		byte[] dst = new byte[4];
+		assertTrue(r.scan());
+		assertEquals(3, r.copyTo(dst, 1));
+		assertArrayEquals(new byte[]{0, 'a', 'b', 'c'}, dst);
+		assertTrue(r.scan());
+		assertEquals(3, r.copyTo(dst, 0));
+		assertEquals("d,e", r.value());
+		r.close();
+	}
+
+	@Test
+	public void testLargeBuffer() throws IOException {
+		byte[] bytes = new byte[4096 + 1024];
+		Arrays.fill(bytes, (byte) 'c');
+		bytes[4200] = ',';
+		final ByteCsvScanner r = new ByteCsvScanner(Channels.newChannel(new ByteArrayInputStream(bytes)), ',', true);
+		assertTrue(r.scan());
+		assertEquals(4200, r.value().length());
+		assertTrue(r.scan());
+		assertEquals(919, r.value().length());
+		assertFalse(r.scan());
+		r.close();
+	}
+
+	@Test
+	public void testMapped() throws IOException {
+		final Path path = Files.createTempFile("mapped", ".csv");
+		try {
+			for (ReadTest t : ReadTest.tests) {
+				Files.write(path, t.input.getBytes(StandardCharsets.UTF_8));
+				for (int windowSize : new int[]{1, 8, 4096}) {
+					final ByteCsvScanner s = new ByteCsvScanner(FileChannel.open(path), windowSize, t.sep, t.quoted);
+					final CsvReader r = new CsvReader(s);
+					r.setCommentMarker(t.comment);
+					r.setTrim(t.trim);
+					r.setSkipEmptyLines(t.skipEmptyLines);
+					CsvRreaderTest.check(t, r, true);
+					assertTrue(t.name, t.error != null || s.atEndOfFile());
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testMappedRegions() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < 3 * 1024 * 1024; i++) {
+			sb.append(i).append(",\"quoted,").append(i % 7).append("\"\n");
+		}
+		final Path path = Files.createTempFile("mapped", ".csv");
+		try {
+			Files.write(path, sb.toString().getBytes(StandardCharsets.UTF_8));
+			try (ByteCsvScanner r = new ByteCsvScanner(new ByteArrayInputStream(Files.readAllBytes(path)));
+					 ByteCsvScanner m = new ByteCsvScanner(FileChannel.open(path), 100, ',', true)) {
+				while (r.scan()) {
+					assertTrue(m.scan());
+					assertEquals(r.value(), m.value());
+					assertEquals(r.atEndOfRow(), m.atEndOfRow());
+				}
+				assertFalse(m.scan());
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testCountAndSkipRows() throws IOException {
+		final Path path = Files.createTempFile("count", ".csv");
+		try {
+			for (ReadTest t : ReadTest.tests) {
+				if (t.error != null) {
+					continue;
+				}
+				final byte[] bytes = t.input.getBytes(StandardCharsets.UTF_8);
+				Files.write(path, bytes);
+				final int lineno;
+				try (ByteCsvScanner r = scanner(t, new ByteArrayInputStream(bytes))) {
+					while (r.scan()) {
+						// consume
+					}
+					lineno = r.lineno();
+				}
+				try (ByteCsvScanner r = scanner(t, new ByteArrayInputStream(bytes));
+						 ByteCsvScanner m = new ByteCsvScanner(FileChannel.open(path), 8, t.sep, t.quoted)) {
+					m.setCommentMarker(t.comment);
+					m.setTrim(t.trim);
+					m.setSkipEmptyLines(t.skipEmptyLines);
+					assertEquals(t.name, t.output.length, r.countRows());
+					assertEquals(t.name, lineno, r.lineno());
+					assertEquals(t.name, t.output.length, m.countRows());
+					assertEquals(t.name, lineno, m.lineno());
+				}
+				for (int k = 0; k < t.output.length; k++) {
+					try (ByteCsvScanner r = scanner(t, new ByteArrayInputStream(bytes))) {
+						r.skipRows(k);
+						final List<String> row = new ArrayList<>();
+						while (r.scan()) {
+							row.add(r.value());
+							if (r.atEndOfRow()) {
+								break;
+							}
+						}
+						assertEquals(t.name + " row " + k, Arrays.asList(t.output[k]), row);
+					}
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	private static ByteCsvScanner scanner(ReadTest t, InputStream in) {
+		final ByteCsvScanner r = new ByteCsvScanner(in, t.sep, t.quoted);
+		r.setCommentMarker(t.comment);
+		r.setTrim(t.trim);
+		r.setSkipEmptyLines(t.skipEmptyLines);
+		return r;
+	}
+
+	@Test
+	public void testCountRowsAcrossBuffers() throws IOException {
+		final Random random = new Random(25);
+		final Path path = Files.createTempFile("count", ".csv");
+		try {
+			for (int n = 0; n < 100; n++) {
+				final String input = CsvScannerTest.randomInput(random);
+				final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+				Files.write(path, bytes);
+				long expected = 0;
+				int lineno = 0;
+				String error = null;
+				try (CsvScanner r = new CsvScanner(new StringReader(input))) {
+					r.setCommentMarker('#');
+					while (r.scan()) {
+						if (r.atEndOfRow()) {
+							expected++;
+						}
+					}
+					lineno = r.lineno();
+				} catch (ScanException e) {
+					error = e.getMessage();
+				}
+				final InputStream slow = new ByteArrayInputStream(bytes) {
+					@Override
+					public synchronized int read(byte[] b, int off, int len) {
+						return super.read(b, off, Math.min(len, 7));
+					}
+				};
+				for (ByteCsvScanner r : new ByteCsvScanner[]{new ByteCsvScanner(slow), new ByteCsvScanner(FileChannel.open(path), 64, ',', true)}) {
+					r.setCommentMarker('#');
+					try {
+						assertEquals(expected, r.countRows());
+						assertNull(error);
+						assertEquals(lineno, r.lineno());
+					} catch (ScanException e) {
+						assertEquals(error, e.getMessage());
+					} finally {
+						r.close();
+					}
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testNonAsciiSeparator() {
+		try {
+			new ByteCsvScanner(new ByteArrayInputStream(new byte[0]), '§', true);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("ASCII"));
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ByteCsvWriterTest {
+	@Test
+	public void testWriteRow() throws IOException {
+		for (WriteTest t : WriteTest.tests) {
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (CsvWriter w = new ByteCsvWriter(bos, t.sep, t.quoted)) {
+				w.setCommentMarker(t.comment);
+				if (t.useCRLF) {
+					w.useCRLF();
+				}
+				for (String[] row : t.input) {
+					w.writeRow(row);
+				}
+				w.flush();
+				if (t.error != null) {
+					fail(String.format("%s: error '%s', want error '%s'", t.name, null, t.error));
+				}
+				assertEquals(t.name, t.output, new String(bos.toByteArray(), StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				if (t.error == null || !e.getMessage().contains(t.error)) {
+					fail(String.format("%s: unexpected error '%s'", t.name, e));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testUtf8() throws IOException {
+		final String[][] rows = {
+				{"ascii", "é,è", "€\"x\"", "😀 emoji", "\uD800 lone", "lone \uDC00", "\uD83D"},
+				{"日本語", "", "a\nb", "߿ࠀ￿"},
+		};
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		final CsvWriter w = new CsvWriter(new OutputStreamWriter(expected, StandardCharsets.UTF_8));
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final ByteCsvWriter bw = new ByteCsvWriter(bos);
+		for (String[] row : rows) {
+			w.writeRow(row);
+			bw.writeRow(row);
+		}
+		w.writeComment("#", "comment");
+		bw.writeComment("#", "comment");
+		w.close();
+		bw.close();
+		assertArrayEquals(expected.toByteArray(), bos.toByteArray());
+	}
+
+	@Test
+	public void testLarge() throws IOException {
+		final Random r = new Random(7);
+		final StringWriter expected = new StringWriter();
+		final CsvWriter w = new CsvWriter(expected);
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final ByteCsvWriter bw = new ByteCsvWriter(Channels.newChannel(bos), ',', true);
+		final char[] chars = {'a', 'z', '0', ',', '"', 'é', '€', '\uD83D', '\uDE00', '\n'};
+		for (int i = 0; i < 2000; i++) {
+			final char[] value = new char[r.nextInt(i % 100 == 0 ? 50000 : 200)];
+			for (int j = 0; j < value.length; j++) {
+				value[j] = chars[r.nextInt(chars.length)];
+			}
+			w.write(value);
+			bw.write(value);
+			w.writeDouble(i * 0.1);
+			bw.writeDouble(i * 0.1);
+			w.endOfRow();
+			bw.endOfRow();
+		}
+		w.close();
+		bw.close();
+		assertArrayEquals(expected.toString().getBytes(StandardCharsets.UTF_8), bos.toByteArray());
+	}
+
+	@Test
+	public void testFileChannel() throws IOException {
+		final Path tmp = Files.createTempFile("bytecsvwriter", ".csv");
+		try {
+			final String[] row = new String[100];
+			Arrays.fill(row, "value, é");
+			try (ByteCsvWriter w = new ByteCsvWriter(FileChannel.open(tmp, StandardOpenOption.WRITE), ',', true)) {
+				for (int i = 0; i < 1000; i++) {
+					w.writeRow(row);
+				}
+			}
+			try (CsvReader r = new CsvReader(new ByteCsvScanner(Files.newInputStream(tmp)))) {
+				for (int i = 0; i < 1000; i++) {
+					assertTrue(r.next());
+					assertArrayEquals(row, r.values());
+				}
+				assertFalse(r.next());
+			}
+		} finally {
+			Files.delete(tmp);
+		}
+	}
+
+	@Test
+	public void testByteBuffer() throws IOException {
+		final ByteBuffer dst = ByteBuffer.allocate(16);
+		final ByteCsvWriter w = new ByteCsvWriter(dst, ';', true);
+		w.writeRow("a;b", "é");
+		w.flush();
+		assertEquals("\"a;b\";é\n", new String(dst.array(), 0, dst.position(), StandardCharsets.UTF_8));
+		w.writeRow("0123456789");
+		try {
+			w.flush();
+			fail("BufferOverflowException expected");
+		} catch (BufferOverflowException e) {
+			// expected
+		}
+	}
+}
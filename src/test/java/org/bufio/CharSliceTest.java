@@ -0,0 +1,58 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CharSliceTest {
+	@Test
+	public void testView() {
+		final CharSlice s = new CharSlice();
+		assertEquals(0, s.length());
+		assertEquals("", s.toString());
+		assertEquals("".hashCode(), s.hashCode());
+
+		final char[] data = "a,hello,b".toCharArray();
+		s.set(data, 2, 5);
+		assertEquals(5, s.length());
+		assertEquals('h', s.charAt(0));
+		assertEquals("ell", s.subSequence(1, 4));
+		assertEquals("hello", s.toString());
+		assertEquals("hello".hashCode(), s.hashCode());
+		assertTrue(s.contentEquals("hello"));
+		assertTrue(s.contentEquals(new StringBuilder("hello")));
+		assertFalse(s.contentEquals("hell"));
+		assertFalse(s.contentEquals("world"));
+		assertFalse(s.contentEquals(null));
+		try {
+			s.charAt(5);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		final char[] dst = new char[6];
+		assertEquals(5, s.copyTo(dst, 1));
+		assertArrayEquals(new char[]{0, 'h', 'e', 'l', 'l', 'o'}, dst);
+
+		final CharSlice o = new CharSlice();
+		o.set("hello".toCharArray(), 0, 5);
+		assertEquals(o, s);
+		assertNotEquals("hello", s);
+
+		s.detach(new char[5]);
+		data[2] = 'j';
+		assertEquals("hello", s.toString());
+	}
+
+	@Test
+	public void testIndexOf() {
+		CharSlice s = new CharSlice();
+		s.set("xxabcabdx".toCharArray(), 2, 6);
+		assertEquals(0, s.indexOf("abc"));
+		assertEquals(3, s.indexOf("abd"));
+		assertEquals(-1, s.indexOf("abdx"));
+		assertEquals(-1, s.indexOf("xx"));
+		assertEquals(0, s.indexOf(""));
+	}
+}
@@ -0,0 +1,127 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Currency;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConvertersTest {
+	@Test
+	public void testBuiltin() throws IOException {
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader("1,2,3.5,0,x,1.25,123456789012345678901234567890," +
+					"2024-02-29,10:15:30,2024-02-29T10:15:30,2024-02-29T10:15:30+01:00,2024-02-29T10:15:30Z[UTC],2024-02-29T10:15:30Z,PT1H," +
+					"SECONDS,123e4567-e89b-12d3-a456-426614174000,TRUE\n"));
+			r.setLazy(lazy);
+			assertTrue(r.next());
+			assertEquals(Integer.valueOf(1), r.getObject(1, Integer.class));
+			assertEquals(Integer.valueOf(1), r.getObject(1, int.class));
+			assertEquals(Long.valueOf(2), r.getObject(2, Long.class));
+			assertEquals(Double.valueOf(3.5), r.getObject(3, Double.class));
+			assertEquals(Boolean.FALSE, r.getObject(4, Boolean.class));
+			assertEquals(Character.valueOf('x'), r.getObject(5, Character.class));
+			assertEquals("x", r.getObject(5, String.class));
+			assertEquals(new BigDecimal("1.25"), r.getObject(6, BigDecimal.class));
+			assertEquals(new BigInteger("123456789012345678901234567890"), r.getObject(7, BigInteger.class));
+			assertEquals(LocalDate.of(2024, 2, 29), r.getObject(8, LocalDate.class));
+			assertEquals(LocalTime.of(10, 15, 30), r.getObject(9, LocalTime.class));
+			assertEquals(LocalDateTime.of(2024, 2, 29, 10, 15, 30), r.getObject(10, LocalDateTime.class));
+			assertEquals(OffsetDateTime.parse("2024-02-29T10:15:30+01:00"), r.getObject(11, OffsetDateTime.class));
+			assertEquals(ZonedDateTime.parse("2024-02-29T10:15:30Z[UTC]"), r.getObject(12, ZonedDateTime.class));
+			assertEquals(Instant.parse("2024-02-29T10:15:30Z"), r.getObject(13, Instant.class));
+			assertEquals(Duration.ofHours(1), r.getObject(14, Duration.class));
+			assertEquals(TimeUnit.SECONDS, r.getObject(15, TimeUnit.class));
+			assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), r.getObject(16, UUID.class));
+			assertEquals(Boolean.TRUE, r.getObject(17, boolean.class));
+		}
+	}
+
+	@Test
+	public void testNull() throws IOException {
+		CsvReader r = new CsvReader(new StringReader(",\n"));
+		r.setEmptyIsNull(true);
+		assertTrue(r.next());
+		assertNull(r.getObject(1, Integer.class));
+		assertTrue(r.wasNull());
+		assertNull(r.getObject(2, LocalDate.class));
+		assertNull(r.getObject(2, TimeUnit.class));
+		assertNull(r.getObject(2, UUID.class));
+	}
+
+	@Test
+	public void testInvalid() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("yes,2024-13-01,MINUTE,123e4567-e89b-12d3-a456-42661417400g,1.2.3\n"));
+		assertTrue(r.next());
+		assertInvalid(r, 1, Boolean.class, "invalid Boolean \"yes\" at line 1, column 1");
+		assertInvalid(r, 2, LocalDate.class, "invalid LocalDate \"2024-13-01\" at line 1, column 2");
+		assertInvalid(r, 3, TimeUnit.class, "invalid TimeUnit \"MINUTE\" at line 1, column 3");
+		assertInvalid(r, 4, UUID.class, "invalid UUID");
+		try {
+			r.getObject(5, BigDecimal.class);
+			fail("NumberFormatException expected");
+		} catch (NumberFormatException e) {
+			assertEquals("invalid BigDecimal \"1.2.3\" at line 1, column 5", e.getMessage());
+		}
+	}
+
+	private static void assertInvalid(CsvReader r, int columnIndex, Class<?> type, String message) throws IOException {
+		try {
+			r.getObject(columnIndex, type);
+			fail("ScanException expected");
+		} catch (ScanException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+		}
+	}
+
+	@Test
+	public void testCustomAndFallback() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("EUR,29/02/2024\n"));
+		assertTrue(r.next());
+		try {
+			r.getObject(1, Currency.class);
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			assertEquals("No converter for java.util.Currency and no unmarshaler set", e.getMessage());
+		}
+		r.setUnmarshaler(new Unmarshaler() {
+			@Override
+			public <T> T unmarshal(String text, Class<T> type) {
+				return type.cast(Currency.getInstance(text));
+			}
+		});
+		assertEquals(Currency.getInstance("EUR"), r.getObject(1, Currency.class));
+		r.setConverter(LocalDate.class, (reader, i) -> {
+			final String s = reader.getString(i);
+			return s == null ? null : LocalDate.of(Integer.parseInt(s.substring(6)), Integer.parseInt(s.substring(3, 5)), Integer.parseInt(s.substring(0, 2)));
+		});
+		assertEquals(LocalDate.of(2024, 2, 29), r.getObject(2, LocalDate.class));
+		assertEquals("29/02/2024", r.getObject(2, String.class));
+		r.setConverter(LocalDate.class, null);
+		try {
+			r.getObject(2, LocalDate.class);
+			fail("ScanException expected");
+		} catch (ScanException e) {
+			assertTrue(e.getMessage().startsWith("invalid LocalDate"));
+		}
+	}
+
+	@Test
+	public void testCache() {
+		assertSame(Converters.get(UUID.class), Converters.get(UUID.class));
+		assertNull(Converters.get(Currency.class));
+	}
+}
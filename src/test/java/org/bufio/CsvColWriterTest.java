@@ -86,6 +86,28 @@ public class CsvColWriterTest {
 		r.close();
 	}
 
+	@Test
+	public void testPrimitivesAndUnsetColumns() throws IOException {
+		final StringWriter buff = new StringWriter();
+		CsvColWriter w = new CsvColWriter(buff);
+		w.setObject(1, "a");
+		w.setDouble(2, 0.5);
+		w.setLong(3, -1L);
+		w.setInt(12, 12);
+		w.endOfRow();
+		w.setInt(1, 1);
+		w.setObject(2, "b");
+		w.setFloat(3, 2.5f);
+		w.endOfRow();
+		w.setObject(2, "c");
+		w.endOfRow();
+		w.setDouble(1, 2e23); // shortest decimal (see CsvWriter#writeDouble)
+		w.setObject(2, 2e23);
+		w.endOfRow();
+		w.close();
+		assertEquals("a,0.5,-1,,,,,,,,,12\n1,b,2.5\n,c\n2.0E23," + Double.toString(2e23) + "\n", buff.toString());
+	}
+
 	private static List<Integer> randomIndexes(int length) {
 		final List<Integer> indexes = new ArrayList<>(length);
 		for (int i = 0; i < length; i++) {
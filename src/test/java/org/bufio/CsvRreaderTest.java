@@ -2,12 +2,15 @@ package org.bufio;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -65,6 +68,201 @@ public class CsvRreaderTest {
 		}
 	}
 
+	@Test
+	public void testLazy() throws IOException {
+		for (ReadTest t : ReadTest.tests) {
+			CsvReader r = t.createReader();
+			r.setLazy(true);
+			check(t, r, true);
+		}
+	}
+
+	@Test
+	public void testLazyAcrossRefills() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 2000; i++) {
+			sb.append(i).append(",\"a \"\"").append(i).append("\"\"\",").append(i * 0.5).append(",x\r\n");
+		}
+		CsvReader r = new CsvReader(new StringReader(sb.toString()));
+		r.setLazy(true);
+		r.setEmptyIsNull(true);
+		List<String> view = r.rowView();
+		for (int i = 0; i < 2000; i++) {
+			assertTrue(r.next());
+			assertEquals(4, view.size());
+			assertEquals(i * 0.5, r.getDouble(3), 0);
+			assertEquals(i, r.getInt(1));
+			assertEquals("a \"" + i + "\"", view.get(1));
+			assertEquals("x", r.getString(4));
+			assertArrayEquals(new String[]{Integer.toString(i), "a \"" + i + "\"", Double.toString(i * 0.5), "x"}, r.values());
+		}
+		assertFalse(r.next());
+		assertTrue(view.isEmpty());
+		try {
+			view.set(0, "x");
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// read-only
+		}
+	}
+
+	@Test
+	public void testLazyRowTooLong() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append(i).append(',');
+		}
+		sb.append('\n');
+		CsvReader r = new CsvReader(new StringReader(sb.toString()));
+		assertTrue(r.next());
+		assertEquals(20001, r.getColumnCount());
+		r = new CsvReader(new StringReader(sb.toString()));
+		r.setLazy(true);
+		try {
+			r.next();
+			fail();
+		} catch (ScanException e) {
+			assertEquals("row too long", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLazySkipRows() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append(i).append(",value").append(i).append('\n');
+		}
+		CsvReader r = new CsvReader(new StringReader(sb.toString()));
+		r.setLazy(true);
+		assertTrue(r.next());
+		r.skipRows(10000); // more than 64K chars
+		assertArrayEquals(new String[]{"0", "value0"}, r.values());
+		assertTrue(r.next());
+		assertEquals("10001", r.getString(1));
+		assertEquals(9998, r.countRows());
+		assertFalse(r.next());
+		r.close();
+	}
+
+	@Test
+	public void testLazyOnByteScanner() {
+		CsvReader r = new CsvReader(new ByteCsvScanner(new ByteArrayInputStream(new byte[0])));
+		try {
+			r.setLazy(true);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("Lazy mode is not supported by a byte scanner", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testProjection() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("id,name,amount,comment\n1,\"a \"\"b\"\"\",1.5,\"x\ny\"\n2,c,2.5,z\n"));
+		r.scanHeaders(false);
+		r.setProjection("amount", "id");
+		assertTrue(r.next());
+		assertEquals(3, r.getColumnCount());
+		assertEquals(1, r.getInt("id"));
+		assertEquals(1.5, r.getDouble(3), 0);
+		assertArrayEquals(new String[]{"1", "", "1.5"}, r.values());
+		try {
+			r.getString("name");
+			fail();
+		} catch (ScanException e) {
+			assertEquals("Column 2 is not projected", e.getMessage());
+		}
+		assertTrue(r.next());
+		assertEquals(2, r.getInt(1));
+		assertEquals(2.5, r.getDouble("amount"), 0);
+		assertFalse(r.next());
+		assertEquals(5, r.getRow());
+	}
+
+	@Test
+	public void testRowFilter() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("date,level,message\n1,INFO,\"x\"\n2,ERROR,\"y,\ny\"\n3,\"ERROR\",z\n4,ERRORS,w\n"));
+		r.scanHeaders(false);
+		r.setRowFilter("level", level -> level.contentEquals("ERROR"));
+		r.setProjection(1, 3);
+		assertTrue(r.next());
+		assertEquals(2, r.getInt(1));
+		assertEquals("y,\ny", r.getString(3));
+		assertTrue(r.next());
+		assertEquals(3, r.getInt("date"));
+		assertFalse(r.next());
+		assertEquals(7, r.getRow());
+	}
+
+	@Test
+	public void testLazyRowFilter() throws IOException {
+		StringBuilder sb = new StringBuilder("KEEP,first\n");
+		for (int i = 0; i < 10000; i++) {
+			sb.append("DROP,").append(i).append("\n# comment\n\n");
+		}
+		sb.append("KEEP,last\n");
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader(sb.toString()));
+			r.setLazy(lazy);
+			r.setCommentMarker('#');
+			r.setRowFilter(1, f -> f.contentEquals("KEEP"));
+			assertTrue(r.next());
+			assertEquals("first", r.getString(2));
+			assertTrue(r.next()); // more than 64K chars of rejected rows
+			assertEquals("last", r.getString(2));
+			assertFalse(r.next());
+			r.close();
+		}
+	}
+
+	@Test
+	public void testSchema() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("comment,amount,id,name\nx,1.5,1,a\ny,NA,2,\nz,,3,c\n"));
+		r.scanHeaders(false);
+		CsvSchema schema = new CsvSchema()
+				.add("id", CsvSchema.Type.LONG)
+				.add("amount", CsvSchema.Type.DOUBLE, true, "", "NA")
+				.add("name", CsvSchema.Type.STRING);
+		int[] handles = r.setSchema(schema);
+		assertArrayEquals(new int[]{3, 2, 4}, handles);
+		assertEquals("name", r.getColumnLabel(handles[2]));
+		assertTrue(r.next());
+		assertEquals(1L, r.getValue(handles[0]));
+		assertEquals(1.5, r.getDouble(handles[1]), 0);
+		assertFalse(r.wasNull());
+		assertEquals("a", r.getValue(handles[2]));
+		assertEquals("x", r.getValue(1));
+		assertTrue(r.next());
+		assertEquals(0, r.getDouble(handles[1]), 0);
+		assertTrue(r.wasNull());
+		assertNull(r.getValue(handles[1]));
+		assertEquals("", r.getString(handles[2])); // not a null token
+		assertFalse(r.wasNull());
+		assertTrue(r.next());
+		assertNull(r.getValue(handles[1]));
+		r.setEmptyIsNull(true);
+		assertEquals("c", r.getString(handles[2]));
+		try {
+			r.setSchema(new CsvSchema().add("comment", CsvSchema.Type.STRING).add("unknown", CsvSchema.Type.INT));
+			fail();
+		} catch (ScanException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("No such column 'unknown' in "));
+		}
+	}
+
+	@Test
+	public void testSchemaNotNullable() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("id\nNULL\n"));
+		r.scanHeaders(false);
+		int[] handles = r.setSchema(new CsvSchema().add("id", CsvSchema.Type.INT, false, "NULL"));
+		assertTrue(r.next());
+		try {
+			r.getInt(handles[0]);
+			fail();
+		} catch (ScanException e) {
+			assertEquals("null value in column 'id' at line 2", e.getMessage());
+		}
+	}
+
 	@Test
 	public void testIterator() throws IOException {
 		CsvReader r;
@@ -194,6 +392,65 @@ public class CsvRreaderTest {
 		}
 	}
 
+	@Test
+	public void testGetInvalidNumber() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("1,\" 2 \",x,300"));
+		assertTrue(r.next());
+		r.setTrimNumbers(true);
+		assertEquals(2, r.getInt(2));
+		try {
+			r.getLong(3);
+			fail();
+		} catch (NumberFormatException e) {
+			assertEquals("invalid long \"x\" at line 1, column 3", e.getMessage());
+		}
+		try {
+			r.getByte(4);
+			fail();
+		} catch (NumberFormatException e) {
+			assertEquals("byte value out of range \"300\" at line 1, column 4", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testGetInvalidNumberAtEndOfLine() throws IOException {
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader("\"a\nb\",1\n\n2,x\n"));
+			r.setLazy(lazy);
+			assertTrue(r.next());
+			assertEquals(1, r.getInt(2));
+			assertTrue(r.next());
+			assertEquals(2, r.getInt(1));
+			try {
+				r.getInt(2);
+				fail();
+			} catch (NumberFormatException e) {
+				assertEquals("invalid int \"x\" at line 4, column 2", e.getMessage());
+			}
+			r.close();
+		}
+	}
+
+	@Test
+	public void testIntern() throws IOException {
+		String content = "id,country\n1,FR\n2,\"FR\"\n3,DE\n4,FR\n";
+		for (CsvReader r : new CsvReader[]{new CsvReader(new StringReader(content)),
+				new CsvReader(new ByteCsvScanner(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))))}) {
+			r.scanHeaders(false);
+			r.intern("country", 10);
+			String[][] rows = new String[4][];
+			for (int i = 0; i < rows.length; i++) {
+				assertTrue(r.next());
+				rows[i] = r.values();
+			}
+			assertFalse(r.next());
+			assertEquals("FR", rows[0][1]);
+			assertSame(rows[0][1], rows[1][1]);
+			assertSame(rows[0][1], rows[3][1]);
+			assertEquals("DE", rows[2][1]);
+		}
+	}
+
 	@Test
 	public void testGetWithBadIndex() throws IOException {
 		CsvReader r = new CsvReader(new StringReader(" "));
@@ -251,32 +508,53 @@ public class CsvRreaderTest {
 
 	@Test
 	public void testSkipRow() throws IOException {
-		CsvReader r = new CsvReader(new StringReader(
-				"colA,colB\n# comment...\nvalue11,value12\n# comment...\nvalue21,value22"));
-		r.setCommentMarker('#');
-		r.skipRows(1);
-		assertTrue(r.next());
-		assertEquals(2, r.getColumnCount());
-		assertArrayEquals(new String[]{"value11", "value12"}, r.values());
-		assertTrue(r.next());
-		assertEquals(2, r.getColumnCount());
-		assertArrayEquals(new String[]{"value21", "value22"}, r.values());
-		r.close();
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader(
+					"colA,colB\n# comment...\nvalue11,value12\n# comment...\nvalue21,value22"));
+			r.setLazy(lazy);
+			r.setCommentMarker('#');
+			r.skipRows(1);
+			assertTrue(r.next());
+			assertEquals(2, r.getColumnCount());
+			assertArrayEquals(new String[]{"value11", "value12"}, r.values());
+			assertTrue(r.next());
+			assertEquals(2, r.getColumnCount());
+			assertArrayEquals(new String[]{"value21", "value22"}, r.values());
+			r.close();
+		}
 	}
 
 	@Test
 	public void testSkipRows() throws IOException {
-		CsvReader r = new CsvReader(new StringReader(
-				"colA,colB\n# comment...\nvalue11,value12\n# comment...\nvalue21,value22"));
-		r.skipRows(2);
-		assertTrue(r.next());
-		assertEquals(2, r.getColumnCount());
-		assertArrayEquals(new String[]{"value11", "value12"}, r.values());
-		r.skipRows(1);
-		assertTrue(r.next());
-		assertEquals(2, r.getColumnCount());
-		assertArrayEquals(new String[]{"value21", "value22"}, r.values());
-		r.close();
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader(
+					"colA,colB\n# comment...\nvalue11,value12\n# comment...\nvalue21,value22"));
+			r.setLazy(lazy);
+			r.skipRows(2);
+			assertTrue(r.next());
+			assertEquals(2, r.getColumnCount());
+			assertArrayEquals(new String[]{"value11", "value12"}, r.values());
+			r.skipRows(1);
+			assertTrue(r.next());
+			assertEquals(2, r.getColumnCount());
+			assertArrayEquals(new String[]{"value21", "value22"}, r.values());
+			r.close();
+		}
+	}
+
+	@Test
+	public void testCountRows() throws IOException {
+		for (boolean lazy : new boolean[]{false, true}) {
+			CsvReader r = new CsvReader(new StringReader(
+					"colA,colB\n# comment...\n\"value\n11\",value12\n\n# comment...\nvalue21,\"value,22\"\nvalue31"));
+			r.setLazy(lazy);
+			r.setCommentMarker('#');
+			r.scanHeaders(true);
+			assertEquals(3, r.countRows());
+			assertEquals(8, r.getRow());
+			assertFalse(r.next());
+			r.close();
+		}
 	}
 
 	private static String join(Object[] values) {
@@ -4,8 +4,12 @@ import org.junit.Test;
 
 import java.io.CharArrayReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -177,6 +181,57 @@ public class CsvScannerTest {
 		r.close();
 	}
 
+	@Test
+	public void testScanNumbers() throws IOException {
+		CsvScanner r = new CsvScanner(new StringReader("1,,\" 3 \"\n4.5,x,99999999999\n"));
+		r.setEmptyIsNull(true);
+		r.setTrimNumbers(true);
+		assertEquals(1, r.scanInt());
+		assertFalse(r.wasNull());
+		assertEquals(0, r.scanLong());
+		assertTrue(r.wasNull());
+		assertEquals(3, r.scanInt());
+		assertEquals(4.5, r.scanDouble(), 0);
+		try {
+			r.scanInt();
+			fail();
+		} catch (NumberFormatException e) {
+			assertEquals("invalid int \"x\" at line 2, column 2", e.getMessage());
+		}
+		try {
+			r.scanInt();
+			fail();
+		} catch (NumberFormatException e) {
+			assertEquals("int value out of range \"99999999999\" at line 2, column 3", e.getMessage());
+		}
+		r.close();
+	}
+
+	@Test
+	public void testScanNumbersWithoutAllocation() throws IOException {
+		final java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+		org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10_000; i++) {
+			sb.append(i).append(',').append(-i * 1000L).append(',').append(i).append(".25\n");
+		}
+		final char[] input = sb.toString().toCharArray();
+		long allocated = 0;
+		for (int k = 0; k < 3; k++) { // warm-up
+			final CsvScanner r = new CsvScanner(new CharArrayReader(input));
+			r.setViewOnly(true);
+			final long before = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+			long sum = 0;
+			for (int i = 0; i < 10_000; i++) {
+				sum += r.scanInt() + r.scanLong() + (long) r.scanDouble();
+			}
+			allocated = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+			assertEquals(0, sum + 10_000L * 9_999 / 2 * 998);
+			r.close();
+		}
+		assertTrue("allocated: " + allocated, allocated < 10_000);
+	}
+
 	@Test
 	public void testNullReader() {
 		try {
@@ -213,5 +268,396 @@ public class CsvScannerTest {
 		}
 		r.close();
 	}
+
+	@Test
+	public void testViewOnly() throws IOException {
+		for (ReadTest t : ReadTest.tests) {
+			if (t.error != null) {
+				continue;
+			}
+			final CsvScanner r = new CsvScanner(new StringReader(t.input), t.sep, t.quoted);
+			r.setCommentMarker(t.comment);
+			r.setTrim(t.trim);
+			r.setSkipEmptyLines(t.skipEmptyLines);
+			r.setViewOnly(true);
+			int i = 0, j = 0;
+			while (r.scan()) {
+				assertTrue(t.name, r.field().contentEquals(t.output[i][j]));
+				assertEquals(t.name, t.output[i][j].hashCode(), r.field().hashCode());
+				assertEquals(t.name, t.output[i][j], r.value());
+				if (r.atEndOfRow()) {
+					j = 0;
+					i++;
+				} else {
+					j++;
+				}
+			}
+			assertEquals(t.name, t.output.length, i);
+			r.close();
+		}
+	}
+
+	@Test
+	public void testViewOnlyPeek() throws IOException {
+		final char[] chars = new char[4096 + 10];
+		Arrays.fill(chars, 'c');
+		chars[4095] = ',';
+		Arrays.fill(chars, 4096, chars.length, 'd');
+		final CsvScanner r = new CsvScanner(new CharArrayReader(chars));
+		r.setViewOnly(true);
+		assertTrue(r.scan());
+		final CharSlice field = r.field();
+		assertEquals(4095, field.length());
+		assertEquals('d', r.peek()); // buffer refilled
+		assertEquals(new String(chars, 0, 4095), field.toString());
+		assertTrue(r.scan());
+		assertEquals(10, r.field().length());
+		r.close();
+	}
+
+	@Test
+	public void testIndexedEngine() throws IOException {
+		for (ReadTest t : ReadTest.tests) {
+			final CsvReader r = new CsvReader(new StringReader(t.input), t.sep, t.quoted, CsvEngine.INDEXED);
+			r.setCommentMarker(t.comment);
+			r.setTrim(t.trim);
+			r.setSkipEmptyLines(t.skipEmptyLines);
+			CsvRreaderTest.check(t, r, true);
+		}
+	}
+
+	@Test
+	public void testIndexedEngineMatchesScalar() throws IOException {
+		final String[] pieces = {"a", "bcd", "efghijklmnopqrstuvwxyz0123456789", " ", ",", ",", "\n", "\r\n",
+				"\"x\",", "\"\"\n", "\"y\"\"z\",", "\"multi\nline\r\n, \"\"quoted\"\" field\"\r\n", "#", "\"", "\r"};
+		final Random rnd = new Random(42);
+		for (int n = 0; n < 2000; n++) {
+			final StringBuilder sb = new StringBuilder();
+			final int length = rnd.nextInt(n % 10 == 0 ? 2000 : 50);
+			for (int i = 0; i < length; i++) {
+				// malformed pieces are rare
+				sb.append(pieces[rnd.nextInt(rnd.nextInt(20) == 0 ? pieces.length : pieces.length - 3)]);
+			}
+			final String input = sb.toString();
+			for (boolean quoted : new boolean[]{true, false}) {
+				assertEquals(input, fields(input, quoted, CsvEngine.SCALAR), fields(input, quoted, CsvEngine.INDEXED));
+			}
+		}
+	}
+
+	@Test
+	public void testIndexedMalformedQuotedField() throws IOException {
+		final StringBuilder sb = new StringBuilder("x\n\"a\"b\"");
+		for (int i = 0; i < 100_000; i++) {
+			sb.append('c');
+		}
+		final String input = sb.append('\n').toString();
+		final List<String> expected = fields(input, true, CsvEngine.SCALAR);
+		assertEquals("unescaped \" character between lines 2 and 2", expected.get(expected.size() - 1));
+		assertEquals(expected, fields(input, true, CsvEngine.INDEXED));
+	}
+
+	@Test
+	public void testProjection() throws IOException {
+		final String[] pieces = {"a", "bcd", "efghijklmnopqrstuvwxyz0123456789", " ", ",", ",", ",", "\n", "\r\n",
+				"\"x\",", "\"\"\n", "\"y\"\"z\",", "\"multi\nline\r\n, \"\"quoted\"\" field\"\r\n"};
+		final Random rnd = new Random(7);
+		for (int n = 0; n < 1000; n++) {
+			final StringBuilder sb = new StringBuilder();
+			final int length = rnd.nextInt(n % 10 == 0 ? 5000 : 50);
+			for (int i = 0; i < length; i++) {
+				sb.append(pieces[rnd.nextInt(pieces.length)]);
+			}
+			final String input = sb.toString();
+			final int[] projection = {1 + rnd.nextInt(4), 1 + rnd.nextInt(6)};
+			final List<List<String>> all = rows(input, null, false);
+			final List<List<String>> expected = new ArrayList<>();
+			for (List<String> row : all.subList(0, all.size() - 1)) {
+				final List<String> projected = new ArrayList<>();
+				for (int c = 1; c <= Math.min(row.size(), Math.max(projection[0], projection[1])); c++) {
+					projected.add(c == projection[0] || c == projection[1] ? row.get(c - 1) : "");
+				}
+				expected.add(projected);
+			}
+			expected.add(all.get(all.size() - 1)); // same line number at the end
+			assertEquals(input, expected, rows(input, projection, false));
+			assertEquals(input, expected, rows(input, projection, true));
+			assertEquals(input, expected, rows(input, projection, CsvEngine.INDEXED));
+		}
+	}
+
+	@Test
+	public void testRowFilter() throws IOException {
+		final String[] pieces = {"a", "y", "bcd", " ", ",", ",", "\n", "\r\n", "\"x\",", "x", "\"\"\n", "\"y\"\"z\",",
+				"\"multi\nline\r\n, \"\"quoted\"\" field y\"\r\n"};
+		final Random rnd = new Random(11);
+		for (int n = 0; n < 1000; n++) {
+			final StringBuilder sb = new StringBuilder();
+			final int length = rnd.nextInt(n % 10 == 0 ? 5000 : 50);
+			for (int i = 0; i < length; i++) {
+				sb.append(pieces[rnd.nextInt(pieces.length)]);
+			}
+			final String input = sb.toString();
+			final List<List<String>> all = rows(input, null, false);
+			final List<List<String>> withY = new ArrayList<>();
+			final List<List<String>> withX = new ArrayList<>();
+			final List<List<String>> withEscapedQuote = new ArrayList<>();
+			for (List<String> row : all.subList(0, all.size() - 1)) {
+				if (row.toString().contains("y")) {
+					withY.add(row);
+				}
+				if (row.size() >= 2 && row.get(1).equals("x")) {
+					withX.add(row);
+				}
+				if (row.get(0).contains("y\"z")) {
+					withEscapedQuote.add(row);
+				}
+			}
+			final List<String> lineno = all.get(all.size() - 1);
+			withY.add(lineno);
+			withX.add(lineno);
+			withEscapedQuote.add(lineno);
+			for (CsvEngine engine : CsvEngine.values()) {
+				CsvReader r = new CsvReader(new StringReader(input), ',', true, engine);
+				r.setRowFilter(record -> record.indexOf("y") >= 0);
+				assertEquals(input, withY, rows(r, null));
+				r = new CsvReader(new StringReader(input), ',', true, engine);
+				r.setRowFilter(2, field -> field.contentEquals("x"));
+				assertEquals(input, withX, rows(r, null));
+				r = new CsvReader(new StringReader(input), ',', true, engine);
+				r.setRowFilter(1, field -> field.indexOf("y\"z") >= 0);
+				assertEquals(input, withEscapedQuote, rows(r, null));
+			}
+		}
+	}
+
+	@Test
+	public void testRowFilterCrlfEmptyLines() throws IOException {
+		final String input = "KEEP\r\n\r\nDROP\r\nKEEP\n\nDROP\r\n\r";
+		for (CsvEngine engine : CsvEngine.values()) {
+			for (Reader in : new Reader[]{new StringReader(input), new SlowReader(input)}) { // '\r' at the end of the first read
+				final CsvReader r = new CsvReader(in, ',', true, engine);
+				r.setSkipEmptyLines(false);
+				r.setRowFilter(record -> record.contentEquals("KEEP"));
+				final List<List<String>> rows = rows(r, null);
+				assertEquals(engine.name(), Arrays.asList(Arrays.asList("KEEP"), Arrays.asList(""), Arrays.asList("KEEP"),
+						Arrays.asList(""), Arrays.asList(""), Arrays.asList("7")), rows);
+			}
+		}
+	}
+
+	private static List<List<String>> rows(String input, int[] projection, boolean bytes) throws IOException {
+		if (bytes) {
+			return rows(new CsvReader(new ByteCsvScanner(new java.io.ByteArrayInputStream(input.getBytes(java.nio.charset.StandardCharsets.UTF_8)))), projection);
+		}
+		return rows(new CsvReader(new StringReader(input)), projection);
+	}
+
+	private static List<List<String>> rows(String input, int[] projection, CsvEngine engine) throws IOException {
+		return rows(new CsvReader(new StringReader(input), ',', true, engine), projection);
+	}
+
+	private static List<List<String>> rows(CsvReader r, int[] projection) throws IOException {
+		final List<List<String>> rows = new ArrayList<>();
+		r.setProjection(projection);
+		while (r.next()) {
+			rows.add(java.util.Arrays.asList(r.values()));
+		}
+		rows.add(java.util.Collections.singletonList(Integer.toString(r.getRow())));
+		return rows;
+	}
+
+	// Returns fields, with their position and line number, and the error if any.
+	private static List<String> fields(String input, boolean quoted, CsvEngine engine) throws IOException {
+		final List<String> fields = new ArrayList<>();
+		try (CsvScanner r = new CsvScanner(new StringReader(input), ',', quoted, engine)) {
+			r.setCommentMarker('#');
+			while (r.scan()) {
+				fields.add(r.value() + '|' + r.column() + '|' + r.atEndOfRow() + '|' + r.lineno());
+			}
+		} catch (ScanException e) {
+			fields.add(e.getMessage());
+		}
+		return fields;
+	}
+	@Test
+	public void testCountAndSkipRows() throws IOException {
+		for (ReadTest t : ReadTest.tests) {
+			if (t.error != null) {
+				continue;
+			}
+			for (CsvEngine engine : CsvEngine.values()) {
+				final int lineno;
+				try (CsvScanner r = scanner(t, engine)) {
+					while (r.scan()) {
+						// consume
+					}
+					lineno = r.lineno();
+				}
+				try (CsvScanner r = scanner(t, engine)) {
+					assertEquals(t.name, t.output.length, r.countRows());
+					assertEquals(t.name, lineno, r.lineno());
+					assertEquals(t.name, 0, r.countRows());
+				}
+				for (int k = 0; k < t.output.length; k++) {
+					try (CsvScanner r = scanner(t, engine)) {
+						r.skipRows(k);
+						final List<String> row = new ArrayList<>();
+						while (r.scan()) {
+							row.add(r.value());
+							if (r.atEndOfRow()) {
+								break;
+							}
+						}
+						assertEquals(t.name + " row " + k, Arrays.asList(t.output[k]), row);
+					}
+				}
+			}
+		}
+	}
+
+	private static CsvScanner scanner(ReadTest t, CsvEngine engine) {
+		final CsvScanner r = new CsvScanner(new StringReader(t.input), t.sep, t.quoted, engine);
+		r.setCommentMarker(t.comment);
+		r.setTrim(t.trim);
+		r.setSkipEmptyLines(t.skipEmptyLines);
+		return r;
+	}
+
+	@Test
+	public void testCountRowsAcrossBuffers() throws IOException {
+		final Random random = new Random(25);
+		for (int n = 0; n < 200; n++) {
+			final String input = randomInput(random);
+			final boolean trim = n % 2 == 0, skipEmptyLines = n % 3 != 0;
+			long expected = 0;
+			int lineno = 0;
+			String error = null;
+			try (CsvScanner r = scanner(new SlowReader(input), trim, skipEmptyLines)) {
+				while (r.scan()) {
+					if (r.atEndOfRow()) {
+						expected++;
+					}
+				}
+				lineno = r.lineno();
+			} catch (ScanException e) {
+				error = e.getMessage();
+			}
+			try (CsvScanner r = scanner(new SlowReader(input), trim, skipEmptyLines)) {
+				assertEquals(input, expected, r.countRows());
+				assertNull(error);
+				assertEquals(lineno, r.lineno());
+			} catch (ScanException e) {
+				assertEquals(error, e.getMessage());
+			}
+		}
+	}
+
+	// Well-formed records (with comments, empty and blank lines) possibly followed by a non-terminated quoted field
+	static String randomInput(Random random) {
+		final String[] unquoted = {"", "a", "bc", " d ", "e\"f", "g#", "\r"};
+		final String[] quoted = {"", "a", ",", "\n", "\r\n", "\"\"", "#"};
+		final String[] eols = {"\n", "\r\n"};
+		final StringBuilder sb = new StringBuilder();
+		while (sb.length() < 10_000) {
+			switch (random.nextInt(10)) {
+				case 0:
+					sb.append("# comment \"");
+					break;
+				case 1:
+					sb.append(random.nextBoolean() ? "" : "  ");
+					break;
+				default:
+					for (int i = random.nextInt(5); i >= 0; i--) {
+						if (random.nextBoolean()) {
+							sb.append('"');
+							for (int j = random.nextInt(4); j > 0; j--) {
+								sb.append(quoted[random.nextInt(quoted.length)]);
+							}
+							sb.append('"');
+						} else {
+							sb.append(unquoted[random.nextInt(unquoted.length)]);
+						}
+						sb.append(i == 0 ? "" : ",");
+					}
+			}
+			sb.append(eols[random.nextInt(eols.length)]);
+		}
+		switch (random.nextInt(4)) {
+			case 0:
+				sb.append("last,record");
+				break;
+			case 1:
+				sb.append("\"non-terminated\n");
+				break;
+			default:
+		}
+		return sb.toString();
+	}
+
+	private static CsvScanner scanner(CharArrayReader r, boolean trim, boolean skipEmptyLines) {
+		final CsvScanner s = new CsvScanner(r, ',', true);
+		s.setCommentMarker('#');
+		s.setTrim(trim);
+		s.setSkipEmptyLines(skipEmptyLines);
+		return s;
+	}
+
+	// Returns a few chars at a time (buffer boundaries anywhere)
+	private static class SlowReader extends CharArrayReader {
+		private SlowReader(String s) {
+			super(s.toCharArray());
+		}
+
+		@Override
+		public int read(char[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 7));
+		}
+	}
+
+	@Test
+	public void testSkipRowsReleasesMark() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			sb.append(i).append(",value").append(i).append('\n');
+		}
+		try (CsvScanner r = new CsvScanner(new StringReader(sb.toString()))) {
+			r.mark(); // as a lazy CsvReader at row start
+			r.skipRows(10000); // more than 64K chars
+			assertTrue(r.scan());
+			assertEquals("10000", r.value());
+			r.mark();
+			assertEquals(10000, r.countRows());
+		}
+	}
+
+	@Test
+	public void testSkipRowsMidRow() throws IOException {
+		try (CsvScanner r = new CsvScanner(new StringReader("a,b,\"c\nd\"\ne,f\n\n# g\nh\"i,j\n"))) {
+			r.setCommentMarker('#');
+			assertTrue(r.scan());
+			assertEquals("a", r.value());
+			r.skipRows(1); // rest of the current row
+			assertEquals(3, r.lineno());
+			assertTrue(r.scan());
+			assertEquals("e", r.value());
+			assertEquals(2, r.countRows());
+			assertEquals(7, r.lineno());
+		}
+		try (CsvScanner r = new CsvScanner(new StringReader("a,b,\"c\nd\"\ne,f\n"))) {
+			r.setProjection(1);
+			assertTrue(r.scan());
+			assertTrue(r.atEndOfRow());
+			assertEquals(1, r.countRows()); // the current row is already ended
+			assertEquals(4, r.lineno());
+		}
+		try (CsvScanner r = new CsvScanner(new StringReader("a,b\n\"c\nd"))) {
+			r.countRows();
+			fail("ScanException expected");
+		} catch (ScanException e) {
+			assertEquals("non-terminated quoted field at line 2", e.getMessage());
+		}
+	}
+
 	// TODO scanRow with values = 0, 1, ...
 }
@@ -3,8 +3,15 @@ package org.bufio;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class CsvWriterTest {
@@ -64,4 +71,135 @@ public class CsvWriterTest {
 			}
 		}
 	}
+
+	@Test
+	public void testBuffered() throws IOException {
+		final int[] writes = new int[1];
+		final StringWriter s = new StringWriter();
+		final Writer counting = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				writes[0]++;
+				s.write(cbuf, off, len);
+			}
+			@Override
+			public void write(String str, int off, int len) {
+				writes[0]++;
+				s.write(str, off, len);
+			}
+			@Override
+			public void flush() {
+			}
+			@Override
+			public void close() {
+			}
+		};
+		final CsvWriter w = new CsvWriter(counting);
+		w.writeRow("a", "b,c", "d\"e");
+		w.write(new char[]{'x', '\n'});
+		w.endOfRow();
+		assertEquals(0, writes[0]);
+		w.flush();
+		assertEquals(1, writes[0]);
+		assertEquals("a,\"b,c\",\"d\"\"e\"\n\"x\n\"\n", s.toString());
+
+		// larger than the buffer
+		s.getBuffer().setLength(0);
+		final char[] large = new char[20000];
+		Arrays.fill(large, 'l');
+		large[10000] = '"';
+		final String[] row = {"1", new String(large), new String(large).replace('"', 'l')};
+		for (int i = 0; i < 100; i++) {
+			w.writeRow(row);
+		}
+		w.close();
+		final CsvReader r = new CsvReader(new StringReader(s.toString()));
+		for (int i = 0; i < 100; i++) {
+			assertTrue(r.next());
+			assertArrayEquals(row, r.values());
+		}
+		assertFalse(r.next());
+	}
+
+	@Test
+	public void testWritePrimitives() throws IOException {
+		StringWriter s = new StringWriter();
+		CsvWriter w = new CsvWriter(s);
+		w.writeInt(-12);
+		w.writeLong(Long.MIN_VALUE);
+		w.writeDouble(0.1);
+		w.writeFloat(1e-5f);
+		w.writeBoolean(true);
+		w.writeValue((short) 7);
+		w.writeValue(2.5);
+		w.endOfRow();
+		w.flush();
+		assertEquals("-12,-9223372036854775808,0.1,1.0E-5,true,7,2.5\n", s.toString());
+
+		// shortest decimal with writeDouble/writeFloat, toString with writeValue
+		s = new StringWriter();
+		w = new CsvWriter(s);
+		w.writeDouble(2e23);
+		w.writeFloat(1.43431219E9f);
+		w.writeValue(2e23);
+		w.writeValue(1.43431219E9f);
+		w.endOfRow();
+		w.flush();
+		assertEquals("2.0E23,1.4343122E9," + Double.toString(2e23) + ',' + Float.toString(1.43431219E9f) + '\n', s.toString());
+
+		// separator which may appear in a number
+		s = new StringWriter();
+		w = new CsvWriter(s, '.', true);
+		w.writeDouble(1.5);
+		w.writeInt(3);
+		w.endOfRow();
+		w.flush();
+		assertEquals("\"1.5\".3\n", s.toString());
+
+		s = new StringWriter();
+		w = new CsvWriter(s);
+		w.setMarshaler(value -> "<" + value + ">");
+		w.writeInt(1);
+		w.writeDouble(2);
+		w.endOfRow();
+		w.flush();
+		assertEquals("<1>,<2.0>\n", s.toString());
+	}
+
+	@Test
+	public void testWritePrimitivesAllocation() throws IOException {
+		final java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+		org.junit.Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		org.junit.Assume.assumeTrue(threads.isThreadAllocatedMemoryEnabled());
+		final Writer sink = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+			}
+			@Override
+			public void flush() {
+			}
+			@Override
+			public void close() {
+			}
+		};
+		final CsvWriter w = new CsvWriter(sink);
+		writeNumbers(w, 1000); // warm-up
+		final long tid = Thread.currentThread().getId();
+		final long before = threads.getThreadAllocatedBytes(tid);
+		writeNumbers(w, 100_000);
+		final long allocated = threads.getThreadAllocatedBytes(tid) - before;
+		assertTrue("allocated " + allocated, allocated < 100_000);
+	}
+
+	private static void writeNumbers(CsvWriter w, int n) throws IOException {
+		for (int i = 0; i < n; i++) {
+			w.writeInt(i);
+			w.writeLong(i * 1_000_003L);
+			w.writeDouble(i / 7.0);
+			w.writeFloat(i / 3f);
+			w.writeBoolean((i & 1) == 0);
+			w.endOfRow();
+		}
+	}
 }
@@ -0,0 +1,104 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FastDoubleParserTest {
+	private static void checkDouble(String s) {
+		final double v = FastDoubleParser.parse(s, false);
+		if (v == v) {
+			assertEquals(s, Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(v));
+		}
+		assertEquals(s, Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(NumberDecoder.decodeDouble(s, 1, 1)));
+	}
+
+	private static void checkFloat(String s) {
+		final double v = FastDoubleParser.parse(s, true);
+		if (v == v) {
+			assertEquals(s, Float.floatToRawIntBits(Float.parseFloat(s)), Float.floatToRawIntBits((float) v));
+		}
+		assertEquals(s, Float.floatToRawIntBits(Float.parseFloat(s)), Float.floatToRawIntBits(NumberDecoder.decodeFloat(s, 1, 1)));
+	}
+
+	@Test
+	public void testParse() {
+		final String[] values = {"0", "-0", "0.0", "-0.0", "00.000", "1", "-1", "+1", ".5", "5.", "0.1", "0.3", "1e0", "1E-7",
+				"123.456e+10", "1e22", "1e23", "9007199254740993", "18446744073709551615", "1.7976931348623157e308",
+				"1.7976931348623158e308", "2.2250738585072014E-308", "2.2250738585072011e-308", "4.9e-324", "1e-400", "1e400",
+				"3.4028235e38", "3.4028236e38", "1.17549435E-38", "1.4e-45", "0.000000000000000000000000000000001",
+				"89255.0e-22", "7.038531e-26", "1.00000005960464477539062499", "1.000000059604644775390625",
+				"1.00000005960464477539062501", "9007199254740992.9999999999999999999", " 1.5\t",
+		};
+		for (String s : values) {
+			checkDouble(s);
+			checkFloat(s);
+		}
+		assertTrue(FastDoubleParser.parse("123.456", false) == 123.456);
+	}
+
+	@Test
+	public void testNotDecimal() {
+		for (String s : new String[]{"", "-", ".", "e5", "1e", "1e+", "1..2", "1.2.3", "1x", "NaN", "Infinity", "0x1p3", "1d", "1f"}) {
+			assertTrue(s, Double.isNaN(FastDoubleParser.parse(s, false)));
+			assertTrue(s, Double.isNaN(FastDoubleParser.parse(s, true)));
+		}
+	}
+
+	@Test
+	public void testShortest() {
+		final Random rnd = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			final double d = Double.longBitsToDouble(rnd.nextLong());
+			if (!Double.isNaN(d)) {
+				checkDouble(Double.toString(d));
+			}
+			final float f = Float.intBitsToFloat(rnd.nextInt());
+			if (!Float.isNaN(f)) {
+				checkFloat(Float.toString(f));
+			}
+		}
+	}
+
+	@Test
+	public void testLongMantissa() {
+		final Random rnd = new Random(7);
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 50_000; i++) {
+			sb.setLength(0);
+			final int n = 1 + rnd.nextInt(30);
+			for (int j = 0; j < n; j++) {
+				sb.append((char) ('0' + rnd.nextInt(10)));
+			}
+			if (rnd.nextBoolean()) {
+				sb.insert(rnd.nextInt(n + 1), '.');
+			}
+			sb.append('e').append(rnd.nextInt(700) - 350);
+			final String s = sb.toString();
+			checkDouble(s);
+			checkFloat(s);
+		}
+	}
+
+	@Test
+	public void testHalfway() {
+		final Random rnd = new Random(3);
+		for (int i = 0; i < 20_000; i++) {
+			// exact decimal expansion of the midpoint between two consecutive doubles (or floats)
+			final double d = Math.abs(Double.longBitsToDouble(rnd.nextLong()));
+			if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+				final BigDecimal mid = new BigDecimal(d).add(new BigDecimal(Math.nextUp(d))).divide(BigDecimal.valueOf(2));
+				checkDouble(mid.toString());
+			}
+			final float f = Math.abs(Float.intBitsToFloat(rnd.nextInt()));
+			if (!Float.isNaN(f) && !Float.isInfinite(f)) {
+				final BigDecimal mid = new BigDecimal(f).add(new BigDecimal(Math.nextUp(f))).divide(BigDecimal.valueOf(2));
+				checkFloat(mid.toString());
+				checkFloat(mid.toPlainString());
+			}
+		}
+	}
+}
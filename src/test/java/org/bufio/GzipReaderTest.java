@@ -0,0 +1,110 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class GzipReaderTest {
+	private static String input(int n) {
+		final StringBuilder sb = new StringBuilder("id,text\n");
+		for (int i = 0; i < n; i++) {
+			sb.append(i).append(',').append(i % 5 == 0 ? "\"é, \"\"€\"\"\n😀\"" : "plain").append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static byte[] gzip(String s) throws IOException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+			out.write(s.getBytes(StandardCharsets.UTF_8));
+		}
+		return bos.toByteArray();
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		final String input = input(100_000);
+		try (CsvReader expected = new CsvReader(new StringReader(input));
+				 CsvReader r = new CsvReader(new GzipReader(new ByteArrayInputStream(gzip(input))))) {
+			while (expected.next()) {
+				assertTrue(r.next());
+				assertArrayEquals(expected.values(), r.values());
+			}
+			assertFalse(r.next());
+		}
+	}
+
+	@Test
+	public void testMultiMember() throws IOException {
+		final byte[] a = gzip("a,b\n");
+		final byte[] b = gzip("c,d\n");
+		final byte[] ab = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, ab, a.length, b.length);
+		final char[] buf = new char[16];
+		try (GzipReader r = new GzipReader(new ByteArrayInputStream(ab))) {
+			assertEquals(8, r.read(buf, 0, buf.length));
+			assertEquals("a,b\nc,d\n", new String(buf, 0, 8));
+			assertEquals(-1, r.read(buf, 0, buf.length));
+			assertEquals(-1, r.read(buf, 0, buf.length));
+		}
+	}
+
+	@Test
+	public void testCorrupted() throws IOException {
+		final byte[] gz = gzip(input(10_000));
+		try (GzipReader r = new GzipReader(new ByteArrayInputStream(Arrays.copyOf(gz, gz.length / 2)))) {
+			final char[] buf = new char[4096];
+			try {
+				while (r.read(buf, 0, buf.length) >= 0) {
+					// consume
+				}
+				fail("IOException expected");
+			} catch (IOException e) {
+				// expected (and reported again)
+				try {
+					r.read(buf, 0, buf.length);
+					fail("IOException expected");
+				} catch (IOException e2) {
+					assertSame(e, e2);
+				}
+			}
+		}
+		try (GzipReader r = new GzipReader(new ByteArrayInputStream(new byte[]{1, 2, 3}))) {
+			r.read(new char[1], 0, 1);
+			fail("IOException expected");
+		} catch (IOException e) {
+			// not in gzip format
+		}
+	}
+
+	@Test
+	public void testCloseEarly() throws IOException, InterruptedException {
+		final boolean[] closed = new boolean[1];
+		final InputStream in = new ByteArrayInputStream(gzip(input(100_000))) {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		final GzipReader r = new GzipReader(in);
+		assertEquals(1, r.read(new char[1], 0, 1));
+		Thread.sleep(50); // let the background thread fill all the buffers
+		r.close();
+		assertTrue(closed[0]);
+		try {
+			r.read(new char[1], 0, 1);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertEquals("reader closed", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumberDecoderTest {
+	private static long decodeInt(String s, boolean trim) {
+		return NumberDecoder.decodeLong(s, trim, Integer.MIN_VALUE, Integer.MAX_VALUE, "int", 1, 2);
+	}
+
+	@Test
+	public void testDecodeInt() {
+		for (String s : new String[]{"0", "-0", "+1", "-1", "123", "007", "2147483647", "-2147483648"}) {
+			assertEquals(s, Integer.parseInt(s), decodeInt(s, false));
+		}
+		assertEquals(42, decodeInt(" 42\t", true));
+		assertEquals(Long.MIN_VALUE, NumberDecoder.decodeLong("-9223372036854775808", false, Long.MIN_VALUE, Long.MAX_VALUE, "long", 1, 1));
+		assertEquals(Long.MAX_VALUE, NumberDecoder.decodeLong("9223372036854775807", false, Long.MIN_VALUE, Long.MAX_VALUE, "long", 1, 1));
+		for (String s : new String[]{"", "-", "+", "1a", "a1", " 1", "1 ", "1.0", "--1"}) {
+			try {
+				decodeInt(s, false);
+				fail(s);
+			} catch (NumberFormatException e) {
+				assertEquals(String.format("invalid int \"%s\" at line 1, column 2", s), e.getMessage());
+			}
+		}
+		for (String s : new String[]{"2147483648", "-2147483649", "99999999999999999999"}) {
+			try {
+				decodeInt(s, false);
+				fail(s);
+			} catch (NumberFormatException e) {
+				assertEquals(String.format("int value out of range \"%s\" at line 1, column 2", s), e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testDecodeDouble() {
+		for (String s : new String[]{"0", "-0", "-0.0", "1", "1.", ".5", "+3.14", "1e10", "1E-5", "123456789012345678",
+				"0.1", "9007199254740993", "1e23", "1e-400", "1e400", "NaN", "-Infinity", "0x1p3", "1d", " 2.5 ",
+				"12345678901234567890", "4.9e-324", "1.7976931348623157e308"}) {
+			assertEquals(s, Double.doubleToRawLongBits(Double.parseDouble(s)), Double.doubleToRawLongBits(NumberDecoder.decodeDouble(s, 1, 1)));
+			assertEquals(s, Float.floatToRawIntBits(Float.parseFloat(s)), Float.floatToRawIntBits(NumberDecoder.decodeFloat(s, 1, 1)));
+		}
+		final Random rnd = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			final String s = (rnd.nextBoolean() ? "-" : "") + rnd.nextInt(1_000_000) + '.' + rnd.nextInt(1_000_000) +
+					(rnd.nextBoolean() ? "e" + (rnd.nextInt(40) - 20) : "");
+			assertEquals(s, Double.parseDouble(s), NumberDecoder.decodeDouble(s, 1, 1), 0);
+			assertEquals(s, Float.parseFloat(s), NumberDecoder.decodeFloat(s, 1, 1), 0);
+		}
+		for (String s : new String[]{"", ".", "e5", "1e", "1.2.3", "abc"}) {
+			try {
+				NumberDecoder.decodeDouble(s, 3, 4);
+				fail(s);
+			} catch (NumberFormatException e) {
+				assertEquals(String.format("invalid double \"%s\" at line 3, column 4", s), e.getMessage());
+			}
+		}
+	}
+}
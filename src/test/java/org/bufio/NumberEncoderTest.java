@@ -0,0 +1,103 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NumberEncoderTest {
+	private static final char[] BUF = new char[NumberEncoder.MAX_LENGTH + 1];
+
+	private static String encode(double v) {
+		return new String(BUF, 1, NumberEncoder.encodeDouble(v, BUF, 1) - 1);
+	}
+
+	private static String encode(float v) {
+		return new String(BUF, 1, NumberEncoder.encodeFloat(v, BUF, 1) - 1);
+	}
+
+	// Same value and not longer than Double.toString (which may not be the shortest before JDK 19).
+	private static void checkDouble(double v) {
+		final String s = encode(v);
+		final String expected = Double.toString(v);
+		assertEquals(expected, Double.doubleToLongBits(v), Double.doubleToLongBits(Double.parseDouble(s)));
+		assertTrue(expected + " <> " + s, s.length() <= expected.length());
+		assertEquals(expected, expected.contains("E"), s.contains("E"));
+	}
+
+	private static void checkFloat(float v) {
+		final String s = encode(v);
+		final String expected = Float.toString(v);
+		assertEquals(expected, Float.floatToIntBits(v), Float.floatToIntBits(Float.parseFloat(s)));
+		assertTrue(expected + " <> " + s, s.length() <= expected.length());
+		assertEquals(expected, expected.contains("E"), s.contains("E"));
+	}
+
+	@Test
+	public void testDouble() {
+		final double[] values = {0, 1, 0.1, 0.3, 1e7, 9999999, 1e-3, 1e-4, 123456.789, Math.PI, Math.E, 1e22, 1e23,
+				Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, 9007199254740993.0, 2.2250738585072011e-308,
+				Long.MAX_VALUE, 1.0 / 3,
+		};
+		final String[] expected = {"0.0", "1.0", "0.1", "0.3", "1.0E7", "9999999.0", "0.001", "1.0E-4", "123456.789",
+				"3.141592653589793", "2.718281828459045", "1.0E22", "1.0E23", "4.9E-324", "2.2250738585072014E-308",
+				"1.7976931348623157E308", "9.007199254740992E15", "2.225073858507201E-308", "9.223372036854776E18",
+				"0.3333333333333333",
+		};
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(expected[i], encode(values[i]));
+			assertEquals('-' + expected[i], encode(-values[i]));
+			checkDouble(values[i]);
+		}
+		assertEquals("NaN", encode(Double.NaN));
+		assertEquals("Infinity", encode(Double.POSITIVE_INFINITY));
+		assertEquals("-Infinity", encode(Double.NEGATIVE_INFINITY));
+	}
+
+	@Test
+	public void testFloat() {
+		final float[] values = {0, 1, 0.1f, 0.3f, 1e7f, 1e-3f, 1e-4f, 123456.79f, (float) Math.PI, Float.MIN_VALUE,
+				Float.MIN_NORMAL, Float.MAX_VALUE, 16777217f,
+		};
+		final String[] expected = {"0.0", "1.0", "0.1", "0.3", "1.0E7", "0.001", "1.0E-4", "123456.79", "3.1415927",
+				"1.4E-45", "1.1754944E-38", "3.4028235E38", "1.6777216E7",
+		};
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(expected[i], encode(values[i]));
+			assertEquals('-' + expected[i], encode(-values[i]));
+			checkFloat(values[i]);
+		}
+		assertEquals("NaN", encode(Float.NaN));
+		assertEquals("-Infinity", encode(Float.NEGATIVE_INFINITY));
+	}
+
+	@Test
+	public void testRandom() {
+		final Random r = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			final double d = Double.longBitsToDouble(r.nextLong());
+			if (!Double.isNaN(d)) {
+				checkDouble(d);
+			}
+			checkDouble(r.nextInt(1_000_000) / 100.0);
+			checkDouble(r.nextDouble() * Math.pow(10, r.nextInt(40) - 20));
+			final float f = Float.intBitsToFloat(r.nextInt());
+			if (!Float.isNaN(f)) {
+				checkFloat(f);
+			}
+		}
+	}
+
+	@Test
+	public void testLong() {
+		final long[] values = {0, 1, -1, 9, 10, -10, 99, 100, 123456789, Integer.MIN_VALUE, Integer.MAX_VALUE,
+				999_999_999_999_999_999L, 1_000_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE};
+		final char[] buf = new char[NumberEncoder.MAX_LENGTH];
+		for (long v : values) {
+			assertEquals(Long.toString(v), new String(buf, 0, NumberEncoder.encodeLong(v, buf, 0)));
+		}
+		assertEquals("-2147483648", new String(buf, 0, NumberEncoder.encodeInt(Integer.MIN_VALUE, buf, 0)));
+		assertEquals("false", new String(buf, 0, NumberEncoder.encodeBoolean(false, buf, 0)));
+	}
+}
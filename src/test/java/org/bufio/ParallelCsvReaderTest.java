@@ -0,0 +1,147 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ParallelCsvReaderTest {
+	private static String input() {
+		StringBuilder sb = new StringBuilder("id,text,value\n");
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append(',');
+			switch (i % 4) {
+				case 0:
+					sb.append("plain");
+					break;
+				case 1:
+					sb.append("\"multi\nline, with \"\"quotes\"\"\n\"");
+					break;
+				case 2:
+					sb.append("\"a,b\"");
+					break;
+				default:
+					sb.append("\"\"");
+			}
+			sb.append(',').append(i * 0.5).append(i % 7 == 0 ? "\r\n" : "\n");
+		}
+		return sb.toString();
+	}
+
+	private static List<String[]> expected(String input) throws IOException {
+		final List<String[]> rows = new ArrayList<>();
+		try (CsvReader r = new CsvReader(new StringReader(input))) {
+			r.scanHeaders(false);
+			for (String[] row : r) {
+				rows.add(row);
+			}
+		}
+		return rows;
+	}
+
+	private static Path file(String input) throws IOException {
+		final Path path = Files.createTempFile("parallel", ".csv");
+		path.toFile().deleteOnExit();
+		Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		final String input = input();
+		final List<String[]> expected = expected(input);
+		for (long chunkSize : new long[]{1, 37, 1024, 1 << 20}) {
+			try (ParallelCsvReader r = new ParallelCsvReader(file(input))) {
+				r.setChunkSize(chunkSize);
+				final Map<String, Integer> headers = r.scanHeaders(false);
+				assertEquals(3, headers.size());
+				final List<String[]> rows = r.stream().collect(Collectors.toList());
+				assertEquals(expected.size(), rows.size());
+				for (int i = 0; i < rows.size(); i++) {
+					assertArrayEquals(expected.get(i), rows.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		final String input = input();
+		final List<String[]> expected = expected(input);
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try (ParallelCsvReader r = new ParallelCsvReader(file(input))) {
+			r.setChunkSize(100);
+			r.setOrdered(false);
+			r.setPool(pool);
+			r.scanHeaders(false);
+			final List<String[]> rows = Collections.synchronizedList(new ArrayList<>());
+			r.forEach(rows::add);
+			rows.sort(Comparator.comparingInt(row -> Integer.parseInt(row[0])));
+			assertEquals(expected.size(), rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				assertArrayEquals(expected.get(i), rows.get(i));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSplit() throws IOException {
+		try (ParallelCsvReader r = new ParallelCsvReader(file(input()))) {
+			r.setChunkSize(1000);
+			assertNotNull(r.spliterator().trySplit());
+		}
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		try (ParallelCsvReader r = new ParallelCsvReader(file(""))) {
+			assertTrue(r.scanHeaders(false).isEmpty());
+			assertEquals(0, r.stream().count());
+		}
+	}
+
+	@Test
+	public void testBlockGzip() throws IOException {
+		final String input = input();
+		final List<String[]> expected = expected(input);
+		final Path path = Files.createTempFile("parallel", ".csv.gz");
+		path.toFile().deleteOnExit();
+		final BlockGzipCsvWriter writer = new BlockGzipCsvWriter(Files.newOutputStream(path));
+		try (BlockGzipCsvWriter w = writer;
+				 CsvReader r = new CsvReader(new StringReader(input))) {
+			w.setBlockSize(1000);
+			while (r.next()) {
+				w.writeRow(r.values());
+			}
+		}
+		final BlockGzipIndex index = writer.getIndex();
+		assertTrue(index.blockCount() > 10);
+		for (BlockGzipIndex blocks : new BlockGzipIndex[]{index, null}) {
+			try (ParallelCsvReader r = new ParallelCsvReader(path)) {
+				r.setBlockGzipIndex(blocks == null ? BlockGzipIndex.scan(FileChannel.open(path)) : blocks);
+				assertEquals(3, r.scanHeaders(false).size());
+				assertEquals(index.rowCount(), r.spliterator().estimateSize());
+				final List<String[]> rows = r.stream().collect(Collectors.toList());
+				assertEquals(expected.size(), rows.size());
+				for (int i = 0; i < rows.size(); i++) {
+					assertArrayEquals(expected.get(i), rows.get(i));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+
+public class ParallelCsvWriterTest {
+	private static final ParallelCsvWriter.Formatter<Integer> FORMATTER = (i, w) -> {
+		w.writeInt(i);
+		final String v = "v" + i;
+		w.write(i % 3 == 0 ? v + ",\"quoted\"" : v);
+		w.writeDouble(i / 7.0);
+		w.writeValue(i % 5 == 0 ? null : "é\n" + i);
+	};
+
+	private static String serial(int n) throws IOException {
+		final StringWriter s = new StringWriter();
+		final CsvWriter w = new CsvWriter(s);
+		w.useCRLF();
+		w.writeRow("i", "s", "d", "o");
+		for (int i = 0; i < n; i++) {
+			FORMATTER.format(i, w);
+			w.endOfRow();
+		}
+		w.close();
+		return s.toString();
+	}
+
+	@Test
+	public void testOrdered() throws IOException {
+		final int n = 100_000;
+		final String expected = serial(n);
+		for (int batchSize : new int[]{1, 100, 1024, 1_000_000}) {
+			final StringWriter s = new StringWriter();
+			final CsvWriter w = new CsvWriter(s);
+			w.useCRLF();
+			w.writeRow("i", "s", "d", "o");
+			try (ParallelCsvWriter pw = new ParallelCsvWriter(w)) {
+				pw.setBatchSize(batchSize);
+				pw.setMaxInFlight(3);
+				pw.write(IntStream.range(0, n).boxed().parallel(), FORMATTER);
+			}
+			assertEquals("batch size " + batchSize, expected, s.toString());
+		}
+	}
+
+	@Test
+	public void testNotSplittable() throws IOException {
+		final int n = 10_000;
+		final String expected = serial(n);
+		final Spliterators.AbstractSpliterator<Integer> sp = new Spliterators.AbstractSpliterator<Integer>(Long.MAX_VALUE, 0) {
+			private int i;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super Integer> action) {
+				if (i == n) {
+					return false;
+				}
+				action.accept(i++);
+				return true;
+			}
+
+			@Override
+			public Spliterators.AbstractSpliterator<Integer> trySplit() {
+				return null;
+			}
+		};
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final CsvWriter w = new ByteCsvWriter(bos);
+		w.useCRLF();
+		w.writeRow("i", "s", "d", "o");
+		try (ParallelCsvWriter pw = new ParallelCsvWriter(w)) {
+			pw.setBatchSize(100);
+			pw.write(StreamSupport.stream(sp, true), FORMATTER);
+		}
+		assertEquals(expected, new String(bos.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		final String[][] rows = new String[10_000][];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = new String[]{String.valueOf(i), "a,b", "c\"d"};
+		}
+		final StringWriter s = new StringWriter();
+		try (ParallelCsvWriter pw = new ParallelCsvWriter(s)) {
+			pw.setOrdered(false);
+			pw.setBatchSize(10);
+			pw.writeRows(Arrays.stream(rows).parallel());
+		}
+		final boolean[] seen = new boolean[rows.length];
+		final CsvReader r = new CsvReader(new java.io.StringReader(s.toString()));
+		while (r.next()) {
+			final String[] values = r.values();
+			final int i = Integer.parseInt(values[0]);
+			assertFalse(seen[i]);
+			seen[i] = true;
+			assertArrayEquals(rows[i], values);
+		}
+		for (boolean b : seen) {
+			assertTrue(b);
+		}
+	}
+
+	@Test
+	public void testError() {
+		final StringWriter s = new StringWriter();
+		final ParallelCsvWriter pw = new ParallelCsvWriter(new CsvWriter(s, ',', false));
+		try {
+			pw.writeRows(Stream.of(new String[]{"a"}, new String[]{"b,c"}).parallel());
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertEquals("separator in value", e.getMessage());
+		}
+		try {
+			pw.write(IntStream.range(0, 10_000).boxed().parallel(), (i, w) -> {
+				if (i == 5000) {
+					throw new IllegalStateException("boom");
+				}
+				w.writeInt(i);
+			});
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException | IOException e) {
+			assertEquals("boom", e.getMessage());
+		}
+	}
+}
@@ -83,6 +83,7 @@ public class RoundTripTest {
 			for (String[] row : t.input) {
 				w.writeRow(row);
 			}
+			w.flush();
 			CsvReader r = new CsvReader(new StringReader(buf.toString()), t.sep, t.quoted);
 			r.setCommentMarker(t.comment);
 			r.setSkipEmptyLines(false);
@@ -0,0 +1,140 @@
+package org.bufio;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RowBatchTest {
+	@Test
+	public void testScanBatch() throws IOException {
+		CsvScanner s = new CsvScanner(new StringReader("1,10,1.5,\"a,b\",FR\n2,,2.5,,DE\n3,30\n4,40,4.5,d,FR,extra\n5,50,5.5,e,US\n"));
+		RowBatch batch = new RowBatch(2, RowBatch.Type.INT, RowBatch.Type.LONG, RowBatch.Type.DOUBLE, RowBatch.Type.STRING, RowBatch.Type.DICTIONARY);
+		assertEquals(2, s.scanBatch(batch));
+		assertArrayEquals(new int[]{1, 2}, batch.ints(0));
+		assertEquals(10, batch.getLong(1, 0));
+		assertTrue(batch.isNull(1, 1));
+		assertEquals(2.5, batch.getDouble(2, 1), 0);
+		assertEquals("a,b", batch.getString(3, 0));
+		assertNull(batch.getString(3, 1));
+		assertArrayEquals(new int[]{0, 1}, batch.codes(4));
+		assertEquals(Arrays.asList("FR", "DE"), batch.dictionary(4));
+
+		assertEquals(2, s.scanBatch(batch));
+		assertEquals(3, batch.getInt(0, 0));
+		assertEquals(30, batch.getLong(1, 0));
+		assertTrue(batch.isNull(2, 0));
+		assertTrue(batch.isNull(3, 0));
+		assertTrue(batch.isNull(4, 0));
+		assertEquals(-1, batch.codes(4)[0]);
+		assertEquals("d", batch.getString(3, 1));
+		assertEquals(0, batch.codes(4)[1]); // same code in all batches
+		assertEquals(1L, batch.nulls(2)[0]);
+
+		assertEquals(1, s.scanBatch(batch));
+		assertEquals("e", batch.getString(3, 0));
+		assertEquals("US", batch.getString(4, 0));
+		assertEquals(2, batch.codes(4)[0]);
+		try {
+			batch.getInt(0, 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("row: 1, size: 1", e.getMessage());
+		}
+		assertEquals(0, s.scanBatch(batch));
+		assertEquals(0, batch.size());
+	}
+
+	@Test
+	public void testWrongType() {
+		RowBatch batch = new RowBatch(1, RowBatch.Type.INT);
+		try {
+			batch.doubles(0);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("column 0 is INT, not DOUBLE", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testInvalidNumber() throws IOException {
+		CsvScanner s = new CsvScanner(new StringReader("1\nx\n"));
+		RowBatch batch = new RowBatch(10, RowBatch.Type.INT);
+		try {
+			s.scanBatch(batch);
+			fail();
+		} catch (NumberFormatException e) {
+			assertEquals("invalid int \"x\" at line 2, column 1", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLargeInput() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10_000; i++) {
+			sb.append(i).append(',').append("value").append(i % 7).append(',').append(i * 0.25).append(',').append("text").append(i).append('\n');
+		}
+		CsvScanner s = new CsvScanner(new StringReader(sb.toString()));
+		RowBatch batch = new RowBatch(1000, RowBatch.Type.LONG, RowBatch.Type.DICTIONARY, RowBatch.Type.DOUBLE, RowBatch.Type.STRING);
+		int i = 0;
+		while (s.scanBatch(batch) > 0) {
+			for (int row = 0; row < batch.size(); row++, i++) {
+				assertEquals(i, batch.getLong(0, row));
+				assertEquals("value" + (i % 7), batch.getString(1, row));
+				assertEquals(i * 0.25, batch.getDouble(2, row), 0);
+				assertEquals("text" + i, batch.getString(3, row));
+			}
+		}
+		assertEquals(10_000, i);
+		assertEquals(7, batch.dictionary(1).size());
+	}
+
+	@Test
+	public void testDictionaryFull() throws IOException {
+		CsvScanner s = new CsvScanner(new StringReader("a\nb\n\na\na\nc\n\nd\n"));
+		s.setSkipEmptyLines(false);
+		RowBatch batch = new RowBatch(4, RowBatch.Type.DICTIONARY);
+		batch.setMaxDictionarySize(2);
+		assertEquals(4, s.scanBatch(batch));
+		assertArrayEquals(new int[]{0, 1, -1, 0}, batch.codes(0));
+		assertEquals(4, s.scanBatch(batch)); // "c" is a third distinct value
+		assertEquals(RowBatch.Type.STRING, batch.type(0));
+		assertEquals("a", batch.getString(0, 0));
+		assertEquals("c", batch.getString(0, 1));
+		assertTrue(batch.isNull(0, 2));
+		assertEquals("d", batch.getString(0, 3));
+		try {
+			batch.codes(0);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("column 0 is STRING, not DICTIONARY", e.getMessage());
+		}
+		assertEquals(0, s.scanBatch(batch));
+	}
+
+	@Test
+	public void testSteadyStateWithoutAllocation() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100_000; i++) {
+			sb.append(i).append(',').append("v").append(i % 10).append(',').append(i % 1000).append(".5,abc\n");
+		}
+		String content = sb.toString();
+		RowBatch batch = new RowBatch(1024, RowBatch.Type.INT, RowBatch.Type.DICTIONARY, RowBatch.Type.DOUBLE, RowBatch.Type.STRING);
+		CsvScanner s = new CsvScanner(new StringReader(content));
+		while (s.scanBatch(batch) > 0) { // warm up
+		}
+		s.reset(new StringReader(content));
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		long before = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		while (s.scanBatch(batch) > 0) {
+		}
+		long allocated = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+		assertTrue("allocated: " + allocated, allocated < 100_000);
+	}
+}
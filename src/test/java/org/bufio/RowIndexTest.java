@@ -0,0 +1,178 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RowIndexTest {
+	private static String input(boolean comments) {
+		final StringBuilder sb = new StringBuilder("id,text\n");
+		for (int i = 0; i < 1000; i++) {
+			if (i % 10 == 3) {
+				sb.append('\n'); // empty line
+			}
+			if (comments && i % 10 == 7) {
+				sb.append("# comment with \"quote\n");
+			}
+			sb.append(i).append(',');
+			switch (i % 3) {
+				case 0:
+					sb.append("\"multi\nline, with \"\"quotes\"\"\nété\"");
+					break;
+				case 1:
+					sb.append("plain");
+					break;
+				default:
+					sb.append("\"\"");
+			}
+			sb.append(i % 4 == 0 ? "\r\n" : "\n");
+		}
+		sb.setLength(sb.length() - 1); // no final newline
+		return sb.toString();
+	}
+
+	private static Path file(String input) throws IOException {
+		final Path path = Files.createTempFile("rowindex", ".csv");
+		path.toFile().deleteOnExit();
+		Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	// rows and line numbers read sequentially
+	private static List<String[]> rows(String input, char comment, List<Integer> linenos) throws IOException {
+		final List<String[]> rows = new ArrayList<>();
+		try (CsvReader r = new CsvReader(new StringReader(input))) {
+			r.setCommentMarker(comment);
+			while (r.next()) {
+				rows.add(r.values());
+				linenos.add(r.getRow());
+			}
+		}
+		return rows;
+	}
+
+	@Test
+	public void testSeek() throws IOException {
+		for (char comment : new char[]{0, '#'}) {
+			final String input = input(comment != 0);
+			final List<Integer> linenos = new ArrayList<>();
+			final List<String[]> expected = rows(input, comment, linenos);
+			final Path path = file(input);
+			for (int interval : new int[]{1, 7, 100, 10_000}) {
+				final RowIndex index = RowIndex.build(path, interval, ',', true, comment, true);
+				assertEquals(expected.size(), index.rowCount());
+				for (int row : new int[]{0, 1, 6, 7, 8, 99, 100, 101, 500, 999, 1000}) {
+					try (CsvReader r = index.reader(path, row)) {
+						assertTrue(r.next());
+						assertArrayEquals(expected.get(row), r.values());
+						assertEquals(linenos.get(row).intValue(), r.getRow());
+					}
+					try (CsvScanner s = index.scanner(path, row)) {
+						assertTrue(s.scan());
+						assertEquals(expected.get(row)[0], s.value());
+					}
+				}
+				try (CsvReader r = index.reader(path, index.rowCount())) {
+					assertFalse(r.next());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSeekBlankLines() throws IOException {
+		final StringBuilder sb = new StringBuilder("id,text\r\n");
+		for (int i = 0; i < 300; i++) {
+			switch (i % 5) {
+				case 0:
+					sb.append("\r\r\n"); // not empty: "\r"
+					break;
+				case 1:
+					sb.append(" \t \r\n"); // empty when trimmed
+					break;
+				case 2:
+					sb.append("\r\n");
+					break;
+				default:
+					break;
+			}
+			sb.append(i).append(i % 2 == 0 ? ", x \r\n" : ",\"y\r\nz\"\r\n");
+		}
+		final String input = sb.toString();
+		final Path path = file(input);
+		for (boolean trim : new boolean[]{false, true}) {
+			final long rowCount;
+			try (CsvReader r = new CsvReader(new StringReader(input))) {
+				r.setTrim(trim);
+				rowCount = r.countRows();
+			}
+			for (int interval : new int[]{1, 7, 64}) {
+				final RowIndex index = RowIndex.build(path, interval, ',', true, (char) 0, true, trim);
+				assertEquals(rowCount, index.rowCount());
+				for (int row = 0; row < rowCount; row += 13) {
+					try (CsvReader expected = new CsvReader(new StringReader(input)); CsvReader r = index.reader(path, row)) {
+						expected.setTrim(trim);
+						expected.skipRows(row);
+						assertTrue(expected.next());
+						r.setTrim(trim);
+						assertTrue(r.next());
+						assertArrayEquals(expected.values(), r.values());
+						assertEquals(expected.getRow(), r.getRow());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSaveAndStale() throws IOException {
+		final String input = input(false);
+		final Path path = file(input);
+		final Path indexPath = Files.createTempFile("rowindex", ".idx");
+		indexPath.toFile().deleteOnExit();
+		final RowIndex index = RowIndex.build(path, 16, ',', true);
+		index.write(indexPath);
+		assertTrue(Files.size(indexPath) < 1000);
+		final RowIndex loaded = RowIndex.read(indexPath, path);
+		assertEquals(index.toString(), loaded.toString());
+		try (CsvReader r = loaded.reader(path, 123)) {
+			assertTrue(r.next());
+			assertEquals("122", r.getString(1));
+		}
+		try {
+			index.reader(path, 1002);
+			fail("IndexOutOfBoundsException expected");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		Files.setLastModifiedTime(path, FileTime.fromMillis(Files.getLastModifiedTime(path).toMillis() - 60_000));
+		try {
+			RowIndex.read(indexPath, path);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("stale index"));
+		}
+		try {
+			index.reader(path, 0);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("stale index"));
+		}
+		try {
+			RowIndex.read(path, path);
+			fail("IOException expected");
+		} catch (IOException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("not a row index"));
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+import static org.junit.Assume.assumeTrue;
+
+public class RowMapperTest {
+	public static class Trade {
+		public String symbol;
+		public Integer quantity;
+		private double price;
+		private boolean settled;
+		private char side;
+		public long ignored = -1;
+
+		public void setPrice(double price) {
+			this.price = price;
+		}
+
+		public void setSettled(boolean settled) {
+			this.settled = settled;
+		}
+
+		public void setSide(char side) {
+			this.side = side;
+		}
+	}
+
+	@Test
+	public void testBean() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("Symbol,quantity,price,comment,settled,side\nABC,10,1.5,x,true,B\nDEF,,2,y,false,S\n"));
+		r.scanHeaders(false);
+		RowMapper<Trade> mapper = new RowMapper<>(Trade.class, r);
+		assertEquals(Arrays.asList("price", "quantity", "settled", "side", "symbol"), sorted(mapper));
+		r.setEmptyIsNull(true);
+		assertTrue(r.next());
+		Trade t = mapper.map();
+		assertEquals("ABC", t.symbol);
+		assertEquals(Integer.valueOf(10), t.quantity);
+		assertEquals(1.5, t.price, 0);
+		assertTrue(t.settled);
+		assertEquals('B', t.side);
+		assertEquals(-1, t.ignored);
+		assertTrue(r.next());
+		t = mapper.map();
+		assertEquals("DEF", t.symbol);
+		assertNull(t.quantity);
+		assertEquals(2, t.price, 0);
+		assertFalse(t.settled);
+		assertEquals('S', t.side);
+		assertFalse(r.next());
+	}
+
+	@Test
+	public void testInvalidValue() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("quantity\nten\n"));
+		r.scanHeaders(false);
+		RowMapper<Trade> mapper = new RowMapper<>(Trade.class, r);
+		assertTrue(r.next());
+		try {
+			mapper.map();
+			fail("NumberFormatException expected");
+		} catch (NumberFormatException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("ten"));
+		}
+	}
+
+	@Test
+	public void testInvalidBoolean() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("settled,side\nyes,B\n1,SS\n"));
+		r.scanHeaders(false);
+		RowMapper<Trade> mapper = new RowMapper<>(Trade.class, r);
+		assertTrue(r.next());
+		try {
+			mapper.map();
+			fail("ScanException expected");
+		} catch (ScanException e) {
+			assertEquals("invalid Boolean \"yes\" at line 2, column 1", e.getMessage());
+		}
+		assertTrue(r.next());
+		try {
+			mapper.map();
+			fail("ScanException expected");
+		} catch (ScanException e) {
+			assertEquals("invalid Character \"SS\" at line 3, column 2", e.getMessage());
+		}
+	}
+
+	@Test(expected = ScanException.class)
+	public void testNoHeader() throws IOException {
+		new RowMapper<>(Trade.class, new CsvReader(new StringReader("a,b\n")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoConstructor() throws IOException {
+		CsvReader r = new CsvReader(new StringReader("value\n1\n"));
+		r.scanHeaders(false);
+		new RowMapper<>(Integer.class, r);
+	}
+
+	@Test
+	public void testRecord() throws Exception {
+		assumeTrue(hasRecords());
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+		Path dir = Files.createTempDirectory("record");
+		try {
+			Path source = dir.resolve("Point.java");
+			Files.write(source, "public record Point(String name, int x, Long y) {}".getBytes(StandardCharsets.UTF_8));
+			assertEquals(0, compiler.run(null, null, null, source.toString()));
+			try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()})) {
+				Class<?> type = loader.loadClass("Point");
+				CsvReader r = new CsvReader(new StringReader("y,x,name\n2,1,a\n,3,b\n"));
+				r.scanHeaders(false);
+				r.setEmptyIsNull(true);
+				RowMapper<?> mapper = new RowMapper<>(type, r);
+				assertTrue(r.next());
+				assertEquals("Point[name=a, x=1, y=2]", mapper.map().toString());
+				assertTrue(r.next());
+				assertEquals("Point[name=b, x=3, y=null]", mapper.map().toString());
+			}
+		} finally {
+			for (Path p : new Path[]{dir.resolve("Point.class"), dir.resolve("Point.java"), dir}) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+
+	private static boolean hasRecords() {
+		for (Method m : Class.class.getMethods()) {
+			if (m.getName().equals("isRecord")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static java.util.List<String> sorted(RowMapper<?> mapper) {
+		java.util.List<String> names = mapper.boundProperties();
+		names.sort(null);
+		return names;
+	}
+}
@@ -0,0 +1,84 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class StringTableTest {
+	@Test
+	public void testIntern() {
+		StringTable t = new StringTable(4);
+		CharSlice s = new CharSlice();
+		char[] data = "xFRyUSz".toCharArray();
+		s.set(data, 1, 2);
+		String fr = t.intern(s);
+		assertEquals("FR", fr);
+		s.set(data, 4, 2);
+		assertEquals("US", t.intern(s));
+		assertSame(fr, t.intern(new String("FR")));
+		byte[] b = "-FR-".getBytes(StandardCharsets.US_ASCII);
+		assertSame(fr, t.intern(b, 1, 2));
+		assertEquals(2, t.size());
+		assertEquals("", t.intern(""));
+	}
+
+	@Test
+	public void testLongValuesAreNotInterned() {
+		StringTable t = new StringTable(4);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i <= StringTable.MAX_LENGTH; i++) {
+			sb.append('x');
+		}
+		String v = t.intern(sb);
+		assertEquals(sb.toString(), v);
+		assertNotSame(v, t.intern(sb));
+		assertEquals(0, t.size());
+	}
+
+	@Test
+	public void testLowCardinality() {
+		StringTable t = new StringTable(10);
+		for (int i = 0; i < 100_000; i++) {
+			t.intern(Integer.toString(i % 12)); // a few values are not cached once the table is full
+		}
+		assertEquals(10, t.size());
+		assertFalse(t.isDisabled());
+		assertSame(t.intern("0"), t.intern(new String("0")));
+	}
+
+	@Test
+	public void testHighCardinality() {
+		StringTable t = new StringTable(10);
+		for (int i = 0; i < 1_000; i++) {
+			assertEquals(Integer.toString(i), t.intern(Integer.toString(i)));
+		}
+		assertTrue(t.isDisabled());
+		assertEquals(0, t.size());
+		assertEquals("1", t.intern("1"));
+	}
+
+	@Test
+	public void testSet() {
+		StringTable[] tables = StringTable.set(null, 3, 10);
+		assertNotNull(StringTable.get(tables, 3));
+		assertNull(StringTable.get(tables, 1));
+		assertNull(StringTable.get(tables, 4));
+		tables = StringTable.set(tables, 3, 0);
+		assertNull(StringTable.get(tables, 3));
+		assertNull(StringTable.set(null, 1, 0));
+		try {
+			StringTable.set(null, 0, 10);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("invalid column: 0", e.getMessage());
+		}
+		try {
+			StringTable.set(null, 1, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("invalid capacity: -1", e.getMessage());
+		}
+	}
+}
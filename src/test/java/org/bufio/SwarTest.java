@@ -0,0 +1,77 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SwarTest {
+	private static final String ALPHABET = "ab,\"\n\r€Ⰺਬ";
+
+	@Test
+	public void testIndexOfChars() {
+		final Random rnd = new Random(42);
+		for (int n = 0; n < 1000; n++) {
+			final char[] data = new char[rnd.nextInt(40)];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = rnd.nextInt(4) == 0 ? ALPHABET.charAt(rnd.nextInt(ALPHABET.length())) : 'x';
+			}
+			final int from = data.length == 0 ? 0 : rnd.nextInt(data.length);
+			for (char[] ab : new char[][]{{',', '\n'}, {'"', '\n'}, {'\n', '\n'}, {'Ⰺ', 'ਬ'}}) {
+				int expected = from;
+				while (expected < data.length && data[expected] != ab[0] && data[expected] != ab[1]) {
+					expected++;
+				}
+				assertEquals(expected, Swar.indexOf(data, from, data.length, ab[0], ab[1]));
+			}
+		}
+	}
+
+	@Test
+	public void testIndexOfBytes() {
+		final Random rnd = new Random(42);
+		for (int n = 0; n < 1000; n++) {
+			final byte[] bytes = new byte[rnd.nextInt(80)];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = rnd.nextInt(4) == 0 ? (byte) rnd.nextInt(256) : (byte) 'x';
+			}
+			final int from = bytes.length == 0 ? 0 : rnd.nextInt(bytes.length);
+			for (ByteBuffer data : new ByteBuffer[]{ByteBuffer.wrap(bytes),
+					ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN),
+					ByteBuffer.allocateDirect(bytes.length).put(bytes)}) {
+				for (byte[] ab : new byte[][]{{',', '\n'}, {'"', '\n'}, {(byte) 0x80, (byte) 0xFF}, {0, 0x7F}}) {
+					int expected = from;
+					while (expected < bytes.length && bytes[expected] != ab[0] && bytes[expected] != ab[1]) {
+						expected++;
+					}
+					assertEquals(expected, Swar.indexOf(data, from, bytes.length, ab[0], ab[1]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLongFields() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			sb.append("abcdefghijklmnopqrstuvwxyz");
+		}
+		final String value = sb.toString();
+		final String input = value + ',' + '"' + value + "\r\n\"\"" + value + '"' + "\r\n" + value + ",\"" + value + "\"\n";
+		final CsvScanner r = new CsvScanner(new StringReader(input));
+		final String[] values = new String[2];
+		assertEquals(2, r.scanRow(values));
+		assertArrayEquals(new String[]{value, value + "\r\n\"" + value}, values);
+		assertEquals(3, r.lineno());
+		assertEquals(2, r.scanRow(values));
+		assertArrayEquals(new String[]{value, value}, values);
+		assertEquals(4, r.lineno());
+		assertEquals(0, r.scanRow(values));
+		r.close();
+	}
+}
@@ -0,0 +1,43 @@
+package org.bufio;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VectorBlockClassifierTest {
+	@Test
+	public void testLoaded() {
+		assertEquals("org.bufio.VectorBlockClassifier", StructuralIndex.CLASSIFIER.getClass().getName());
+	}
+
+	@Test
+	public void testSameAsScalar() {
+		final char[] alphabet = {'a', ',', ';', '"', '\n', '\r', ' ', 'é', 'Ⱒ', 'ਢ'}; // same low/high byte as quote or newline
+		final Random rnd = new Random(17);
+		for (int n = 0; n < 1000; n++) {
+			final char[] data = new char[rnd.nextInt(1000)];
+			for (int i = 0; i < data.length; i++) {
+				data[i] = alphabet[rnd.nextInt(alphabet.length)];
+			}
+			final int from = data.length == 0 ? 0 : rnd.nextInt(data.length);
+			final int blocks = (data.length - from + 63) / 64;
+			for (char sep : new char[]{',', ';'}) {
+				for (boolean quoted : new boolean[]{true, false}) {
+					final long[][] expected = classify(StructuralIndex.SCALAR, data, from, sep, quoted, blocks);
+					final long[][] actual = classify(StructuralIndex.CLASSIFIER, data, from, sep, quoted, blocks);
+					for (int k = 0; k < 3; k++) {
+						assertArrayEquals(expected[k], actual[k]);
+					}
+				}
+			}
+		}
+	}
+
+	private static long[][] classify(BlockClassifier classifier, char[] data, int from, char sep, boolean quoted, int blocks) {
+		final long[] quotes = new long[blocks + 1], seps = new long[blocks + 1], lfs = new long[blocks + 1];
+		classifier.classify(data, from, data.length, sep, quoted, quotes, seps, lfs, 1);
+		return new long[][]{quotes, seps, lfs};
+	}
+}